@@ -0,0 +1,26 @@
+package br.com.votingapi.application;
+
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.EstrategiaApuracao;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface ApuracaoVotosService {
+
+    EstrategiaApuracao getEstrategia();
+
+    /**
+     * Conta os votos a favor e contra da sessão, incluindo os votos confirmados que ainda não foram gravados.
+     * Retorna vazio se a sessão não existir.
+     */
+    Mono<ContagemVotos> apurar(String idSessao);
+
+    /**
+     * Apura as sessões informadas, que devem existir, com um número de consultas que não depende da quantidade de
+     * sessões. Retorna uma contagem por sessão, em qualquer ordem.
+     */
+    Flux<ContagemVotos> apurar(Collection<String> idsSessoes);
+
+}
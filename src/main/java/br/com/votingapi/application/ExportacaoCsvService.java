@@ -0,0 +1,23 @@
+package br.com.votingapi.application;
+
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Exportações para auditoria em CSV, lidas do banco à medida que as linhas são consumidas. Cada linha termina com
+ * quebra de linha e a primeira é o cabeçalho.
+ */
+public interface ExportacaoCsvService {
+
+    /**
+     * Todos os votos da sessão, inclusive os da lista da sessão.
+     */
+    Flux<String> exportarVotos(String idSessao);
+
+    /**
+     * O resultado de cada sessão com término entre {@code inicio} e {@code fim}, inclusive.
+     */
+    Flux<String> exportarResultados(LocalDateTime inicio, LocalDateTime fim);
+
+}
@@ -1,6 +1,7 @@
 package br.com.votingapi.application;
 
 import br.com.votingapi.domain.model.Pauta;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.Pagina;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -8,6 +9,8 @@ public interface PautaService {
 
     Flux<Pauta> listarTodas();
 
+    Mono<Pagina<Pauta>> listarPagina(String aposId, Integer tamanho);
+
     Mono<Pauta> salvar(Pauta pauta);
 
     Mono<Pauta> buscarPeloId(String id);
@@ -0,0 +1,50 @@
+package br.com.votingapi.application;
+
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.service.exception.AssociadoJaVotouException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Grava um voto já validado e atualiza os contadores da sessão. A implementação é escolhida pela propriedade
+ * {@code votacao.escrita.modo}.
+ */
+public interface RegistroVotosService {
+
+    /**
+     * @return o voto gravado, ou erro {@link AssociadoJaVotouException} se o associado já votou na sessão.
+     */
+    Mono<Voto> registrar(Voto voto);
+
+    /**
+     * Verificação antecipada de voto duplicado, para recusar o voto antes das verificações mais caras. O
+     * {@link #registrar} continua recusando o voto duplicado que não for detectado aqui.
+     */
+    Mono<Boolean> associadoJaVotou(String idSessao, String cpfAssociado);
+
+    /**
+     * Grava os votos, cada um com o seu resultado. A implementação padrão registra os votos um a um.
+     *
+     * @return as posições, na lista informada, dos votos recusados porque o associado já votou na sessão.
+     */
+    default Mono<Set<Integer>> registrarEmLote(List<Voto> votos) {
+        return Flux.range(0, votos.size())
+                .flatMap(posicao -> registrar(votos.get(posicao))
+                        .then(Mono.<Integer>empty())
+                        .onErrorResume(AssociadoJaVotouException.class, e -> Mono.just(posicao)))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Votos da sessão já confirmados que ainda não estão nos contadores do banco.
+     */
+    default Mono<ContagemVotos> contagemPendente(String idSessao) {
+        return Mono.empty();
+    }
+
+}
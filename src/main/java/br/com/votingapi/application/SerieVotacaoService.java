@@ -0,0 +1,20 @@
+package br.com.votingapi.application;
+
+import br.com.votingapi.domain.model.GranularidadeSerie;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.SerieVotacao;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface SerieVotacaoService {
+
+    /**
+     * Conta os votos gravados nas séries das suas sessões. Uma falha é registrada no log e não é repassada, para
+     * não recusar votos já gravados.
+     */
+    Mono<Void> registrar(Collection<Voto> votos);
+
+    Mono<SerieVotacao> buscarSerie(String idSessao, GranularidadeSerie granularidade);
+
+}
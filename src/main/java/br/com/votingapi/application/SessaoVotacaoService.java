@@ -1,21 +1,42 @@
 package br.com.votingapi.application;
 
+import br.com.votingapi.domain.model.EstrategiaApuracao;
 import br.com.votingapi.domain.model.SessaoVotacao;
 import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.MetadadosSessao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.Pagina;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoApuracaoSessao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoImportacaoVoto;
 import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResumoVotacao;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface SessaoVotacaoService {
 
-    Flux<SessaoVotacao> listarTodas();
+    Flux<MetadadosSessao> listarTodas();
+
+    Mono<Pagina<MetadadosSessao>> listarPagina(String aposId, Integer tamanho);
 
     Mono<SessaoVotacao> salvar(SessaoVotacao sessaoVotacao);
 
     Mono<Voto> votar(String idSessao, Voto voto);
 
+    Flux<ResultadoImportacaoVoto> importarVotos(String idSessao, Flux<Voto> votos);
+
     Mono<ResumoVotacao> apurarResultadoVotacao(String idSessao);
 
+    Mono<ResumoVotacao> apurarResultadoVotacao(String idSessao, EstrategiaApuracao estrategia);
+
+    Flux<ResultadoApuracaoSessao> apurarResultadosVotacao(List<String> idsSessoes);
+
+    Flux<ResultadoApuracaoSessao> consultarResultadosVotacao(List<String> idsSessoes);
+
+    Flux<ResumoVotacao> acompanharResultadoVotacao(String idSessao);
+
     Mono<SessaoVotacao> buscarSessaoVotacaoPeloId(String idSessao);
 
+    Mono<MetadadosSessao> buscarMetadadosSessao(String idSessao);
+
 }
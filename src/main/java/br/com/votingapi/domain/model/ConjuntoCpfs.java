@@ -0,0 +1,142 @@
+package br.com.votingapi.domain.model;
+
+/**
+ * Conjunto de CPFs compactados ({@link Cpf#compactar}) em um único vetor de {@code long}, com endereçamento aberto
+ * e sondagem linear. Cada CPF ocupa de 16 a 32 bytes, contra cerca de 100 bytes de uma String em um
+ * {@code HashSet}, e não há um objeto por CPF para o coletor de lixo percorrer.
+ * <p>
+ * O zero marca as posições livres; o CPF 000.000.000-00, que é inválido, é guardado à parte. As operações são
+ * sincronizadas, pois são curtas e o conjunto é compartilhado pelas threads que registram os votos da sessão.
+ */
+public final class ConjuntoCpfs {
+
+    private static final int CAPACIDADE_MINIMA = 16;
+    private static final double FATOR_CARGA = 0.5;
+
+    private long[] posicoes;
+    private int tamanho;
+    private int limite;
+    private boolean contemZero;
+
+    public ConjuntoCpfs() {
+        this(CAPACIDADE_MINIMA);
+    }
+
+    /**
+     * @param capacidade quantidade de CPFs esperada, para evitar redimensionar o vetor durante a carga.
+     */
+    public ConjuntoCpfs(int capacidade) {
+        alocar(tamanhoVetor(capacidade));
+    }
+
+    /**
+     * @return {@code false} se o CPF já estava no conjunto.
+     */
+    public synchronized boolean adicionar(long cpf) {
+        if (cpf == 0) {
+            if (contemZero) {
+                return false;
+            }
+            contemZero = true;
+            tamanho++;
+            return true;
+        }
+        int posicao = posicao(posicoes, cpf);
+        if (posicoes[posicao] == cpf) {
+            return false;
+        }
+        posicoes[posicao] = cpf;
+        if (++tamanho > limite) {
+            redimensionar(posicoes.length * 2);
+        }
+        return true;
+    }
+
+    public synchronized boolean contem(long cpf) {
+        return cpf == 0 ? contemZero : posicoes[posicao(posicoes, cpf)] == cpf;
+    }
+
+    /**
+     * Remove o CPF e desloca para trás os CPFs seguintes da mesma sequência, sem deixar marcas de remoção.
+     *
+     * @return {@code false} se o CPF não estava no conjunto.
+     */
+    public synchronized boolean remover(long cpf) {
+        if (cpf == 0) {
+            if (!contemZero) {
+                return false;
+            }
+            contemZero = false;
+            tamanho--;
+            return true;
+        }
+        int mascara = posicoes.length - 1;
+        int livre = posicao(posicoes, cpf);
+        if (posicoes[livre] != cpf) {
+            return false;
+        }
+        tamanho--;
+        for (int atual = (livre + 1) & mascara; posicoes[atual] != 0; atual = (atual + 1) & mascara) {
+            int ideal = dispersao(posicoes[atual]) & mascara;
+            if (((atual - ideal) & mascara) >= ((atual - livre) & mascara)) {
+                posicoes[livre] = posicoes[atual];
+                livre = atual;
+            }
+        }
+        posicoes[livre] = 0;
+        return true;
+    }
+
+    public synchronized int tamanho() {
+        return tamanho;
+    }
+
+    private void redimensionar(int tamanhoVetor) {
+        long[] anteriores = posicoes;
+        alocar(tamanhoVetor);
+        for (long cpf : anteriores) {
+            if (cpf != 0) {
+                posicoes[posicao(posicoes, cpf)] = cpf;
+            }
+        }
+    }
+
+    private void alocar(int tamanhoVetor) {
+        posicoes = new long[tamanhoVetor];
+        limite = (int) (tamanhoVetor * FATOR_CARGA);
+    }
+
+    /**
+     * Posição do CPF no vetor ou a posição livre em que ele deve ser guardado.
+     */
+    private static int posicao(long[] posicoes, long cpf) {
+        int mascara = posicoes.length - 1;
+        int posicao = dispersao(cpf) & mascara;
+        while (posicoes[posicao] != 0 && posicoes[posicao] != cpf) {
+            posicao = (posicao + 1) & mascara;
+        }
+        return posicao;
+    }
+
+    /**
+     * Mistura os bits do CPF (finalizador do MurmurHash3), pois CPFs próximos têm os bits baixos parecidos.
+     */
+    private static int dispersao(long cpf) {
+        long h = cpf;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static int tamanhoVetor(int capacidade) {
+        long necessario = Math.max(CAPACIDADE_MINIMA, (long) Math.ceil(capacidade / FATOR_CARGA));
+        if (necessario > 1 << 30) {
+            throw new IllegalArgumentException("Capacidade excessiva: " + capacidade);
+        }
+        return Integer.highestOneBit((int) necessario - 1) << 1;
+    }
+
+}
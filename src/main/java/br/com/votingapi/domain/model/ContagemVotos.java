@@ -0,0 +1,58 @@
+package br.com.votingapi.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.io.Serializable;
+
+/**
+ * Contadores de votos de uma sessão, incrementados no banco a cada voto aceito. Permite apurar o resultado
+ * sem ler os votos.
+ */
+@Document(collection = "contagens")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class ContagemVotos implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Mesmo ID da sessão de votação.
+     */
+    @Id
+    @EqualsAndHashCode.Include
+    private String id;
+
+    private long pros;
+
+    private long contra;
+
+    /**
+     * Marcada quando um incremento falhou depois de o voto ser gravado: os contadores podem estar abaixo dos votos
+     * gravados e a apuração passa a contar os votos da sessão.
+     */
+    private boolean divergente;
+
+    public ContagemVotos(String id, long pros, long contra) {
+        this.id = id;
+        this.pros = pros;
+        this.contra = contra;
+    }
+
+    /**
+     * Soma a outra contagem a esta. Uma contagem nula não altera esta.
+     */
+    public void somar(ContagemVotos outra) {
+        if (outra != null) {
+            pros += outra.pros;
+            contra += outra.contra;
+        }
+    }
+
+}
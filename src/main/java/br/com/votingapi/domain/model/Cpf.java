@@ -0,0 +1,104 @@
+package br.com.votingapi.domain.model;
+
+/**
+ * Regras do número de CPF.
+ * <p>
+ * Os 11 dígitos do CPF cabem em um {@code long} ({@link #compactar}), que ocupa 8 bytes em vez dos cerca de
+ * 56 bytes de uma String de 11 caracteres e é comparado sem percorrer os caracteres.
+ */
+public final class Cpf {
+
+    private static final int DIGITOS = 11;
+    private static final long MAIOR_CPF = 99_999_999_999L;
+
+    private Cpf() {
+    }
+
+    /**
+     * Verifica os dígitos verificadores do CPF, informado com ou sem pontuação.
+     */
+    public static boolean valido(String cpf) {
+        if (cpf == null) {
+            return false;
+        }
+        int[] digitos = new int[DIGITOS];
+        int quantidade = 0;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c == '.' || c == '-') {
+                continue;
+            }
+            if (c < '0' || c > '9' || quantidade == DIGITOS) {
+                return false;
+            }
+            digitos[quantidade++] = c - '0';
+        }
+        if (quantidade != DIGITOS || todosIguais(digitos)) {
+            return false;
+        }
+        return digitos[9] == digitoVerificador(digitos, 9) && digitos[10] == digitoVerificador(digitos, 10);
+    }
+
+    /**
+     * Converte o CPF, informado com ou sem pontuação, para o número formado pelos seus 11 dígitos. Não verifica
+     * os dígitos verificadores.
+     *
+     * @throws IllegalArgumentException se o CPF não tiver 11 dígitos.
+     */
+    public static long compactar(String cpf) {
+        if (cpf == null) {
+            throw new IllegalArgumentException("CPF nulo");
+        }
+        long numero = 0;
+        int quantidade = 0;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c == '.' || c == '-') {
+                continue;
+            }
+            if (c < '0' || c > '9' || quantidade == DIGITOS) {
+                throw new IllegalArgumentException("CPF com formato inválido: " + cpf);
+            }
+            numero = numero * 10 + (c - '0');
+            quantidade++;
+        }
+        if (quantidade != DIGITOS) {
+            throw new IllegalArgumentException("CPF com formato inválido: " + cpf);
+        }
+        return numero;
+    }
+
+    /**
+     * Retorna os 11 dígitos, sem pontuação, do CPF compactado por {@link #compactar}.
+     */
+    public static String expandir(long cpf) {
+        if (cpf < 0 || cpf > MAIOR_CPF) {
+            throw new IllegalArgumentException("CPF compactado inválido: " + cpf);
+        }
+        char[] digitos = new char[DIGITOS];
+        for (int i = DIGITOS - 1; i >= 0; i--) {
+            digitos[i] = (char) ('0' + cpf % 10);
+            cpf /= 10;
+        }
+        return new String(digitos);
+    }
+
+    private static int digitoVerificador(int[] digitos, int posicao) {
+        int soma = 0;
+        for (int i = 0; i < posicao; i++) {
+            soma += digitos[i] * (posicao + 1 - i);
+        }
+        int resto = soma * 10 % 11;
+        return resto == 10 ? 0 : resto;
+    }
+
+    private static boolean todosIguais(int[] digitos) {
+        for (int digito : digitos) {
+            if (digito != digitos[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
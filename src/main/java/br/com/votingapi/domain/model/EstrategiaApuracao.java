@@ -0,0 +1,18 @@
+package br.com.votingapi.domain.model;
+
+/**
+ * Forma de contar os votos de uma sessão.
+ */
+public enum EstrategiaApuracao {
+
+    /**
+     * Soma os contadores da sessão com os votos da lista da sessão, lidos para a memória.
+     */
+    CONTADORES,
+
+    /**
+     * Conta os votos gravados no próprio banco, com uma agregação, sem usar os contadores.
+     */
+    AGREGACAO
+
+}
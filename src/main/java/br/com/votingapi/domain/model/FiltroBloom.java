@@ -0,0 +1,101 @@
+package br.com.votingapi.domain.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom de valores {@code long}: responde sem falsos negativos se um valor pode ter sido adicionado,
+ * com uma taxa de falsos positivos que depende da quantidade de valores adicionados.
+ * <p>
+ * O tamanho é calculado na criação para a capacidade e a taxa de falsos positivos informadas e não cresce: acima
+ * da capacidade, a taxa aumenta ({@link #taxaFalsosPositivosEstimada}). Os bits são gravados com operações
+ * atômicas, sem bloqueio entre as threads.
+ */
+public final class FiltroBloom {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray bits;
+    private final long quantidadeBits;
+    private final int funcoesHash;
+    private final LongAdder quantidade = new LongAdder();
+
+    /**
+     * @param capacidade quantidade de valores esperada.
+     * @param taxaFalsosPositivos taxa de falsos positivos desejada com a capacidade preenchida, entre 0 e 1.
+     */
+    public FiltroBloom(long capacidade, double taxaFalsosPositivos) {
+        if (capacidade < 1 || taxaFalsosPositivos <= 0 || taxaFalsosPositivos >= 1) {
+            throw new IllegalArgumentException("Capacidade ou taxa de falsos positivos inválida");
+        }
+        long palavras = (long) Math.ceil(-capacidade * Math.log(taxaFalsosPositivos) / (LN2 * LN2) / Long.SIZE);
+        if (palavras > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacidade excessiva: " + capacidade);
+        }
+        this.bits = new AtomicLongArray((int) palavras);
+        this.quantidadeBits = palavras * Long.SIZE;
+        this.funcoesHash = Math.max(1, (int) Math.round((double) quantidadeBits / capacidade * LN2));
+    }
+
+    public void adicionar(long valor) {
+        long h1 = misturar(valor);
+        long h2 = misturar(h1) | 1;
+        for (int i = 0; i < funcoesHash; i++) {
+            long bit = Math.floorMod(h1 + i * h2, quantidadeBits);
+            int palavra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long atual = bits.get(palavra);
+            while ((atual & mascara) == 0 && !bits.compareAndSet(palavra, atual, atual | mascara)) {
+                atual = bits.get(palavra);
+            }
+        }
+        quantidade.increment();
+    }
+
+    /**
+     * @return {@code false} somente se o valor certamente não foi adicionado.
+     */
+    public boolean podeConter(long valor) {
+        long h1 = misturar(valor);
+        long h2 = misturar(h1) | 1;
+        for (int i = 0; i < funcoesHash; i++) {
+            long bit = Math.floorMod(h1 + i * h2, quantidadeBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Quantidade de chamadas de {@link #adicionar}, incluindo valores repetidos.
+     */
+    public long quantidade() {
+        return quantidade.sum();
+    }
+
+    public long tamanhoBytes() {
+        return quantidadeBits / Byte.SIZE;
+    }
+
+    /**
+     * Taxa de falsos positivos esperada com a quantidade atual de valores: (1 - e^(-kn/m))^k.
+     */
+    public double taxaFalsosPositivosEstimada() {
+        return Math.pow(1 - Math.exp(-(double) funcoesHash * quantidade() / quantidadeBits), funcoesHash);
+    }
+
+    /**
+     * Finalizador do MurmurHash3, que espalha valores próximos por todos os bits.
+     */
+    private static long misturar(long valor) {
+        long h = valor;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
@@ -0,0 +1,45 @@
+package br.com.votingapi.domain.model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Intervalo de cada contagem da série de votos e período coberto por cada documento da série. Um documento
+ * guarda as contagens de todos os intervalos do seu período, de forma que a série é lida em poucos documentos.
+ */
+public enum GranularidadeSerie {
+
+    /**
+     * Contagens por segundo, um documento por minuto.
+     */
+    SEGUNDO(ChronoUnit.SECONDS, ChronoUnit.MINUTES),
+
+    /**
+     * Contagens por minuto, um documento por hora.
+     */
+    MINUTO(ChronoUnit.MINUTES, ChronoUnit.HOURS);
+
+    private final ChronoUnit intervalo;
+    private final ChronoUnit periodoDocumento;
+
+    GranularidadeSerie(ChronoUnit intervalo, ChronoUnit periodoDocumento) {
+        this.intervalo = intervalo;
+        this.periodoDocumento = periodoDocumento;
+    }
+
+    public LocalDateTime inicioDocumento(LocalDateTime data) {
+        return data.truncatedTo(periodoDocumento);
+    }
+
+    /**
+     * Posição do intervalo da data dentro do documento: o segundo do minuto ou o minuto da hora.
+     */
+    public int posicao(LocalDateTime data) {
+        return (int) intervalo.between(inicioDocumento(data), data);
+    }
+
+    public LocalDateTime instante(LocalDateTime inicioDocumento, int posicao) {
+        return inicioDocumento.plus(posicao, intervalo);
+    }
+
+}
@@ -0,0 +1,61 @@
+package br.com.votingapi.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Progresso da migração dos votos da lista das sessões para votos com o ID da sessão. Gravado a cada sessão migrada,
+ * para que a migração continue do mesmo ponto depois de uma parada.
+ */
+@Document(collection = "migracoes")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class MigracaoVotosLegados implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String ID = "votos-legados";
+
+    @Id
+    @EqualsAndHashCode.Include
+    private String id;
+
+    /**
+     * ID da última sessão migrada na passagem atual, ou nulo no início de uma passagem.
+     */
+    private String ultimoIdSessao;
+
+    private long sessoesMigradas;
+
+    private long votosMigrados;
+
+    /**
+     * Referências a votos inexistentes, de outra sessão ou de um associado que já tinha votado na sessão.
+     */
+    private long votosDescartados;
+
+    /**
+     * Sessões ainda abertas deixadas para a próxima passagem.
+     */
+    private long sessoesAdiadas;
+
+    private boolean concluida;
+
+    private LocalDateTime dataAtualizacao;
+
+    public static MigracaoVotosLegados iniciar() {
+        MigracaoVotosLegados migracao = new MigracaoVotosLegados();
+        migracao.setId(ID);
+        return migracao;
+    }
+
+}
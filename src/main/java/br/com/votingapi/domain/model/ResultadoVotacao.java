@@ -0,0 +1,42 @@
+package br.com.votingapi.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Resultado de uma sessão encerrada, apurado uma única vez. Depois de gravado não é mais alterado.
+ */
+@Document(collection = "resultados")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class ResultadoVotacao implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Mesmo ID da sessão de votação.
+     */
+    @Id
+    @EqualsAndHashCode.Include
+    private String id;
+
+    private String assunto;
+
+    private long pros;
+
+    private long contra;
+
+    private boolean aprovado;
+
+    private LocalDateTime dataApuracao;
+
+}
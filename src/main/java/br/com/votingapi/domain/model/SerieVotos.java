@@ -0,0 +1,54 @@
+package br.com.votingapi.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Contagens de votos de uma sessão nos intervalos de um período, incrementadas a cada voto aceito. Permite montar
+ * a série de votos da sessão sem ler os votos.
+ */
+@Document(collection = "series")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class SerieVotos implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * ID da sessão, granularidade e início do período.
+     */
+    @Id
+    @EqualsAndHashCode.Include
+    private String id;
+
+    private String idSessao;
+
+    private GranularidadeSerie granularidade;
+
+    private LocalDateTime inicio;
+
+    /**
+     * Votos a favor por posição do intervalo no período. Intervalos sem votos não aparecem.
+     */
+    private Map<String, Long> pros;
+
+    /**
+     * Votos contra por posição do intervalo no período. Intervalos sem votos não aparecem.
+     */
+    private Map<String, Long> contra;
+
+    public static String id(String idSessao, GranularidadeSerie granularidade, LocalDateTime inicio) {
+        return idSessao + ':' + granularidade + ':' + inicio;
+    }
+
+}
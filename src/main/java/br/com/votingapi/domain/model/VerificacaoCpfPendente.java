@@ -0,0 +1,36 @@
+package br.com.votingapi.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Voto aceito sem consultar a API de CPF, porque ela estava indisponível. O CPF é verificado novamente quando
+ * a API voltar a responder.
+ */
+@Document(collection = "verificacoesCpfPendentes")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class VerificacaoCpfPendente implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @EqualsAndHashCode.Include
+    private String id;
+
+    private String idSessao;
+
+    private String cpfAssociado;
+
+    private LocalDateTime dataAceite;
+
+}
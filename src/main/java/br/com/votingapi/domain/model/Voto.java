@@ -1,11 +1,13 @@
 package br.com.votingapi.domain.model;
 
 import lombok.*;
+import org.hibernate.validator.constraints.br.CPF;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
+import java.time.LocalDateTime;
 
 @Document(collection = "votos")
 @Data
@@ -17,17 +19,53 @@ public class Voto implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Cria um voto ainda não vinculado a uma sessão de votação.
+     */
+    public Voto(String id, String cpfAssociado, Boolean voto) {
+        this(id, null, cpfAssociado, voto);
+    }
+
+    public Voto(String id, String idSessao, String cpfAssociado, Boolean voto) {
+        this(id, idSessao, cpfAssociado, null, voto, null);
+    }
+
+    /**
+     * CPF compactado do associado. Nos votos gravados antes do CPF compactado, é calculado a partir do CPF.
+     */
+    public long compactarCpf() {
+        return cpfCompacto != null ? cpfCompacto : Cpf.compactar(cpfAssociado);
+    }
+
     @Id
     @EqualsAndHashCode.Include
     private String id;
 
+    /**
+     * ID da sessão em que o voto foi registrado. O voto é gravado somente na coleção de votos, sem reescrever
+     * o documento da sessão.
+     */
+    private String idSessao;
+
+    @CPF
     @NotNull
     private String cpfAssociado;
 
+    /**
+     * CPF do associado compactado ({@link Cpf#compactar}), preenchido quando o voto é aceito. Ausente nos votos
+     * registrados antes dele.
+     */
+    private Long cpfCompacto;
+
     /**
      * Voto do associado. (true = sim e false = não)
      */
     @NotNull
     private Boolean voto;
 
+    /**
+     * Momento em que o voto foi aceito. Ausente nos votos registrados antes das séries de votos.
+     */
+    private LocalDateTime dataRegistro;
+
 }
@@ -0,0 +1,52 @@
+package br.com.votingapi.infrastructure.api.rest;
+
+import br.com.votingapi.infrastructure.service.exception.CursorInvalidoException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor das listagens paginadas. O cliente recebe o endereço da próxima página no cabeçalho {@code Link}, com
+ * {@code rel="next"}, e não deve depender do conteúdo do cursor.
+ */
+final class CursorPaginacao {
+
+    static final String PARAMETRO = "cursor";
+
+    private CursorPaginacao() {
+    }
+
+    /**
+     * Retorna o ID a partir do qual a página é lida, ou nulo para a primeira página.
+     */
+    static String decodificar(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new CursorInvalidoException();
+        }
+    }
+
+    /**
+     * Adiciona o cabeçalho {@code Link} da próxima página, se houver.
+     */
+    static void adicionarProximaPagina(HttpHeaders headers, ServerHttpRequest request, String proximaAposId) {
+        if (proximaAposId == null) {
+            return;
+        }
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(proximaAposId.getBytes(StandardCharsets.UTF_8));
+        String proximaPagina = UriComponentsBuilder.fromHttpRequest(request)
+                .replaceQueryParam(PARAMETRO, cursor)
+                .build()
+                .toUriString();
+        headers.add(HttpHeaders.LINK, "<" + proximaPagina + ">; rel=\"next\"");
+    }
+
+}
@@ -3,6 +3,7 @@ package br.com.votingapi.infrastructure.api.rest;
 import br.com.votingapi.application.PautaService;
 import br.com.votingapi.domain.model.Pauta;
 import br.com.votingapi.infrastructure.api.rest.dto.PautaDto;
+import br.com.votingapi.infrastructure.configuration.WebFluxConfig;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,6 +15,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -35,14 +37,38 @@ public class PautaController {
     }
 
     @GetMapping
-    @Operation(summary = "Listar pautas", description = "Lista todas as pautas")
+    @Operation(summary = "Listar pautas", description = "Lista todas as pautas. Com os parâmetros cursor ou "
+            + "tamanho, lista uma página das pautas ordenadas pelo ID; quando há mais pautas, o endereço da próxima "
+            + "página é informado no cabeçalho Link, com rel=\"next\"")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operação realizada com sucesso",
                     content = @Content(array = @ArraySchema(schema = @Schema(implementation = PautaDto.class)))),
             @ApiResponse(responseCode = "400", description = "Requisição inválida."),
             @ApiResponse(responseCode = "500", description = "Erro interno.")})
-    public Flux<PautaDto> listar() {
-        log.trace("Listando todas as pautas.");
+    public Mono<ResponseEntity<Flux<PautaDto>>> listar(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer tamanho,
+                                                       ServerHttpRequest request) {
+        log.trace("Listando as pautas.");
+        if (cursor == null && tamanho == null) {
+            return Mono.just(ResponseEntity.ok(pautaService.listarTodas()
+                    .map(pauta -> modelMapper.map(pauta, PautaDto.class))));
+        }
+        return Mono.defer(() -> pautaService.listarPagina(CursorPaginacao.decodificar(cursor), tamanho))
+                .map(pagina -> ResponseEntity.ok()
+                        .headers(headers -> CursorPaginacao.adicionarProximaPagina(headers, request,
+                                pagina.getProximaAposId()))
+                        .body(Flux.fromIterable(pagina.getItens())
+                                .map(pauta -> modelMapper.map(pauta, PautaDto.class))));
+    }
+
+    @GetMapping(value = "/stream", produces = WebFluxConfig.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar pautas", description = "Envia todas as pautas, uma pauta JSON por linha, à "
+            + "medida que o cliente as consome")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operação realizada com sucesso",
+                    content = @Content(schema = @Schema(implementation = PautaDto.class))),
+            @ApiResponse(responseCode = "500", description = "Erro interno.")})
+    public Flux<PautaDto> listarTodas() {
         return pautaService.listarTodas()
                 .map(pauta -> modelMapper.map(pauta, PautaDto.class));
     }
@@ -0,0 +1,107 @@
+package br.com.votingapi.infrastructure.api.rest;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Resposta com as linhas CSV escritas direto nos buffers da resposta, em blocos de linhas, à medida que o cliente
+ * as consome. Com gzip, cada bloco é compactado e enviado assim que fica pronto, em vez de compactar o arquivo
+ * inteiro no final. A conversão e a compactação são feitas fora do event loop do Netty.
+ */
+final class RespostaCsv {
+
+    static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+
+    private static final int LINHAS_POR_BLOCO = 500;
+
+    private RespostaCsv() {
+    }
+
+    static ResponseEntity<Flux<DataBuffer>> criar(Flux<String> linhas, DataBufferFactory fabrica,
+                                                  String nomeArquivo, boolean gzip) {
+        Flux<byte[]> blocos = linhas
+                .buffer(LINHAS_POR_BLOCO)
+                .publishOn(Schedulers.parallel(), 2)
+                .map(RespostaCsv::juntar);
+        Flux<byte[]> conteudo = gzip ? compactar(blocos) : blocos;
+        return ResponseEntity.ok()
+                .contentType(gzip ? APPLICATION_GZIP : TEXT_CSV)
+                .header("Content-Disposition", ContentDisposition.builder("attachment")
+                        .filename(gzip ? nomeArquivo + ".gz" : nomeArquivo)
+                        .build()
+                        .toString())
+                .body(conteudo.map(fabrica::wrap));
+    }
+
+    private static byte[] juntar(List<String> linhas) {
+        StringBuilder bloco = new StringBuilder();
+        linhas.forEach(bloco::append);
+        return bloco.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Flux<byte[]> compactar(Flux<byte[]> blocos) {
+        return Flux.using(Compactador::new,
+                compactador -> blocos.map(compactador::compactar)
+                        .concatWith(Mono.fromCallable(compactador::finalizar)),
+                Compactador::fechar);
+    }
+
+    /**
+     * Um único fluxo gzip para toda a resposta. O flush ao fim de cada bloco envia o que já foi compactado sem
+     * encerrar o fluxo.
+     */
+    private static final class Compactador {
+
+        private final ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        private final GZIPOutputStream gzip;
+
+        private Compactador() throws IOException {
+            this.gzip = new GZIPOutputStream(saida, 8192, true);
+        }
+
+        private byte[] compactar(byte[] bloco) {
+            try {
+                gzip.write(bloco);
+                gzip.flush();
+                return retirar();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private byte[] finalizar() throws IOException {
+            gzip.finish();
+            return retirar();
+        }
+
+        private byte[] retirar() {
+            byte[] compactado = saida.toByteArray();
+            saida.reset();
+            return compactado;
+        }
+
+        private void fechar() {
+            try {
+                gzip.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+    }
+
+}
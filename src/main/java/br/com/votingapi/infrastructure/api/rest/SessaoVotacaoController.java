@@ -1,11 +1,20 @@
 package br.com.votingapi.infrastructure.api.rest;
 
+import br.com.votingapi.application.ExportacaoCsvService;
+import br.com.votingapi.application.SerieVotacaoService;
 import br.com.votingapi.application.SessaoVotacaoService;
+import br.com.votingapi.domain.model.GranularidadeSerie;
 import br.com.votingapi.domain.model.SessaoVotacao;
 import br.com.votingapi.domain.model.Voto;
 import br.com.votingapi.infrastructure.api.rest.dto.SessaoVotacaoDto;
 import br.com.votingapi.infrastructure.api.rest.dto.VotoDTO;
+import br.com.votingapi.infrastructure.configuration.WebFluxConfig;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoApuracaoSessao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoImportacaoVoto;
 import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResumoVotacao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.SerieVotacao;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,15 +24,30 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.DigestUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @Slf4j
@@ -32,24 +56,63 @@ import javax.validation.Valid;
 @Tag(name = "sessão de votação", description = "API de acesso a sessão de votação")
 public class SessaoVotacaoController {
 
+    /**
+     * Separa o corpo da importação em linhas, mesmo quando uma linha chega dividida entre buffers.
+     */
+    private static final StringDecoder DECODIFICADOR_LINHAS = StringDecoder.allMimeTypes();
+
     private final SessaoVotacaoService sessaoVotacaoService;
+    private final SerieVotacaoService serieVotacaoService;
+    private final ExportacaoCsvService exportacaoCsvService;
     private final ModelMapper modelMapper;
+    private final ObjectMapper objectMapper;
 
-    public SessaoVotacaoController(SessaoVotacaoService sessaoVotacaoService, ModelMapper modelMapper) {
+    public SessaoVotacaoController(SessaoVotacaoService sessaoVotacaoService,
+                                   SerieVotacaoService serieVotacaoService,
+                                   ExportacaoCsvService exportacaoCsvService,
+                                   ModelMapper modelMapper,
+                                   ObjectMapper objectMapper) {
         this.sessaoVotacaoService = sessaoVotacaoService;
+        this.serieVotacaoService = serieVotacaoService;
+        this.exportacaoCsvService = exportacaoCsvService;
         this.modelMapper = modelMapper;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    @Operation(summary = "Listar sessões de votação", description = "Lista todas as sessões de votação")
+    @Operation(summary = "Listar sessões de votação", description = "Lista todas as sessões de votação. Com os "
+            + "parâmetros cursor ou tamanho, lista uma página das sessões ordenadas pelo ID; quando há mais sessões, "
+            + "o endereço da próxima página é informado no cabeçalho Link, com rel=\"next\"")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operação realizada com sucesso",
                     content = @Content(array = @ArraySchema(schema = @Schema(implementation = SessaoVotacaoDto.class)))),
             @ApiResponse(responseCode = "400", description = "Requisição inválida."),
             @ApiResponse(responseCode = "500", description = "Erro interno.")})
-    public Flux<SessaoVotacaoDto> listar() {
+    public Mono<ResponseEntity<Flux<SessaoVotacaoDto>>> listar(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer tamanho,
+                                                               ServerHttpRequest request) {
+        if (cursor == null && tamanho == null) {
+            return Mono.just(ResponseEntity.ok(sessaoVotacaoService.listarTodas()
+                    .map(metadados -> modelMapper.map(metadados, SessaoVotacaoDto.class))));
+        }
+        return Mono.defer(() -> sessaoVotacaoService.listarPagina(CursorPaginacao.decodificar(cursor), tamanho))
+                .map(pagina -> ResponseEntity.ok()
+                        .headers(headers -> CursorPaginacao.adicionarProximaPagina(headers, request,
+                                pagina.getProximaAposId()))
+                        .body(Flux.fromIterable(pagina.getItens())
+                                .map(metadados -> modelMapper.map(metadados, SessaoVotacaoDto.class))));
+    }
+
+    @GetMapping(value = "/stream", produces = WebFluxConfig.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar sessões de votação", description = "Envia todas as sessões de votação, uma "
+            + "sessão JSON por linha, à medida que o cliente as consome")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operação realizada com sucesso",
+                    content = @Content(schema = @Schema(implementation = SessaoVotacaoDto.class))),
+            @ApiResponse(responseCode = "500", description = "Erro interno.")})
+    public Flux<SessaoVotacaoDto> listarTodas() {
         return sessaoVotacaoService.listarTodas()
-                .map(sessaoVotacao -> modelMapper.map(sessaoVotacao, SessaoVotacaoDto.class));
+                .map(metadados -> modelMapper.map(metadados, SessaoVotacaoDto.class));
     }
 
     @PostMapping
@@ -77,8 +140,8 @@ public class SessaoVotacaoController {
             @ApiResponse(responseCode = "404", description = "Recurso não encontrado."),
             @ApiResponse(responseCode = "500", description = "Erro interno.")})
     public Mono<ResponseEntity<SessaoVotacaoDto>> buscarPeloId(@PathVariable String idSessao) {
-        return this.sessaoVotacaoService.buscarSessaoVotacaoPeloId(idSessao)
-                .map(sessaoVotacao -> modelMapper.map(sessaoVotacao, SessaoVotacaoDto.class))
+        return this.sessaoVotacaoService.buscarMetadadosSessao(idSessao)
+                .map(metadados -> modelMapper.map(metadados, SessaoVotacaoDto.class))
                 .map(ResponseEntity::ok)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
@@ -96,6 +159,38 @@ public class SessaoVotacaoController {
                 .map(votoDto -> ResponseEntity.status(HttpStatus.CREATED).body(votoDto));
     }
 
+    @PostMapping(value = "/{idSessao}/votos:batch", consumes = WebFluxConfig.APPLICATION_NDJSON_VALUE,
+            produces = WebFluxConfig.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Importar votos", description = "Importa votos em lote, um voto JSON por linha, e "
+            + "retorna o resultado de cada linha à medida que os votos são gravados")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operação realizada com sucesso",
+                    content = @Content(schema = @Schema(implementation = ResultadoImportacaoVoto.class))),
+            @ApiResponse(responseCode = "400", description = "Requisição inválida."),
+            @ApiResponse(responseCode = "404", description = "Recurso não encontrado."),
+            @ApiResponse(responseCode = "500", description = "Erro interno.")})
+    public Flux<ResultadoImportacaoVoto> importarVotos(@PathVariable String idSessao,
+                                                      @RequestBody Flux<DataBuffer> corpo) {
+        Flux<Voto> votos = DECODIFICADOR_LINHAS
+                .decode(corpo, ResolvableType.forClass(String.class), null, Collections.emptyMap())
+                .filter(linha -> !linha.isBlank())
+                .map(this::lerVoto);
+        return sessaoVotacaoService.importarVotos(idSessao, votos);
+    }
+
+    /**
+     * Uma linha que não é um voto JSON vira um voto vazio, recusado como inválido pela importação, sem
+     * interromper a leitura das linhas seguintes.
+     */
+    private Voto lerVoto(String linha) {
+        try {
+            return modelMapper.map(objectMapper.readValue(linha, VotoDTO.class), Voto.class);
+        } catch (JsonProcessingException e) {
+            log.debug("Linha de importação inválida: {}", e.getOriginalMessage());
+            return new Voto();
+        }
+    }
+
     @GetMapping("/{idSessao}/resultado")
     @Operation(summary = "Apurar resultado", description = "Apura o resultado da votação")
     @ApiResponses(value = {
@@ -104,7 +199,100 @@ public class SessaoVotacaoController {
             @ApiResponse(responseCode = "400", description = "Requisição inválida."),
             @ApiResponse(responseCode = "404", description = "Recurso não encontrado."),
             @ApiResponse(responseCode = "500", description = "Erro interno.")})
-    public Mono<ResumoVotacao> apurarResultado(@PathVariable String idSessao) {
-        return sessaoVotacaoService.apurarResultadoVotacao(idSessao);
+    public Mono<ResponseEntity<ResumoVotacao>> apurarResultado(@PathVariable String idSessao) {
+        return sessaoVotacaoService.apurarResultadoVotacao(idSessao)
+                .map(resumoVotacao -> Boolean.TRUE.equals(resumoVotacao.getProvisorio())
+                        ? ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(resumoVotacao)
+                        : ResponseEntity.ok()
+                        .eTag(calcularETag(resumoVotacao))
+                        .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic())
+                        .body(resumoVotacao));
+    }
+
+    @PostMapping(value = "/resultados", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = WebFluxConfig.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Consultar resultados", description = "Consulta o resultado de várias sessões de votação, "
+            + "informadas por uma lista JSON de IDs, e envia o resultado de cada sessão, um JSON por linha, à "
+            + "medida que ficam prontos. Sessões inexistentes ou não encerradas são informadas na situação")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operação realizada com sucesso",
+                    content = @Content(schema = @Schema(implementation = ResultadoApuracaoSessao.class))),
+            @ApiResponse(responseCode = "400", description = "Requisição inválida."),
+            @ApiResponse(responseCode = "500", description = "Erro interno.")})
+    public Flux<ResultadoApuracaoSessao> apurarResultados(@RequestBody List<String> idsSessoes) {
+        return sessaoVotacaoService.apurarResultadosVotacao(idsSessoes);
+    }
+
+    @GetMapping("/resultados/csv")
+    @Operation(summary = "Exportar resultados", description = "Exporta em CSV o resultado de cada sessão com término "
+            + "no período informado. Com gzip=true o arquivo é compactado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operação realizada com sucesso",
+                    content = @Content(mediaType = "text/csv")),
+            @ApiResponse(responseCode = "400", description = "Requisição inválida."),
+            @ApiResponse(responseCode = "500", description = "Erro interno.")})
+    public ResponseEntity<Flux<DataBuffer>> exportarResultados(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            ServerHttpResponse response) {
+        return RespostaCsv.criar(exportacaoCsvService.exportarResultados(inicio, fim), response.bufferFactory(),
+                "resultados.csv", gzip);
+    }
+
+    @GetMapping("/{idSessao}/votos/csv")
+    @Operation(summary = "Exportar votos", description = "Exporta em CSV todos os votos da sessão. Com gzip=true o "
+            + "arquivo é compactado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operação realizada com sucesso",
+                    content = @Content(mediaType = "text/csv")),
+            @ApiResponse(responseCode = "404", description = "Recurso não encontrado."),
+            @ApiResponse(responseCode = "500", description = "Erro interno.")})
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportarVotos(@PathVariable String idSessao,
+                                                                @RequestParam(defaultValue = "false") boolean gzip,
+                                                                ServerHttpResponse response) {
+        return sessaoVotacaoService.buscarMetadadosSessao(idSessao)
+                .switchIfEmpty(Mono.error(
+                        new EmptyResultDataAccessException("Sessão de Votação não encontrada.", 1)))
+                .map(sessaoVotacao -> RespostaCsv.criar(exportacaoCsvService.exportarVotos(idSessao),
+                        response.bufferFactory(), "votos-" + idSessao + ".csv", gzip));
+    }
+
+    @GetMapping(value = "/{idSessao}/resultado/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Acompanhar resultado", description = "Envia o resultado parcial da votação sempre que "
+            + "ele muda (evento parcial) e o resultado final quando a sessão é encerrada (evento final)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operação realizada com sucesso",
+                    content = @Content(schema = @Schema(implementation = ResumoVotacao.class))),
+            @ApiResponse(responseCode = "404", description = "Recurso não encontrado."),
+            @ApiResponse(responseCode = "500", description = "Erro interno.")})
+    public Flux<ServerSentEvent<ResumoVotacao>> acompanharResultado(@PathVariable String idSessao) {
+        return sessaoVotacaoService.acompanharResultadoVotacao(idSessao)
+                .map(resumoVotacao -> ServerSentEvent.builder(resumoVotacao)
+                        .event(resumoVotacao.getEncerrada() ? "final" : "parcial")
+                        .build());
+    }
+
+    @GetMapping("/{idSessao}/serie")
+    @Operation(summary = "Série de votos", description = "Votos a favor e contra da sessão por segundo (SEGUNDO) "
+            + "ou por minuto (MINUTO), e o intervalo com mais votos")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operação realizada com sucesso",
+                    content = @Content(schema = @Schema(implementation = SerieVotacao.class))),
+            @ApiResponse(responseCode = "400", description = "Requisição inválida."),
+            @ApiResponse(responseCode = "404", description = "Recurso não encontrado."),
+            @ApiResponse(responseCode = "500", description = "Erro interno.")})
+    public Mono<SerieVotacao> buscarSerie(@PathVariable String idSessao,
+                                          @RequestParam(defaultValue = "MINUTO") GranularidadeSerie granularidade) {
+        return serieVotacaoService.buscarSerie(idSessao, granularidade);
+    }
+
+    /**
+     * O resultado de uma sessão encerrada não muda, então o ETag depende somente do conteúdo.
+     */
+    private static String calcularETag(ResumoVotacao resumoVotacao) {
+        String conteudo = resumoVotacao.getAssunto() + '|' + resumoVotacao.getPros() + '|'
+                + resumoVotacao.getContra() + '|' + resumoVotacao.getAprovado();
+        return DigestUtils.md5DigestAsHex(conteudo.getBytes(StandardCharsets.UTF_8));
     }
 }
@@ -0,0 +1,102 @@
+package br.com.votingapi.infrastructure.configuration;
+
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ConsistenciaMongo;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.NivelConsistencia;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Separa o acesso ao MongoDB em níveis, para que as leituras pesadas não disputem o primário com a gravação dos
+ * votos:
+ * <ul>
+ * <li>cada {@link NivelConsistencia} tem a sua preferência de leitura e atraso máximo dos secundários,
+ * configurados em {@code votacao.mongo.consistencia.<nivel>.preferencia-leitura} e
+ * {@code votacao.mongo.consistencia.<nivel>.atraso-maximo-s};</li>
+ * <li>as gravações de votos e contadores, pelo template padrão, definido aqui no lugar do da auto-configuração,
+ * usam a garantia de escrita {@code votacao.mongo.consistencia.escrita-votos}; as demais gravações mantêm a
+ * padrão da conexão.</li>
+ * </ul>
+ * O atraso máximo, quando informado, deve ser de pelo menos 90 segundos, o mínimo aceito pelo driver.
+ */
+@Slf4j
+@Configuration
+public class ConsistenciaMongoConfig {
+
+    private static final String PREFIXO = "votacao.mongo.consistencia.";
+
+    private final WriteConcern escritaVotos;
+
+    public ConsistenciaMongoConfig(@Value("${votacao.mongo.consistencia.escrita-votos.garantia:majority}")
+                                           String garantiaEscritaVotos,
+                                   @Value("${votacao.mongo.consistencia.escrita-votos.timeout-ms:5000}")
+                                           long timeoutEscritaVotosMs) {
+        this.escritaVotos = garantiaEscrita(garantiaEscritaVotos)
+                .withWTimeout(timeoutEscritaVotosMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Substitui o template padrão da auto-configuração, com a mesma fábrica e o mesmo conversor, acrescentando a
+     * garantia de escrita das coleções de votos e contadores.
+     */
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory,
+                                                       MongoConverter mongoConverter) {
+        ReactiveMongoTemplate reactiveMongoTemplate = new ReactiveMongoTemplate(reactiveMongoDatabaseFactory,
+                mongoConverter);
+        Set<String> colecoesVotos = Set.of(reactiveMongoTemplate.getCollectionName(Voto.class),
+                reactiveMongoTemplate.getCollectionName(ContagemVotos.class));
+        reactiveMongoTemplate.setWriteConcernResolver(acao -> colecoesVotos.contains(acao.getCollectionName())
+                ? escritaVotos : acao.getDefaultWriteConcern());
+        log.info("Gravações de votos com garantia {}", escritaVotos);
+        return reactiveMongoTemplate;
+    }
+
+    @Bean
+    public ConsistenciaMongo consistenciaMongo(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory,
+                                               MongoConverter mongoConverter,
+                                               Environment environment) {
+        Map<NivelConsistencia, ReactiveMongoTemplate> leituras = new EnumMap<>(NivelConsistencia.class);
+        for (NivelConsistencia nivel : NivelConsistencia.values()) {
+            String chave = PREFIXO + nivel.name().toLowerCase().replace('_', '-');
+            ReadPreference preferencia = preferenciaLeitura(
+                    environment.getProperty(chave + ".preferencia-leitura", "primary"),
+                    environment.getProperty(chave + ".atraso-maximo-s", Long.class, 0L));
+            ReactiveMongoTemplate template = new ReactiveMongoTemplate(reactiveMongoDatabaseFactory, mongoConverter);
+            template.setReadPreference(preferencia);
+            leituras.put(nivel, template);
+            log.info("Leituras {} com preferência {}", nivel, preferencia);
+        }
+        return new ConsistenciaMongo(leituras, escritaVotos);
+    }
+
+    private static ReadPreference preferenciaLeitura(String nome, long atrasoMaximoS) {
+        return atrasoMaximoS > 0
+                ? ReadPreference.valueOf(nome, Collections.emptyList(), atrasoMaximoS, TimeUnit.SECONDS)
+                : ReadPreference.valueOf(nome);
+    }
+
+    private static WriteConcern garantiaEscrita(String nome) {
+        WriteConcern garantia = WriteConcern.valueOf(nome);
+        if (garantia == null) {
+            throw new IllegalArgumentException("Garantia de escrita desconhecida: " + nome);
+        }
+        return garantia;
+    }
+
+}
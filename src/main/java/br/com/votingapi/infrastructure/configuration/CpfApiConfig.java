@@ -0,0 +1,101 @@
+package br.com.votingapi.infrastructure.configuration;
+
+import br.com.votingapi.infrastructure.service.HedgeRequisicoes;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cliente HTTP da API de CPF: um pool de conexões próprio, mantidas abertas entre as consultas, e os limites
+ * que impedem que uma API lenta acumule requisições sem fim.
+ */
+@Configuration
+public class CpfApiConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider cpfApiConexoes(
+            @Value("${cpf.api.conexoes-maximas:50}") int conexoesMaximas,
+            @Value("${cpf.api.espera-conexao-ms:500}") long esperaConexaoMs) {
+        return ConnectionProvider.fixed("cpf-api", conexoesMaximas, esperaConexaoMs);
+    }
+
+    @Bean
+    public WebClient cpfApiWebClient(WebClient.Builder webClientBuilder,
+                                     ConnectionProvider cpfApiConexoes,
+                                     @Value("${cpf.api.timeout-conexao-ms:1000}") int timeoutConexaoMs,
+                                     @Value("${cpf.api.timeout-leitura-ms:2000}") long timeoutLeituraMs) {
+        HttpClient httpClient = HttpClient.create(cpfApiConexoes)
+                .keepAlive(true)
+                .tcpConfiguration(tcpClient -> tcpClient
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeoutConexaoMs)
+                        .option(ChannelOption.SO_KEEPALIVE, true)
+                        .doOnConnected(conexao -> conexao.addHandlerLast(
+                                new ReadTimeoutHandler(timeoutLeituraMs, TimeUnit.MILLISECONDS))));
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    /**
+     * Limita as consultas em andamento. Quando o limite é atingido a consulta é recusada na hora, sem esperar.
+     */
+    @Bean
+    public Bulkhead cpfApiBulkhead(@Value("${cpf.api.consultas-simultaneas:100}") int consultasSimultaneas) {
+        return Bulkhead.of("cpf-api", BulkheadConfig.custom()
+                .maxConcurrentCalls(consultasSimultaneas)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+    }
+
+    /**
+     * Abre o circuito quando a taxa de falhas das últimas consultas atinge o limite. Respostas 4xx da API não
+     * contam como falha.
+     */
+    @Bean
+    public CircuitBreaker cpfApiCircuitBreaker(
+            @Value("${cpf.api.circuito.taxa-falhas:50}") float taxaFalhas,
+            @Value("${cpf.api.circuito.consultas-avaliadas:20}") int consultasAvaliadas,
+            @Value("${cpf.api.circuito.tempo-aberto-ms:10000}") long tempoAbertoMs) {
+        return CircuitBreaker.of("cpf-api", CircuitBreakerConfig.custom()
+                .failureRateThreshold(taxaFalhas)
+                .slidingWindowSize(consultasAvaliadas)
+                .minimumNumberOfCalls(consultasAvaliadas)
+                .waitDurationInOpenState(Duration.ofMillis(tempoAbertoMs))
+                .recordException(CpfApiConfig::falhaDaApi)
+                .build());
+    }
+
+    /**
+     * Com o hedge habilitado, uma consulta que não respondeu dentro do percentil de latência é repetida, até o
+     * limite de {@code orcamento-percentual} por cento de consultas a mais.
+     */
+    @Bean
+    public HedgeRequisicoes cpfApiHedge(@Value("${cpf.api.hedge.habilitado:false}") boolean habilitado,
+                                        @Value("${cpf.api.hedge.percentil:95}") double percentil,
+                                        @Value("${cpf.api.hedge.orcamento-percentual:5}") long orcamentoPercentual,
+                                        @Value("${cpf.api.hedge.atraso-minimo-ms:20}") long atrasoMinimoMs,
+                                        MeterRegistry meterRegistry) {
+        return new HedgeRequisicoes(habilitado, percentil, orcamentoPercentual, atrasoMinimoMs, meterRegistry);
+    }
+
+    private static boolean falhaDaApi(Throwable erro) {
+        return !(erro instanceof WebClientResponseException)
+                || ((WebClientResponseException) erro).getRawStatusCode() >= 500;
+    }
+
+}
@@ -2,6 +2,7 @@ package br.com.votingapi.infrastructure.configuration;
 
 import br.com.votingapi.domain.model.SessaoVotacao;
 import br.com.votingapi.infrastructure.api.rest.dto.SessaoVotacaoDto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.MetadadosSessao;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -22,6 +23,10 @@ public class ModelMapperConfig {
         modelMapper.createTypeMap(SessaoVotacao.class, SessaoVotacaoDto.class)
                 .addMapping(src -> src.getPauta().getId(),
                         (destination, value) -> destination.setPauta((String) value));
+
+        modelMapper.createTypeMap(MetadadosSessao.class, SessaoVotacaoDto.class)
+                .addMapping(MetadadosSessao::getIdPauta,
+                        (destination, value) -> destination.setPauta((String) value));
         return modelMapper;
     }
 }
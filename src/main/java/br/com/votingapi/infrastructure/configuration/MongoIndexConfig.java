@@ -0,0 +1,80 @@
+package br.com.votingapi.infrastructure.configuration;
+
+import br.com.votingapi.domain.model.SerieVotos;
+import br.com.votingapi.domain.model.SessaoVotacao;
+import br.com.votingapi.domain.model.VerificacaoCpfPendente;
+import br.com.votingapi.domain.model.Voto;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Cria os índices usados pelo caminho de votação.
+ */
+@Configuration
+public class MongoIndexConfig {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public MongoIndexConfig(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    /**
+     * Executado na inicialização, para que o primeiro voto já encontre os índices criados.
+     * <p>
+     * O índice único de sessão e CPF é o que impede o associado de votar duas vezes, inclusive quando dois nós
+     * recebem o mesmo voto ao mesmo tempo. Votos antigos, sem o ID da sessão, ficam fora do índice.
+     * <p>
+     * O índice de sessão e voto atende a apuração por agregação, que agrupa os votos da sessão pelo voto sem ler
+     * os documentos.
+     * <p>
+     * O índice de término da sessão atende a carga das sessões a encerrar pelo agendador de encerramento.
+     * <p>
+     * O índice de sessão, granularidade e início atende a leitura da série de votos da sessão em ordem de tempo.
+     * <p>
+     * O índice de sessão das verificações de CPF pendentes atende a apuração, que não grava o resultado de uma
+     * sessão com verificações pendentes.
+     */
+    @PostConstruct
+    public void criarIndices() {
+        reactiveMongoTemplate.indexOps(Voto.class)
+                .ensureIndex(new Index()
+                        .on("idSessao", Sort.Direction.ASC)
+                        .on("cpfAssociado", Sort.Direction.ASC)
+                        .unique()
+                        .partial(PartialIndexFilter.of(Criteria.where("idSessao").exists(true)))
+                        .named("votos_sessao_cpf"))
+                .block();
+        reactiveMongoTemplate.indexOps(Voto.class)
+                .ensureIndex(new Index()
+                        .on("idSessao", Sort.Direction.ASC)
+                        .on("voto", Sort.Direction.ASC)
+                        .partial(PartialIndexFilter.of(Criteria.where("idSessao").exists(true)))
+                        .named("votos_sessao_voto"))
+                .block();
+        reactiveMongoTemplate.indexOps(SessaoVotacao.class)
+                .ensureIndex(new Index()
+                        .on("dataFim", Sort.Direction.ASC)
+                        .named("sessoes_data_fim"))
+                .block();
+        reactiveMongoTemplate.indexOps(SerieVotos.class)
+                .ensureIndex(new Index()
+                        .on("idSessao", Sort.Direction.ASC)
+                        .on("granularidade", Sort.Direction.ASC)
+                        .on("inicio", Sort.Direction.ASC)
+                        .named("series_sessao_granularidade_inicio"))
+                .block();
+        reactiveMongoTemplate.indexOps(VerificacaoCpfPendente.class)
+                .ensureIndex(new Index()
+                        .on("idSessao", Sort.Direction.ASC)
+                        .named("verificacoes_cpf_pendentes_sessao"))
+                .block();
+    }
+
+}
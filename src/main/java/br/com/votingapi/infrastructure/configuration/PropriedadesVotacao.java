@@ -0,0 +1,77 @@
+package br.com.votingapi.infrastructure.configuration;
+
+import br.com.votingapi.domain.model.EstrategiaApuracao;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configurações {@code votacao.*} da sessão de votação: listagem, importação, apuração e acompanhamento do
+ * resultado. Os valores padrão são os mesmos do {@code application.yml}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "votacao")
+public class PropriedadesVotacao {
+
+    private final Listagem listagem = new Listagem();
+    private final Importacao importacao = new Importacao();
+    private final Apuracao apuracao = new Apuracao();
+    private final Resultado resultado = new Resultado();
+    private final Encerramento encerramento = new Encerramento();
+
+    @Data
+    public static class Listagem {
+        /**
+         * Tamanho da página quando o cliente não informa o tamanho.
+         */
+        private int tamanhoPagina = 100;
+        private int tamanhoMaximoPagina = 1000;
+        /**
+         * Lote de leitura do banco nas listagens em NDJSON.
+         */
+        private int tamanhoLote = 500;
+    }
+
+    @Data
+    public static class Importacao {
+        /**
+         * Votos lidos, verificados e gravados juntos.
+         */
+        private int tamanhoLote = 1000;
+        private int verificacoesCpfSimultaneas = 16;
+    }
+
+    @Data
+    public static class Apuracao {
+        private EstrategiaApuracao estrategia = EstrategiaApuracao.CONTADORES;
+    }
+
+    @Data
+    public static class Resultado {
+        private final Acompanhamento acompanhamento = new Acompanhamento();
+        private final Lote lote = new Lote();
+
+        @Data
+        public static class Acompanhamento {
+            private long intervaloMs = 1000;
+        }
+
+        @Data
+        public static class Lote {
+            /**
+             * Quantidade de sessões consultadas juntas na consulta de resultados em lote.
+             */
+            private int tamanhoLote = 500;
+        }
+    }
+
+    @Data
+    public static class Encerramento {
+        /**
+         * Espera depois do término da sessão até o resultado ser definitivo.
+         */
+        private long atrasoMs = 1000;
+    }
+
+}
@@ -0,0 +1,39 @@
+package br.com.votingapi.infrastructure.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+
+import java.util.Arrays;
+
+@Configuration
+public class WebFluxConfig {
+
+    /**
+     * Um objeto JSON por linha, lido e escrito à medida que chega.
+     */
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    /**
+     * Adiciona o NDJSON aos codecs do Jackson configurados pelo Spring Boot, por isso é aplicado depois deles.
+     */
+    @Bean
+    @Order(1)
+    public CodecCustomizer ndjsonCodecCustomizer(ObjectMapper objectMapper) {
+        MediaType[] tiposJson = {MediaType.APPLICATION_JSON, new MediaType("application", "*+json"),
+                APPLICATION_NDJSON};
+        return configurer -> {
+            Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper, tiposJson);
+            encoder.setStreamingMediaTypes(Arrays.asList(MediaType.APPLICATION_STREAM_JSON, APPLICATION_NDJSON));
+            configurer.defaultCodecs().jackson2JsonEncoder(encoder);
+            configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper, tiposJson));
+        };
+    }
+
+}
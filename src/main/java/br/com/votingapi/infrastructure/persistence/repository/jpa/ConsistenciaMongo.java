@@ -0,0 +1,34 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import com.mongodb.WriteConcern;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Templates de leitura de cada {@link NivelConsistencia} e a garantia de escrita dos votos, escolhidos pelos
+ * métodos dos repositórios. Os templates de leitura compartilham as conexões e o conversor do template padrão.
+ */
+public class ConsistenciaMongo {
+
+    private final Map<NivelConsistencia, ReactiveMongoTemplate> leituras;
+    private final WriteConcern escritaVotos;
+
+    public ConsistenciaMongo(Map<NivelConsistencia, ReactiveMongoTemplate> leituras, WriteConcern escritaVotos) {
+        this.leituras = new EnumMap<>(leituras);
+        this.escritaVotos = escritaVotos;
+    }
+
+    public ReactiveMongoTemplate leitura(NivelConsistencia nivel) {
+        return leituras.get(nivel);
+    }
+
+    /**
+     * Garantia de escrita dos votos e dos contadores de votos.
+     */
+    public WriteConcern escritaVotos() {
+        return escritaVotos;
+    }
+
+}
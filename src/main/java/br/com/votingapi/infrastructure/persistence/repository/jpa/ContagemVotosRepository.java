@@ -0,0 +1,8 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.ContagemVotos;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ContagemVotosRepository extends ReactiveMongoRepository<ContagemVotos, String>,
+        ContagemVotosRepositoryCustom {
+}
@@ -0,0 +1,30 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.Voto;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface ContagemVotosRepositoryCustom {
+
+    /**
+     * Incrementa os contadores da sessão no próprio banco ($inc), sem ler o documento.
+     */
+    Mono<Void> incrementar(String idSessao, long pros, long contra);
+
+    /**
+     * Soma os votos informados por sessão e faz um único incremento para cada sessão.
+     */
+    Mono<Void> incrementar(Collection<Voto> votos);
+
+    /**
+     * Substitui os contadores da sessão pelos valores informados, criando o documento se não existir.
+     */
+    Mono<Void> definir(String idSessao, long pros, long contra);
+
+    /**
+     * Marca os contadores das sessões como divergentes dos votos gravados, criando o documento se não existir.
+     */
+    Mono<Void> marcarDivergentes(Collection<String> idsSessoes);
+
+}
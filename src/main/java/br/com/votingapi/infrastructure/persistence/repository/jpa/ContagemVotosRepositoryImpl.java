@@ -0,0 +1,93 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.Voto;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ContagemVotosRepositoryImpl implements ContagemVotosRepositoryCustom {
+
+    /**
+     * Uma nova tentativa quando o upsert falha por chave duplicada, repassando o erro original se falhar de novo.
+     */
+    private static final Retry NOVA_TENTATIVA_UPSERT = Retry.max(1)
+            .filter(DuplicateKeyException.class::isInstance)
+            .onRetryExhaustedThrow((especificacao, sinal) -> sinal.failure());
+
+    /**
+     * A marcação pode ser repetida sem alterar o resultado, então é tentada de novo em qualquer falha, inclusive
+     * na chave duplicada do upsert.
+     */
+    private static final Retry NOVAS_TENTATIVAS_MARCACAO = Retry.backoff(3, Duration.ofMillis(100));
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ContagemVotosRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    /**
+     * Usa upsert para as sessões criadas antes dos contadores. Dois upserts simultâneos no mesmo documento
+     * inexistente podem falhar com chave duplicada; nesse caso o documento já existe e a nova tentativa
+     * apenas incrementa.
+     */
+    @Override
+    public Mono<Void> incrementar(String idSessao, long pros, long contra) {
+        return reactiveMongoTemplate.upsert(
+                Query.query(Criteria.where("id").is(idSessao)),
+                new Update().inc("pros", pros).inc("contra", contra),
+                ContagemVotos.class)
+                .retryWhen(NOVA_TENTATIVA_UPSERT)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> incrementar(Collection<Voto> votos) {
+        Map<String, ContagemVotos> contagens = new HashMap<>();
+        for (Voto voto : votos) {
+            ContagemVotos contagem = contagens.computeIfAbsent(voto.getIdSessao(),
+                    idSessao -> new ContagemVotos(idSessao, 0, 0));
+            if (voto.getVoto()) {
+                contagem.setPros(contagem.getPros() + 1);
+            } else {
+                contagem.setContra(contagem.getContra() + 1);
+            }
+        }
+        return Flux.fromIterable(contagens.values())
+                .flatMap(contagem -> incrementar(contagem.getId(), contagem.getPros(), contagem.getContra()))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> definir(String idSessao, long pros, long contra) {
+        return reactiveMongoTemplate.upsert(
+                Query.query(Criteria.where("id").is(idSessao)),
+                new Update().set("pros", pros).set("contra", contra),
+                ContagemVotos.class)
+                .retryWhen(NOVA_TENTATIVA_UPSERT)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> marcarDivergentes(Collection<String> idsSessoes) {
+        return Flux.fromIterable(idsSessoes)
+                .flatMap(idSessao -> reactiveMongoTemplate.upsert(
+                        Query.query(Criteria.where("id").is(idSessao)),
+                        new Update().set("divergente", true),
+                        ContagemVotos.class)
+                        .retryWhen(NOVAS_TENTATIVAS_MARCACAO))
+                .then();
+    }
+
+}
@@ -0,0 +1,7 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.MigracaoVotosLegados;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface MigracaoVotosLegadosRepository extends ReactiveMongoRepository<MigracaoVotosLegados, String> {
+}
@@ -0,0 +1,27 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+/**
+ * Níveis de leitura usados pelos métodos dos repositórios, cada um com a sua preferência de leitura
+ * ({@code votacao.mongo.consistencia.<nivel>}). Os métodos que não escolhem um nível usam o padrão do
+ * {@code ReactiveMongoTemplate}, que lê do primário.
+ */
+public enum NivelConsistencia {
+
+    /**
+     * Listagens e exportações, que leem muitos documentos e toleram dados com algum atraso. Por padrão lidas dos
+     * secundários, com atraso máximo limitado, para não disputar o primário com os votos.
+     */
+    LISTAGEM,
+
+    /**
+     * Dados de sessões encerradas, que não mudam mais. Por padrão lidos dos secundários.
+     */
+    RESULTADO_ENCERRADO,
+
+    /**
+     * Dados que decidem se um voto é aceito ou que entram na apuração de uma sessão que pode estar aberta. Lidos
+     * sempre do primário, para não aceitar voto em sessão encerrada nem apurar sem os últimos votos.
+     */
+    SESSAO_ABERTA
+
+}
@@ -0,0 +1,44 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Consultas paginadas pelo {@code _id} (keyset), que leem só os documentos da página pelo índice do
+ * {@code _id}, sem pular os documentos das páginas anteriores.
+ * <p>
+ * Os IDs gerados pelo banco são ObjectIds e os informados na criação são strings. Na ordenação do MongoDB as
+ * strings vêm antes dos ObjectIds e uma comparação com string só encontra strings, por isso a página seguinte a
+ * um ID string inclui também todos os ObjectIds.
+ */
+final class PaginacaoPorId {
+
+    private static final int TIPO_OBJECT_ID = 7;
+
+    private PaginacaoPorId() {
+    }
+
+    /**
+     * Até {@code tamanho} documentos com {@code _id} maior que {@code aposId}, ou os primeiros se ele for nulo.
+     */
+    static Query pagina(String aposId, int tamanho) {
+        Query query = new Query();
+        if (aposId != null) {
+            query.addCriteria(ObjectId.isValid(aposId)
+                    ? Criteria.where("_id").gt(aposId)
+                    : new Criteria().orOperator(Criteria.where("_id").gt(aposId),
+                    Criteria.where("_id").type(TIPO_OBJECT_ID)));
+        }
+        return query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(tamanho);
+    }
+
+    /**
+     * Todos os documentos, lidos do banco em lotes de {@code tamanhoLote}.
+     */
+    static Query todos(int tamanhoLote) {
+        return new Query().cursorBatchSize(tamanhoLote);
+    }
+
+}
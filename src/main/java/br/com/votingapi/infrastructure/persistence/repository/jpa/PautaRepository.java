@@ -3,5 +3,5 @@ package br.com.votingapi.infrastructure.persistence.repository.jpa;
 import br.com.votingapi.domain.model.Pauta;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 
-public interface PautaRepository extends ReactiveMongoRepository<Pauta, String> {
+public interface PautaRepository extends ReactiveMongoRepository<Pauta, String>, PautaRepositoryCustom {
 }
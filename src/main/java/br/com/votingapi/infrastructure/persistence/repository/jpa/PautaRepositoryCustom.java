@@ -0,0 +1,18 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.Pauta;
+import reactor.core.publisher.Flux;
+
+public interface PautaRepositoryCustom {
+
+    /**
+     * Lê até {@code tamanho} pautas com ID maior que {@code aposId}, em ordem de ID.
+     */
+    Flux<Pauta> buscarPagina(String aposId, int tamanho);
+
+    /**
+     * Lê todas as pautas, buscando no banco lotes de {@code tamanhoLote} pautas.
+     */
+    Flux<Pauta> buscarTodas(int tamanhoLote);
+
+}
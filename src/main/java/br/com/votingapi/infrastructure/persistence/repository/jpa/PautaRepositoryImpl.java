@@ -0,0 +1,29 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.Pauta;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+public class PautaRepositoryImpl implements PautaRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ConsistenciaMongo consistenciaMongo;
+
+    public PautaRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate, ConsistenciaMongo consistenciaMongo) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.consistenciaMongo = consistenciaMongo;
+    }
+
+    @Override
+    public Flux<Pauta> buscarPagina(String aposId, int tamanho) {
+        return consistenciaMongo.leitura(NivelConsistencia.LISTAGEM)
+                .find(PaginacaoPorId.pagina(aposId, tamanho), Pauta.class);
+    }
+
+    @Override
+    public Flux<Pauta> buscarTodas(int tamanhoLote) {
+        return consistenciaMongo.leitura(NivelConsistencia.LISTAGEM)
+                .find(PaginacaoPorId.todos(tamanhoLote), Pauta.class);
+    }
+
+}
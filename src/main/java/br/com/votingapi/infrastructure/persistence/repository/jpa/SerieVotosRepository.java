@@ -0,0 +1,12 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.GranularidadeSerie;
+import br.com.votingapi.domain.model.SerieVotos;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+public interface SerieVotosRepository extends ReactiveMongoRepository<SerieVotos, String>, SerieVotosRepositoryCustom {
+
+    Flux<SerieVotos> findByIdSessaoAndGranularidadeOrderByInicio(String idSessao, GranularidadeSerie granularidade);
+
+}
@@ -0,0 +1,16 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.Voto;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface SerieVotosRepositoryCustom {
+
+    /**
+     * Incrementa as contagens dos votos em todas as granularidades, com um upsert por documento da série. Votos sem
+     * data de registro não são contados.
+     */
+    Mono<Void> incrementar(Collection<Voto> votos);
+
+}
@@ -0,0 +1,72 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.GranularidadeSerie;
+import br.com.votingapi.domain.model.SerieVotos;
+import br.com.votingapi.domain.model.Voto;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SerieVotosRepositoryImpl implements SerieVotosRepositoryCustom {
+
+    /**
+     * Uma nova tentativa quando o upsert falha por chave duplicada, repassando o erro original se falhar de novo.
+     */
+    private static final Retry NOVA_TENTATIVA_UPSERT = Retry.max(1)
+            .filter(DuplicateKeyException.class::isInstance)
+            .onRetryExhaustedThrow((especificacao, sinal) -> sinal.failure());
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public SerieVotosRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    /**
+     * Os votos do mesmo documento são somados antes, de forma que um lote de votos do mesmo minuto gera um único
+     * upsert por granularidade. Como nos contadores, um upsert simultâneo no mesmo documento inexistente pode falhar
+     * com chave duplicada e é repetido.
+     */
+    @Override
+    public Mono<Void> incrementar(Collection<Voto> votos) {
+        Map<String, Map<String, Long>> incrementos = new HashMap<>();
+        Map<String, Update> atualizacoes = new HashMap<>();
+        for (Voto voto : votos) {
+            LocalDateTime dataRegistro = voto.getDataRegistro();
+            if (dataRegistro == null) {
+                continue;
+            }
+            for (GranularidadeSerie granularidade : GranularidadeSerie.values()) {
+                LocalDateTime inicio = granularidade.inicioDocumento(dataRegistro);
+                String id = SerieVotos.id(voto.getIdSessao(), granularidade, inicio);
+                atualizacoes.computeIfAbsent(id, novo -> new Update()
+                        .setOnInsert("idSessao", voto.getIdSessao())
+                        .setOnInsert("granularidade", granularidade)
+                        .setOnInsert("inicio", inicio));
+                incrementos.computeIfAbsent(id, novo -> new HashMap<>())
+                        .merge((voto.getVoto() ? "pros." : "contra.") + granularidade.posicao(dataRegistro),
+                                1L, Long::sum);
+            }
+        }
+        return Flux.fromIterable(atualizacoes.entrySet())
+                .flatMap(atualizacao -> {
+                    Update update = atualizacao.getValue();
+                    incrementos.get(atualizacao.getKey()).forEach(update::inc);
+                    return reactiveMongoTemplate.upsert(Query.query(Criteria.where("id").is(atualizacao.getKey())),
+                            update, SerieVotos.class)
+                            .retryWhen(NOVA_TENTATIVA_UPSERT);
+                })
+                .then();
+    }
+
+}
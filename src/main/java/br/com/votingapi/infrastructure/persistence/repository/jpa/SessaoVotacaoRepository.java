@@ -4,8 +4,12 @@ import br.com.votingapi.domain.model.SessaoVotacao;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Mono;
 
-public interface SessaoVotacaoRepository extends ReactiveMongoRepository<SessaoVotacao, String> {
+public interface SessaoVotacaoRepository extends ReactiveMongoRepository<SessaoVotacao, String>,
+        SessaoVotacaoRepositoryCustom {
 
-    Mono<SessaoVotacao> findByPautaId(String idPauta);
+    /**
+     * Verifica a pauta sem ler a sessão, que resolveria a pauta e os votos da lista.
+     */
+    Mono<Boolean> existsByPautaId(String idPauta);
 
 }
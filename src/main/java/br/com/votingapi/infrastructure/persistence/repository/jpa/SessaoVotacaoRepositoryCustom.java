@@ -0,0 +1,86 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.MetadadosSessao;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SessaoVotacaoRepositoryCustom {
+
+    /**
+     * Lê somente as datas e a referência da pauta, sem carregar a pauta e os votos.
+     */
+    Mono<MetadadosSessao> buscarMetadados(String idSessao);
+
+    /**
+     * Lê os metadados das sessões informadas com uma única consulta ($in). Sessões inexistentes não aparecem.
+     */
+    Flux<MetadadosSessao> buscarMetadados(Collection<String> idsSessoes);
+
+    /**
+     * Lê os IDs dos votos da lista da sessão, sem carregar os votos. Retorna vazio se a sessão não existir.
+     */
+    Mono<List<String>> buscarIdsVotosLegados(String idSessao);
+
+    /**
+     * Conta no banco os votos a favor e contra da lista de cada sessão informada, sem ler os IDs dos votos. Votos
+     * da lista que já têm o ID de uma sessão não são contados, pois são contados pelo ID da sessão. Sessões sem
+     * votos na lista não aparecem.
+     */
+    Flux<ContagemVotos> contarVotosLegados(Collection<String> idsSessoes);
+
+    /**
+     * Lê somente os primeiros {@code limite} IDs dos votos da lista da sessão ($slice).
+     */
+    Mono<List<String>> buscarIdsVotosLegados(String idSessao, int limite);
+
+    /**
+     * Lê os metadados de até {@code tamanho} sessões com votos na lista e ID maior que {@code aposId}, em ordem de
+     * ID.
+     */
+    Flux<MetadadosSessao> buscarMetadadosComVotosLegados(String aposId, int tamanho);
+
+    /**
+     * Retira da lista da sessão as referências aos votos informados ($pull), sem ler a lista.
+     */
+    Mono<Void> removerVotosLegados(String idSessao, Collection<String> idsVotos);
+
+    /**
+     * Lê os metadados de até {@code tamanho} sessões com ID maior que {@code aposId}, em ordem de ID.
+     */
+    Flux<MetadadosSessao> buscarMetadadosPagina(String aposId, int tamanho);
+
+    /**
+     * Lê os metadados de todas as sessões, buscando no banco lotes de {@code tamanhoLote} sessões.
+     */
+    Flux<MetadadosSessao> buscarMetadadosTodas(int tamanhoLote);
+
+    /**
+     * Lê os metadados das sessões com término entre {@code inicio} e {@code fim}, inclusive, em ordem de término,
+     * buscando no banco lotes de {@code tamanhoLote} sessões.
+     */
+    Flux<MetadadosSessao> buscarMetadadosPorTermino(LocalDateTime inicio, LocalDateTime fim, int tamanhoLote);
+
+    /**
+     * Lê os metadados das sessões abertas em {@code agora} com término até {@code fim}, inclusive, em ordem de
+     * término, buscando no banco lotes de {@code tamanhoLote} sessões.
+     */
+    Flux<MetadadosSessao> buscarMetadadosAbertas(LocalDateTime agora, LocalDateTime fim, int tamanhoLote);
+
+    /**
+     * Lê os metadados das sessões ainda não encerradas pelo agendador cujo término é a partir de {@code desde} e
+     * anterior a {@code limite}.
+     */
+    Flux<MetadadosSessao> buscarNaoEncerradas(LocalDateTime desde, LocalDateTime limite);
+
+    /**
+     * Grava a data de encerramento da sessão, se ela ainda não tiver sido encerrada. Retorna {@code false} quando
+     * a sessão não existe ou já foi encerrada, por exemplo por outro nó.
+     */
+    Mono<Boolean> marcarEncerrada(String idSessao, LocalDateTime dataEncerramento);
+
+}
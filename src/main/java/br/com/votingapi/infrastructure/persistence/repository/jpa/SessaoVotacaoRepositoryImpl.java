@@ -0,0 +1,250 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.SessaoVotacao;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.MetadadosSessao;
+import com.mongodb.DBRef;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public class SessaoVotacaoRepositoryImpl implements SessaoVotacaoRepositoryCustom {
+
+    /**
+     * Gravado somente pelo agendador de encerramento; não faz parte de {@link SessaoVotacao}.
+     */
+    private static final String DATA_ENCERRAMENTO = "dataEncerramento";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ConsistenciaMongo consistenciaMongo;
+
+    public SessaoVotacaoRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate,
+                                       ConsistenciaMongo consistenciaMongo) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.consistenciaMongo = consistenciaMongo;
+    }
+
+    @Override
+    public Mono<MetadadosSessao> buscarMetadados(String idSessao) {
+        Query query = Query.query(Criteria.where("_id").is(idSessao));
+        incluirMetadados(query);
+        return consistenciaMongo.leitura(NivelConsistencia.SESSAO_ABERTA).findOne(query, Document.class, colecao())
+                .map(this::metadados);
+    }
+
+    @Override
+    public Flux<MetadadosSessao> buscarMetadados(Collection<String> idsSessoes) {
+        Query query = Query.query(Criteria.where("_id").in(idsSessoes));
+        incluirMetadados(query);
+        return consistenciaMongo.leitura(NivelConsistencia.SESSAO_ABERTA).find(query, Document.class, colecao())
+                .map(this::metadados);
+    }
+
+    @Override
+    public Mono<List<String>> buscarIdsVotosLegados(String idSessao) {
+        Query query = Query.query(Criteria.where("_id").is(idSessao));
+        query.fields().include("votos");
+        return reactiveMongoTemplate.findOne(query, Document.class, colecao())
+                .map(SessaoVotacaoRepositoryImpl::idsVotos);
+    }
+
+    /**
+     * Cada referência da lista é ligada ao seu voto ($unwind e $lookup) e os votos são somados por sessão
+     * ($group), sem trazer os IDs para a memória nem montar um $in com eles. Os caminhos da agregação não aceitam
+     * o campo {@code $id} das referências, que é lido com $objectToArray: é o segundo campo de toda referência,
+     * depois de {@code $ref}.
+     */
+    @Override
+    public Flux<ContagemVotos> contarVotosLegados(Collection<String> idsSessoes) {
+        List<Object> ids = new ArrayList<>(idsSessoes.size());
+        idsSessoes.forEach(id -> ids.add(idBanco(id)));
+        Aggregation agregacao = Aggregation.newAggregation(
+                estagio("$match", new Document("_id", new Document("$in", ids))
+                        .append("votos.0", new Document("$exists", true))),
+                estagio("$unwind", "$votos"),
+                estagio("$project", new Document("referencia",
+                        new Document("$arrayElemAt", Arrays.asList(new Document("$objectToArray", "$votos"), 1)))),
+                estagio("$lookup", new Document("from", reactiveMongoTemplate.getCollectionName(Voto.class))
+                        .append("localField", "referencia.v")
+                        .append("foreignField", "_id")
+                        .append("as", "voto")),
+                estagio("$unwind", "$voto"),
+                estagio("$match", new Document("voto.idSessao", null)),
+                estagio("$group", new Document("_id", "$_id")
+                        .append("pros", somarSe(true))
+                        .append("contra", somarSe(false))));
+        return consistenciaMongo.leitura(NivelConsistencia.SESSAO_ABERTA)
+                .aggregate(agregacao, colecao(), Document.class)
+                .map(grupo -> new ContagemVotos(grupo.get("_id").toString(),
+                        grupo.get("pros", Number.class).longValue(), grupo.get("contra", Number.class).longValue()));
+    }
+
+    @Override
+    public Mono<List<String>> buscarIdsVotosLegados(String idSessao, int limite) {
+        Query query = Query.query(Criteria.where("_id").is(idSessao));
+        query.fields().slice("votos", limite);
+        return reactiveMongoTemplate.findOne(query, Document.class, colecao())
+                .map(SessaoVotacaoRepositoryImpl::idsVotos);
+    }
+
+    @Override
+    public Flux<MetadadosSessao> buscarMetadadosComVotosLegados(String aposId, int tamanho) {
+        Query query = PaginacaoPorId.pagina(aposId, tamanho)
+                .addCriteria(Criteria.where("votos.0").exists(true));
+        incluirMetadados(query);
+        return reactiveMongoTemplate.find(query, Document.class, colecao())
+                .map(this::metadados);
+    }
+
+    /**
+     * Usa o driver diretamente porque o filtro do $pull compara o {@code $id} das referências, que o mapeamento do
+     * Spring Data não trata. Os IDs são gravados como ObjectId quando são ObjectIds válidos.
+     */
+    @Override
+    public Mono<Void> removerVotosLegados(String idSessao, Collection<String> idsVotos) {
+        List<Object> ids = new ArrayList<>(idsVotos.size());
+        idsVotos.forEach(id -> ids.add(idBanco(id)));
+        return Mono.from(reactiveMongoTemplate.getCollection(colecao())
+                .updateOne(Filters.eq("_id", idBanco(idSessao)),
+                        Updates.pull("votos", new Document("$id", new Document("$in", ids)))))
+                .then();
+    }
+
+    @Override
+    public Flux<MetadadosSessao> buscarMetadadosPagina(String aposId, int tamanho) {
+        Query query = PaginacaoPorId.pagina(aposId, tamanho);
+        incluirMetadados(query);
+        return consistenciaMongo.leitura(NivelConsistencia.LISTAGEM).find(query, Document.class, colecao())
+                .map(this::metadados);
+    }
+
+    @Override
+    public Flux<MetadadosSessao> buscarMetadadosTodas(int tamanhoLote) {
+        Query query = PaginacaoPorId.todos(tamanhoLote);
+        incluirMetadados(query);
+        return consistenciaMongo.leitura(NivelConsistencia.LISTAGEM).find(query, Document.class, colecao())
+                .map(this::metadados);
+    }
+
+    /**
+     * Usa o índice de término da sessão. Lido no nível das sessões encerradas, pois atende a exportação de
+     * resultados.
+     */
+    @Override
+    public Flux<MetadadosSessao> buscarMetadadosPorTermino(LocalDateTime inicio, LocalDateTime fim,
+                                                          int tamanhoLote) {
+        Query query = Query.query(Criteria.where("dataFim").gte(converter(inicio)).lte(converter(fim)));
+        return buscarMetadadosPorTermino(query, tamanhoLote, NivelConsistencia.RESULTADO_ENCERRADO);
+    }
+
+    /**
+     * Usa o índice de término da sessão. Lido no nível das sessões abertas, pois as sessões ainda recebem votos.
+     */
+    @Override
+    public Flux<MetadadosSessao> buscarMetadadosAbertas(LocalDateTime agora, LocalDateTime fim, int tamanhoLote) {
+        Query query = Query.query(Criteria.where("dataFim").gte(converter(agora)).lte(converter(fim))
+                .and("dataInicio").lte(converter(agora)));
+        return buscarMetadadosPorTermino(query, tamanhoLote, NivelConsistencia.SESSAO_ABERTA);
+    }
+
+    private Flux<MetadadosSessao> buscarMetadadosPorTermino(Query query, int tamanhoLote, NivelConsistencia nivel) {
+        query.with(Sort.by(Sort.Direction.ASC, "dataFim")).cursorBatchSize(tamanhoLote);
+        incluirMetadados(query);
+        return consistenciaMongo.leitura(nivel)
+                .find(query, Document.class, colecao())
+                .map(this::metadados);
+    }
+
+    @Override
+    public Flux<MetadadosSessao> buscarNaoEncerradas(LocalDateTime desde, LocalDateTime limite) {
+        Query query = Query.query(Criteria.where(DATA_ENCERRAMENTO).exists(false)
+                .and("dataFim").gte(converter(desde)).lt(converter(limite)));
+        incluirMetadados(query);
+        return reactiveMongoTemplate.find(query, Document.class, colecao())
+                .map(this::metadados);
+    }
+
+    @Override
+    public Mono<Boolean> marcarEncerrada(String idSessao, LocalDateTime dataEncerramento) {
+        Query query = Query.query(Criteria.where("_id").is(idSessao).and(DATA_ENCERRAMENTO).exists(false));
+        return reactiveMongoTemplate.updateFirst(query,
+                Update.update(DATA_ENCERRAMENTO, converter(dataEncerramento)), colecao())
+                .map(resultado -> resultado.getModifiedCount() == 1);
+    }
+
+    private static void incluirMetadados(Query query) {
+        query.fields().include("pauta").include("dataInicio").include("dataFim");
+    }
+
+    private String colecao() {
+        return reactiveMongoTemplate.getCollectionName(SessaoVotacao.class);
+    }
+
+    private MetadadosSessao metadados(Document documento) {
+        return new MetadadosSessao(documento.get("_id").toString(), idPauta(documento),
+                data(documento, "dataInicio"), data(documento, "dataFim"));
+    }
+
+    private static List<String> idsVotos(Document documento) {
+        List<String> ids = new ArrayList<>();
+        Object votos = documento.get("votos");
+        if (votos instanceof List) {
+            for (Object voto : (List<?>) votos) {
+                if (voto instanceof DBRef) {
+                    ids.add(((DBRef) voto).getId().toString());
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static AggregationOperation estagio(String operador, Object valor) {
+        return contexto -> new Document(operador, valor);
+    }
+
+    private static Document somarSe(boolean voto) {
+        return new Document("$sum", new Document("$cond",
+                Arrays.asList(new Document("$eq", Arrays.asList("$voto.voto", voto)), 1, 0)));
+    }
+
+    private static Object idBanco(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private static String idPauta(Document documento) {
+        Object pauta = documento.get("pauta");
+        return pauta instanceof DBRef ? ((DBRef) pauta).getId().toString() : null;
+    }
+
+    private LocalDateTime data(Document documento, String campo) {
+        return conversionService().convert(documento.getDate(campo), LocalDateTime.class);
+    }
+
+    private Date converter(LocalDateTime data) {
+        return conversionService().convert(data, Date.class);
+    }
+
+    private ConversionService conversionService() {
+        return reactiveMongoTemplate.getConverter().getConversionService();
+    }
+
+}
@@ -0,0 +1,24 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.VerificacaoCpfPendente;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface VerificacaoCpfPendenteRepository extends ReactiveMongoRepository<VerificacaoCpfPendente, String> {
+
+    Flux<VerificacaoCpfPendente> findByDataAceiteBefore(LocalDateTime dataAceite);
+
+    Mono<Boolean> existsByIdSessao(String idSessao);
+
+    /**
+     * Retorna as verificações pendentes das sessões somente com o ID da sessão preenchido.
+     */
+    @Query(value = "{ 'idSessao': { $in: ?0 } }", fields = "{ 'idSessao': 1 }")
+    Flux<VerificacaoCpfPendente> findIdsSessoesByIdSessaoIn(Collection<String> idsSessoes);
+
+}
@@ -1,7 +1,21 @@
 package br.com.votingapi.infrastructure.persistence.repository.jpa;
 
 import br.com.votingapi.domain.model.Voto;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface VotoRepository extends ReactiveMongoRepository<Voto, String>, VotoRepositoryCustom {
+
+    /**
+     * Retorna os votos da sessão somente com o CPF do associado, nas duas formas, preenchido.
+     */
+    @Query(value = "{ 'idSessao': ?0 }", fields = "{ 'cpfAssociado': 1, 'cpfCompacto': 1 }")
+    Flux<Voto> findCpfsByIdSessao(String idSessao);
+
+    Mono<Voto> findByIdSessaoAndCpfAssociado(String idSessao, String cpfAssociado);
+
+    Mono<Boolean> existsByIdSessaoAndCpfAssociado(String idSessao, String cpfAssociado);
 
-public interface VotoRepository extends ReactiveMongoRepository<Voto, String> {
 }
@@ -0,0 +1,62 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.Voto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface VotoRepositoryCustom {
+
+    /**
+     * Insere os votos com um único insert em lote, sem ordem, para que um voto recusado não impeça a gravação
+     * dos demais.
+     *
+     * @return as posições, na lista informada, dos votos recusados por chave duplicada.
+     */
+    Mono<Set<Integer>> inserirEmLote(List<Voto> votos);
+
+    /**
+     * Conta no banco, com uma agregação ($match e $group), os votos a favor e contra gravados com o ID da sessão.
+     * Os votos da lista da sessão não são contados.
+     */
+    Mono<ContagemVotos> contarVotos(String idSessao);
+
+    /**
+     * Conta, com uma única agregação, os votos a favor e contra gravados com o ID de cada sessão informada. Os
+     * votos da lista da sessão não são contados. Sessões sem votos não aparecem.
+     */
+    Flux<ContagemVotos> contarVotosPorSessao(Collection<String> idsSessoes);
+
+    /**
+     * Lê, com uma única consulta ($in), os votos informados somente com o CPF do associado, nas duas formas,
+     * preenchido.
+     */
+    Flux<Voto> buscarCpfs(Collection<String> idsVotos);
+
+    /**
+     * Lê os votos gravados com o ID da sessão, buscando no banco lotes de {@code tamanhoLote} votos. Os votos da
+     * lista da sessão não são lidos.
+     */
+    Flux<Voto> buscarPorSessao(String idSessao, int tamanhoLote);
+
+    /**
+     * Grava o ID da sessão nos votos informados que ainda não o têm. Um voto que violaria o índice único de sessão e
+     * CPF, por ser um segundo voto do associado na sessão, fica sem o ID da sessão.
+     *
+     * @return a contagem dos votos informados que ficaram com o ID da sessão, inclusive os que já o tinham.
+     */
+    Mono<ContagemVotos> vincularSessao(String idSessao, Collection<String> idsVotos);
+
+    /**
+     * Remove o voto informado.
+     *
+     * @return se o voto foi removido por esta chamada. Um voto já removido, por outra chamada ou antes dela,
+     * retorna {@code false}.
+     */
+    Mono<Boolean> remover(String idVoto);
+
+}
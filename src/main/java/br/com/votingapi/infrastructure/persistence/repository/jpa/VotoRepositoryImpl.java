@@ -0,0 +1,168 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.Voto;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class VotoRepositoryImpl implements VotoRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ConsistenciaMongo consistenciaMongo;
+
+    public VotoRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate, ConsistenciaMongo consistenciaMongo) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.consistenciaMongo = consistenciaMongo;
+    }
+
+    @Override
+    public Mono<Set<Integer>> inserirEmLote(List<Voto> votos) {
+        if (votos.isEmpty()) {
+            return Mono.just(Collections.emptySet());
+        }
+        List<Document> documentos = new ArrayList<>(votos.size());
+        for (Voto voto : votos) {
+            if (voto.getId() == null) {
+                voto.setId(new ObjectId().toHexString());
+            }
+            Document documento = new Document();
+            reactiveMongoTemplate.getConverter().write(voto, documento);
+            documentos.add(documento);
+        }
+        return reactiveMongoTemplate.execute(Voto.class, collection ->
+                collection.withWriteConcern(consistenciaMongo.escritaVotos())
+                        .insertMany(documentos, new InsertManyOptions().ordered(false)))
+                .then(Mono.just(Collections.<Integer>emptySet()))
+                .onErrorResume(erro -> {
+                    MongoBulkWriteException erroEmLote = buscarErroEmLote(erro);
+                    if (erroEmLote == null || !somenteChavesDuplicadas(erroEmLote)) {
+                        return Mono.error(erro);
+                    }
+                    return Mono.just(erroEmLote.getWriteErrors().stream()
+                            .map(BulkWriteError::getIndex)
+                            .collect(Collectors.toSet()));
+                });
+    }
+
+    /**
+     * Os votos da sessão são encontrados pelo índice de sessão e voto.
+     */
+    @Override
+    public Mono<ContagemVotos> contarVotos(String idSessao) {
+        Aggregation agregacao = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("idSessao").is(idSessao)),
+                Aggregation.group("voto").count().as("total"));
+        return consistenciaMongo.leitura(NivelConsistencia.SESSAO_ABERTA)
+                .aggregate(agregacao, Voto.class, Document.class)
+                .collect(() -> new ContagemVotos(idSessao, 0, 0),
+                        (contagem, grupo) -> somar(contagem, grupo.get("_id"), grupo));
+    }
+
+    /**
+     * Usa o mesmo índice de sessão e voto de {@link #contarVotos}.
+     */
+    @Override
+    public Flux<ContagemVotos> contarVotosPorSessao(Collection<String> idsSessoes) {
+        Aggregation agregacao = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("idSessao").in(idsSessoes)),
+                Aggregation.group("idSessao", "voto").count().as("total"));
+        return consistenciaMongo.leitura(NivelConsistencia.SESSAO_ABERTA)
+                .aggregate(agregacao, Voto.class, Document.class)
+                .groupBy(grupo -> grupo.get("_id", Document.class).getString("idSessao"))
+                .flatMap(grupos -> grupos.reduce(new ContagemVotos(grupos.key(), 0, 0), (contagem, grupo) ->
+                        somar(contagem, grupo.get("_id", Document.class).get("voto"), grupo)));
+    }
+
+    /**
+     * Lido no nível das sessões abertas, pois atende a verificação de voto anterior.
+     */
+    @Override
+    public Flux<Voto> buscarCpfs(Collection<String> idsVotos) {
+        Query query = Query.query(Criteria.where("id").in(idsVotos));
+        query.fields().include("cpfAssociado").include("cpfCompacto");
+        return consistenciaMongo.leitura(NivelConsistencia.SESSAO_ABERTA).find(query, Voto.class);
+    }
+
+    @Override
+    public Flux<Voto> buscarPorSessao(String idSessao, int tamanhoLote) {
+        return consistenciaMongo.leitura(NivelConsistencia.LISTAGEM)
+                .find(Query.query(Criteria.where("idSessao").is(idSessao)).cursorBatchSize(tamanhoLote), Voto.class);
+    }
+
+    /**
+     * Tenta primeiro um único update de todos os votos. Se um deles violar o índice único, o update é interrompido
+     * e os votos são gravados um a um.
+     */
+    @Override
+    public Mono<ContagemVotos> vincularSessao(String idSessao, Collection<String> idsVotos) {
+        return vincular(Criteria.where("id").in(idsVotos), idSessao)
+                .onErrorResume(DuplicateKeyException.class, erro -> Flux.fromIterable(idsVotos)
+                        .concatMap(idVoto -> vincular(Criteria.where("id").is(idVoto), idSessao)
+                                .onErrorResume(DuplicateKeyException.class, duplicado -> Mono.empty()))
+                        .then())
+                .then(reactiveMongoTemplate.aggregate(Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("id").in(idsVotos).and("idSessao").is(idSessao)),
+                        Aggregation.group("voto").count().as("total")), Voto.class, Document.class)
+                        .collect(() -> new ContagemVotos(idSessao, 0, 0),
+                                (contagem, grupo) -> somar(contagem, grupo.get("_id"), grupo)));
+    }
+
+    @Override
+    public Mono<Boolean> remover(String idVoto) {
+        return reactiveMongoTemplate.remove(Query.query(Criteria.where("id").is(idVoto)), Voto.class)
+                .map(resultado -> resultado.getDeletedCount() == 1);
+    }
+
+    private Mono<Void> vincular(Criteria votos, String idSessao) {
+        return reactiveMongoTemplate.updateMulti(Query.query(votos.and("idSessao").exists(false)),
+                Update.update("idSessao", idSessao), Voto.class)
+                .then();
+    }
+
+    private static ContagemVotos somar(ContagemVotos contagem, Object voto, Document grupo) {
+        long total = ((Number) grupo.get("total")).longValue();
+        if (Boolean.TRUE.equals(voto)) {
+            contagem.setPros(contagem.getPros() + total);
+        } else {
+            contagem.setContra(contagem.getContra() + total);
+        }
+        return contagem;
+    }
+
+    /**
+     * O template traduz o erro do driver, mantendo o original como causa.
+     */
+    private static MongoBulkWriteException buscarErroEmLote(Throwable erro) {
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof MongoBulkWriteException) {
+                return (MongoBulkWriteException) causa;
+            }
+        }
+        return null;
+    }
+
+    private static boolean somenteChavesDuplicadas(MongoBulkWriteException erroEmLote) {
+        return erroEmLote.getWriteConcernError() == null && erroEmLote.getWriteErrors().stream()
+                .allMatch(erro -> ErrorCategory.fromErrorCode(erro.getCode()) == ErrorCategory.DUPLICATE_KEY);
+    }
+
+}
@@ -0,0 +1,32 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa.projection;
+
+import br.com.votingapi.domain.model.SessaoVotacao;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dados da sessão usados para aceitar um voto, sem a pauta e os votos.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetadadosSessao {
+
+    private String id;
+
+    private String idPauta;
+
+    private LocalDateTime dataInicio;
+
+    private LocalDateTime dataFim;
+
+    public static MetadadosSessao de(SessaoVotacao sessaoVotacao) {
+        return new MetadadosSessao(sessaoVotacao.getId(),
+                sessaoVotacao.getPauta() == null ? null : sessaoVotacao.getPauta().getId(),
+                sessaoVotacao.getDataInicio(), sessaoVotacao.getDataFim());
+    }
+
+}
@@ -0,0 +1,31 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Uma página de uma listagem paginada pelo ID.
+ */
+@Data
+@AllArgsConstructor
+public class Pagina<T> {
+
+    private List<T> itens;
+
+    /**
+     * ID do último item, a partir do qual a próxima página é lida. Nulo na última página.
+     */
+    private String proximaAposId;
+
+    /**
+     * Uma página com menos itens que o tamanho pedido é a última.
+     */
+    public static <T> Pagina<T> de(List<T> itens, int tamanho, Function<T, String> id) {
+        String proximaAposId = itens.size() < tamanho ? null : id.apply(itens.get(itens.size() - 1));
+        return new Pagina<>(itens, proximaAposId);
+    }
+
+}
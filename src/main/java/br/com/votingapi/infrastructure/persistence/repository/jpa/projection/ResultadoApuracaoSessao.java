@@ -0,0 +1,36 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa.projection;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoApuracaoSessao {
+
+    @Schema(description = "ID da sessão de votação informado.", example = "5e8f5c4b8f0b3a1c2d3e4f50")
+    private String idSessao;
+
+    @Schema(description = "Resultado da consulta da sessão.", example = "APURADO")
+    private Situacao situacao;
+
+    @Schema(description = "Resultado da votação. Informado somente quando a situação é APURADO.")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ResumoVotacao resultado;
+
+    public static ResultadoApuracaoSessao apurado(String idSessao, ResumoVotacao resultado) {
+        return new ResultadoApuracaoSessao(idSessao, Situacao.APURADO, resultado);
+    }
+
+    public static ResultadoApuracaoSessao recusado(String idSessao, Situacao situacao) {
+        return new ResultadoApuracaoSessao(idSessao, situacao, null);
+    }
+
+    public enum Situacao {
+        APURADO, SESSAO_NAO_ENCONTRADA, SESSAO_NAO_ENCERRADA
+    }
+
+}
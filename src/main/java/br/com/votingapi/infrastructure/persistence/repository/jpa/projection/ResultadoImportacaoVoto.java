@@ -0,0 +1,27 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa.projection;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoImportacaoVoto {
+
+    @Schema(description = "Número da linha do voto no arquivo importado, iniciando em 1.", example = "1")
+    private long linha;
+
+    @Schema(description = "CPF do associado informado na linha.", example = "33546206096")
+    private String cpfAssociado;
+
+    @Schema(description = "Resultado da importação do voto.", example = "ACEITO")
+    private Situacao situacao;
+
+    public enum Situacao {
+        ACEITO, INVALIDO, ASSOCIADO_JA_VOTOU, ASSOCIADO_SEM_PERMISSAO, SESSAO_NAO_INICIADA, SESSAO_ENCERRADA,
+        SERVICO_CPF_INDISPONIVEL
+    }
+
+}
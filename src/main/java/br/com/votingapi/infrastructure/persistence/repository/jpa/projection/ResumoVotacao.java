@@ -1,11 +1,17 @@
 package br.com.votingapi.infrastructure.persistence.repository.jpa.projection;
 
+import br.com.votingapi.domain.model.ContagemVotos;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Builder
 @Data
+@AllArgsConstructor
+@NoArgsConstructor
 public class ResumoVotacao {
 
     @Schema(description = "Descrição do assunto discutido na pauta.",
@@ -21,4 +27,26 @@ public class ResumoVotacao {
     @Schema(description = "Indica se a pauta foi aprovada ou não.", example = "true")
     private Boolean aprovado;
 
+    @Schema(description = "Indica se a sessão já foi encerrada. Informado somente no acompanhamento do resultado.",
+            example = "false")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean encerrada;
+
+    @Schema(description = "Indica que a sessão terminou, mas o resultado ainda pode mudar, pois os últimos votos "
+            + "podem estar sendo gravados. Informado somente nesse caso.", example = "true")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean provisorio;
+
+    /**
+     * Resumo da contagem de votos. A pauta é aprovada por maioria simples.
+     */
+    public static ResumoVotacao de(String assunto, ContagemVotos contagemVotos) {
+        return ResumoVotacao.builder()
+                .assunto(assunto)
+                .pros(contagemVotos.getPros())
+                .contra(contagemVotos.getContra())
+                .aprovado(contagemVotos.getPros() > contagemVotos.getContra())
+                .build();
+    }
+
 }
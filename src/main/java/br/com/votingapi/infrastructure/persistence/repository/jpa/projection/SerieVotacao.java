@@ -0,0 +1,48 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa.projection;
+
+import br.com.votingapi.domain.model.GranularidadeSerie;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SerieVotacao {
+
+    @Schema(description = "ID da sessão de votação.", example = "5e8f5c4b8f0b3a1c2d3e4f50")
+    private String idSessao;
+
+    @Schema(description = "Intervalo de cada ponto da série.", example = "SEGUNDO")
+    private GranularidadeSerie granularidade;
+
+    @Schema(description = "Votos de cada intervalo com votos, em ordem de tempo. Intervalos sem votos não "
+            + "aparecem.")
+    private List<Ponto> pontos;
+
+    @Schema(description = "Intervalo com mais votos. Não é informado se a sessão não tem votos na série.")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Ponto pico;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Ponto {
+
+        @Schema(description = "Início do intervalo.", example = "2020-04-19T17:03:15")
+        private LocalDateTime instante;
+
+        @Schema(description = "Votos a favor no intervalo.", example = "12")
+        private long pros;
+
+        @Schema(description = "Votos contra no intervalo.", example = "3")
+        private long contra;
+
+    }
+
+}
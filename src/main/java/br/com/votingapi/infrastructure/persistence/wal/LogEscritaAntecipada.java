@@ -0,0 +1,308 @@
+package br.com.votingapi.infrastructure.persistence.wal;
+
+import br.com.votingapi.domain.model.Cpf;
+import br.com.votingapi.domain.model.Voto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Log de escrita antecipada (write-ahead log) dos votos aceitos e ainda não gravados no banco.
+ * <p>
+ * Os votos são anexados em arquivos de segmento, uma linha por voto. Uma única thread grava todos os votos que
+ * chegaram enquanto o fsync anterior estava em andamento e faz um único fsync para o grupo, de forma que o
+ * custo do fsync é dividido entre os votos. O voto só é confirmado depois do fsync.
+ * <p>
+ * Um segmento é apagado quando foi substituído por um novo e todos os seus votos foram gravados no banco.
+ */
+@Slf4j
+public class LogEscritaAntecipada implements Closeable {
+
+    private static final String PREFIXO_SEGMENTO = "votos-";
+    private static final String EXTENSAO_SEGMENTO = ".wal";
+    private static final String SEPARADOR = "\t";
+
+    private final Path diretorio;
+    private final long tamanhoMaximoSegmento;
+    private final int tamanhoMaximoGrupo;
+
+    private final BlockingQueue<Registro> fila = new LinkedBlockingQueue<>();
+    private final Map<Long, Segmento> segmentos = new ConcurrentHashMap<>();
+    private final Thread escritor;
+    private volatile boolean ativo = true;
+
+    private FileChannel canal;
+    private Segmento segmentoAtual;
+
+    public LogEscritaAntecipada(Path diretorio, long tamanhoMaximoSegmento, int tamanhoMaximoGrupo)
+            throws IOException {
+        this.diretorio = Files.createDirectories(diretorio);
+        this.tamanhoMaximoSegmento = tamanhoMaximoSegmento;
+        this.tamanhoMaximoGrupo = tamanhoMaximoGrupo;
+        this.escritor = new Thread(this::gravarGrupos, "wal-votos");
+        this.escritor.setDaemon(true);
+    }
+
+    /**
+     * Lê os votos de todos os segmentos existentes, em ordem, e inicia a gravação em um novo segmento. Os
+     * segmentos lidos continuam no disco até que os votos sejam confirmados com {@link #confirmarGravacao}.
+     * Uma linha incompleta no final de um segmento nunca foi confirmada e é ignorada.
+     */
+    public synchronized List<VotoRegistrado> recuperar() throws IOException {
+        List<Path> arquivos;
+        try (Stream<Path> listagem = Files.list(diretorio)) {
+            arquivos = listagem
+                    .filter(arquivo -> arquivo.getFileName().toString().startsWith(PREFIXO_SEGMENTO))
+                    .sorted((a, b) -> Long.compare(numeroSegmento(a), numeroSegmento(b)))
+                    .collect(Collectors.toList());
+        }
+
+        List<VotoRegistrado> votos = new ArrayList<>();
+        long ultimoSegmento = 0;
+        for (Path arquivo : arquivos) {
+            long numero = numeroSegmento(arquivo);
+            Segmento segmento = new Segmento(numero, arquivo);
+            try (BufferedReader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+                String linha;
+                while ((linha = leitor.readLine()) != null) {
+                    Voto voto = lerLinha(linha);
+                    if (voto != null) {
+                        votos.add(new VotoRegistrado(voto, numero));
+                        segmento.registrados.incrementAndGet();
+                    }
+                }
+            }
+            segmento.fechado = true;
+            segmentos.put(numero, segmento);
+            apagarSeConcluido(segmento);
+            ultimoSegmento = Math.max(ultimoSegmento, numero);
+        }
+
+        abrirSegmento(ultimoSegmento + 1);
+        escritor.start();
+        log.info("Log de votos recuperado: {} votos em {} segmentos", votos.size(), arquivos.size());
+        return votos;
+    }
+
+    /**
+     * Anexa o voto ao log.
+     *
+     * @return o número do segmento em que o voto foi gravado, concluído somente após o fsync.
+     */
+    public CompletableFuture<Long> anexar(Voto voto) {
+        CompletableFuture<Long> gravado = new CompletableFuture<>();
+        if (!ativo) {
+            gravado.completeExceptionally(new IOException("Log de votos encerrado"));
+            return gravado;
+        }
+        fila.add(new Registro(voto, gravado));
+        return gravado;
+    }
+
+    /**
+     * Informa que um voto do segmento já está gravado no banco.
+     */
+    public void confirmarGravacao(long numeroSegmento) {
+        Segmento segmento = segmentos.get(numeroSegmento);
+        if (segmento != null) {
+            segmento.confirmados.incrementAndGet();
+            apagarSeConcluido(segmento);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        ativo = false;
+        try {
+            escritor.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (canal != null) {
+                canal.close();
+            }
+        }
+    }
+
+    private void gravarGrupos() {
+        List<Registro> grupo = new ArrayList<>(tamanhoMaximoGrupo);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Registro primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                grupo.add(primeiro);
+                fila.drainTo(grupo, tamanhoMaximoGrupo - 1);
+                gravarGrupo(grupo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                grupo.clear();
+            }
+        }
+    }
+
+    private synchronized void gravarGrupo(List<Registro> grupo) {
+        try {
+            if (segmentoAtual.tamanho >= tamanhoMaximoSegmento) {
+                abrirSegmento(segmentoAtual.numero + 1);
+            }
+        } catch (IOException e) {
+            log.error("Erro ao abrir um novo segmento do log de votos", e);
+            grupo.forEach(registro -> registro.gravado.completeExceptionally(e));
+            return;
+        }
+        long inicio = segmentoAtual.tamanho;
+        try {
+            StringBuilder linhas = new StringBuilder(grupo.size() * 64);
+            grupo.forEach(registro -> escreverLinha(registro.voto, linhas));
+            ByteBuffer conteudo = ByteBuffer.wrap(linhas.toString().getBytes(StandardCharsets.UTF_8));
+            while (conteudo.hasRemaining()) {
+                segmentoAtual.tamanho += canal.write(conteudo);
+            }
+            canal.force(false);
+            segmentoAtual.registrados.addAndGet(grupo.size());
+            long numero = segmentoAtual.numero;
+            grupo.forEach(registro -> registro.gravado.complete(numero));
+        } catch (IOException e) {
+            log.error("Erro ao gravar {} votos no log", grupo.size(), e);
+            descartarGrupo(inicio);
+            grupo.forEach(registro -> registro.gravado.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Remove do segmento as linhas de um grupo que falhou. Os votos do grupo são recusados ao cliente e não podem
+     * ser recuperados depois de um reinício, mesmo que o write tenha chegado ao disco antes da falha do fsync.
+     */
+    private void descartarGrupo(long inicio) {
+        try {
+            canal.truncate(inicio);
+            canal.force(false);
+            segmentoAtual.tamanho = inicio;
+        } catch (IOException e) {
+            log.error("Não foi possível descartar os votos recusados do segmento {}; o log de votos foi encerrado",
+                    segmentoAtual.arquivo, e);
+            ativo = false;
+        }
+    }
+
+    private void abrirSegmento(long numero) throws IOException {
+        if (segmentoAtual != null) {
+            canal.close();
+            segmentoAtual.fechado = true;
+            apagarSeConcluido(segmentoAtual);
+        }
+        Path arquivo = diretorio.resolve(PREFIXO_SEGMENTO + numero + EXTENSAO_SEGMENTO);
+        canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        segmentoAtual = new Segmento(numero, arquivo);
+        segmentoAtual.tamanho = canal.size();
+        segmentos.put(numero, segmentoAtual);
+    }
+
+    private void apagarSeConcluido(Segmento segmento) {
+        if (segmento.fechado && segmento.confirmados.get() >= segmento.registrados.get()
+                && segmentos.remove(segmento.numero, segmento)) {
+            try {
+                Files.deleteIfExists(segmento.arquivo);
+            } catch (IOException e) {
+                log.warn("Não foi possível apagar o segmento {} do log de votos", segmento.arquivo, e);
+            }
+        }
+    }
+
+    private static void escreverLinha(Voto voto, StringBuilder linhas) {
+        linhas.append(voto.getId()).append(SEPARADOR)
+                .append(voto.getIdSessao()).append(SEPARADOR)
+                .append(voto.getCpfAssociado()).append(SEPARADOR)
+                .append(voto.getVoto() ? '1' : '0').append(SEPARADOR)
+                .append(voto.getDataRegistro() == null ? "" : voto.getDataRegistro().toString()).append('\n');
+    }
+
+    /**
+     * Aceita também as linhas sem a data de registro, gravadas antes das séries de votos.
+     */
+    private static Voto lerLinha(String linha) {
+        String[] campos = linha.split(SEPARADOR, -1);
+        if (campos.length < 4 || campos.length > 5 || campos[3].length() != 1) {
+            return null;
+        }
+        LocalDateTime dataRegistro = null;
+        if (campos.length == 5 && !campos[4].isEmpty()) {
+            try {
+                dataRegistro = LocalDateTime.parse(campos[4]);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        long cpfCompacto;
+        try {
+            cpfCompacto = Cpf.compactar(campos[2]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return Voto.builder()
+                .id(campos[0])
+                .idSessao(campos[1])
+                .cpfAssociado(campos[2])
+                .cpfCompacto(cpfCompacto)
+                .voto(campos[3].charAt(0) == '1')
+                .dataRegistro(dataRegistro)
+                .build();
+    }
+
+    private static long numeroSegmento(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO_SEGMENTO.length(), nome.length() - EXTENSAO_SEGMENTO.length()));
+    }
+
+    private static class Registro {
+        private final Voto voto;
+        private final CompletableFuture<Long> gravado;
+
+        private Registro(Voto voto, CompletableFuture<Long> gravado) {
+            this.voto = voto;
+            this.gravado = gravado;
+        }
+    }
+
+    private static class Segmento {
+        private final long numero;
+        private final Path arquivo;
+        private final AtomicLong registrados = new AtomicLong();
+        private final AtomicLong confirmados = new AtomicLong();
+        private volatile boolean fechado;
+        private long tamanho;
+
+        private Segmento(long numero, Path arquivo) {
+            this.numero = numero;
+            this.arquivo = arquivo;
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package br.com.votingapi.infrastructure.persistence.wal;
+
+import br.com.votingapi.domain.model.Voto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Voto confirmado no log, com o número do segmento onde está gravado.
+ */
+@Getter
+@AllArgsConstructor
+public class VotoRegistrado {
+
+    private final Voto voto;
+
+    private final long segmento;
+
+}
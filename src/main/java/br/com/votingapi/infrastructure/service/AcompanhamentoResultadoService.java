@@ -0,0 +1,126 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.RegistroVotosService;
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.Pauta;
+import br.com.votingapi.infrastructure.configuration.PropriedadesVotacao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.MetadadosSessao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResumoVotacao;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Acompanhamento do resultado parcial de uma sessão. Todos os acompanhamentos de uma sessão compartilham a mesma
+ * consulta aos contadores, feita a cada {@code votacao.resultado.acompanhamento.intervalo-ms}. Um resultado só é
+ * enviado quando mudou; o último enviado é repassado a quem começa a acompanhar. Ao encerrar a sessão é enviado o
+ * resultado final.
+ */
+@Service
+public class AcompanhamentoResultadoService {
+
+    private final CacheMetadadosSessao cacheMetadadosSessao;
+    private final CachePautas cachePautas;
+    private final ContagemVotosRepository contagemVotosRepository;
+    private final ContagemVotosLegados contagemVotosLegados;
+    private final RegistroVotosService registroVotosService;
+    private final Duration intervalo;
+    private final Map<String, Flux<ResumoVotacao>> acompanhamentos = new ConcurrentHashMap<>();
+
+    public AcompanhamentoResultadoService(CacheMetadadosSessao cacheMetadadosSessao,
+                                          CachePautas cachePautas,
+                                          ContagemVotosRepository contagemVotosRepository,
+                                          ContagemVotosLegados contagemVotosLegados,
+                                          RegistroVotosService registroVotosService,
+                                          PropriedadesVotacao propriedades) {
+        this.cacheMetadadosSessao = cacheMetadadosSessao;
+        this.cachePautas = cachePautas;
+        this.contagemVotosRepository = contagemVotosRepository;
+        this.contagemVotosLegados = contagemVotosLegados;
+        this.registroVotosService = registroVotosService;
+        this.intervalo = Duration.ofMillis(propriedades.getResultado().getAcompanhamento().getIntervaloMs());
+    }
+
+    public Flux<ResumoVotacao> acompanhar(String idSessao) {
+        return acompanhamentos.computeIfAbsent(idSessao, this::criarAcompanhamento);
+    }
+
+    /**
+     * A pauta, que não muda durante o acompanhamento, é lida uma única vez. Os votos da lista da sessão são
+     * contados a cada apuração, porque a migração os vincula à sessão e os leva para o contador; quando a lista
+     * não tem mais votos a contar, a contagem deixa de ser consultada, já que a lista não recebe novos votos.
+     */
+    private Flux<ResumoVotacao> criarAcompanhamento(String idSessao) {
+        AtomicBoolean semVotosLegados = new AtomicBoolean();
+        return cacheMetadadosSessao.buscar(idSessao)
+                .switchIfEmpty(Mono.error(
+                        new EmptyResultDataAccessException("Sessão de Votação não encontrada.", 1)))
+                .flatMap(sessaoVotacao -> Mono.justOrEmpty(sessaoVotacao.getIdPauta())
+                        .flatMap(cachePautas::buscar)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .map(pauta -> Tuples.of(sessaoVotacao, pauta.map(Pauta::getAssunto))))
+                .flatMapMany(sessaoVotacao -> Flux
+                        .interval(Duration.ZERO, intervalo)
+                        .onBackpressureDrop()
+                        .concatMap(tick -> apurarParcial(sessaoVotacao.getT1(),
+                                sessaoVotacao.getT2().orElse(null), semVotosLegados), 1)
+                        .distinctUntilChanged()
+                        .takeUntil(ResumoVotacao::getEncerrada))
+                .doFinally(sinal -> acompanhamentos.remove(idSessao))
+                .replay(1)
+                .refCount();
+    }
+
+    /**
+     * Soma os contadores da sessão, os votos confirmados que ainda não chegaram aos contadores e os votos da
+     * lista da sessão, que só existe para os votos registrados antes dos contadores.
+     */
+    private Mono<ResumoVotacao> apurarParcial(MetadadosSessao sessaoVotacao, String assunto,
+                                              AtomicBoolean semVotosLegados) {
+        String idSessao = sessaoVotacao.getId();
+        return Mono.zip(
+                cacheMetadadosSessao.buscar(idSessao)
+                        .map(MetadadosSessao::getDataFim)
+                        .defaultIfEmpty(sessaoVotacao.getDataFim()),
+                contagemVotosRepository.findById(idSessao)
+                        .defaultIfEmpty(new ContagemVotos(idSessao, 0, 0)),
+                registroVotosService.contagemPendente(idSessao)
+                        .defaultIfEmpty(new ContagemVotos(idSessao, 0, 0)),
+                contarVotosLegados(idSessao, semVotosLegados))
+                .map(consulta -> {
+                    ContagemVotos contagem = new ContagemVotos(idSessao, 0, 0);
+                    contagem.somar(consulta.getT2());
+                    contagem.somar(consulta.getT3());
+                    contagem.somar(consulta.getT4());
+                    ResumoVotacao resumoVotacao = ResumoVotacao.de(assunto, contagem);
+                    resumoVotacao.setEncerrada(LocalDateTime.now().isAfter(consulta.getT1()));
+                    return resumoVotacao;
+                });
+    }
+
+    private Mono<ContagemVotos> contarVotosLegados(String idSessao, AtomicBoolean semVotosLegados) {
+        ContagemVotos nenhumVoto = new ContagemVotos(idSessao, 0, 0);
+        if (semVotosLegados.get()) {
+            return Mono.just(nenhumVoto);
+        }
+        return contagemVotosLegados.contar(List.of(idSessao))
+                .map(legados -> {
+                    ContagemVotos contagemLegado = legados.get(idSessao);
+                    semVotosLegados.compareAndSet(false, contagemLegado == null);
+                    return contagemLegado != null ? contagemLegado : nenhumVoto;
+                });
+    }
+
+}
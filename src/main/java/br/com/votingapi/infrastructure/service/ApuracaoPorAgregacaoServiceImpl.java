@@ -0,0 +1,82 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.ApuracaoVotosService;
+import br.com.votingapi.application.RegistroVotosService;
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.EstrategiaApuracao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Conta os votos no banco, com uma agregação sobre os votos da sessão e outra sobre os votos da lista da sessão,
+ * sem usar os contadores e sem ler os votos para a memória. Serve para sessões sem contadores ou com contadores
+ * suspeitos.
+ * <p>
+ * Os votos confirmados ainda não gravados no banco são somados à contagem. Enquanto um lote de votos está sendo
+ * gravado, os votos do lote podem ser contados duas vezes. A contagem só é exata quando não há gravações
+ * pendentes da sessão, o que o resultado definitivo aguarda ({@code votacao.encerramento.atraso-ms} depois do
+ * término).
+ */
+@Service
+public class ApuracaoPorAgregacaoServiceImpl implements ApuracaoVotosService {
+
+    private final SessaoVotacaoRepository sessaoVotacaoRepository;
+    private final VotoRepository votoRepository;
+    private final RegistroVotosService registroVotosService;
+    private final ContagemVotosLegados contagemVotosLegados;
+
+    public ApuracaoPorAgregacaoServiceImpl(SessaoVotacaoRepository sessaoVotacaoRepository,
+                                           VotoRepository votoRepository,
+                                           RegistroVotosService registroVotosService,
+                                           ContagemVotosLegados contagemVotosLegados) {
+        this.sessaoVotacaoRepository = sessaoVotacaoRepository;
+        this.votoRepository = votoRepository;
+        this.registroVotosService = registroVotosService;
+        this.contagemVotosLegados = contagemVotosLegados;
+    }
+
+    @Override
+    public EstrategiaApuracao getEstrategia() {
+        return EstrategiaApuracao.AGREGACAO;
+    }
+
+    @Override
+    public Mono<ContagemVotos> apurar(String idSessao) {
+        return sessaoVotacaoRepository.buscarMetadados(idSessao)
+                .flatMap(sessaoVotacao -> Mono.zip(
+                        votoRepository.contarVotos(idSessao),
+                        registroVotosService.contagemPendente(idSessao)
+                                .defaultIfEmpty(new ContagemVotos(idSessao, 0, 0)),
+                        contagemVotosLegados.contar(List.of(idSessao)))
+                        .map(contagens -> {
+                            ContagemVotos contagem = new ContagemVotos(idSessao, 0, 0);
+                            contagem.somar(contagens.getT1());
+                            contagem.somar(contagens.getT2());
+                            contagem.somar(contagens.getT3().get(idSessao));
+                            return contagem;
+                        }));
+    }
+
+    @Override
+    public Flux<ContagemVotos> apurar(Collection<String> idsSessoes) {
+        return Mono.zip(votoRepository.contarVotosPorSessao(idsSessoes).collectMap(ContagemVotos::getId),
+                contagemVotosLegados.contar(idsSessoes))
+                .flatMapMany(contagens -> Flux.fromIterable(idsSessoes)
+                        .flatMap(idSessao -> registroVotosService.contagemPendente(idSessao)
+                                .defaultIfEmpty(new ContagemVotos(idSessao, 0, 0))
+                                .map(pendente -> {
+                                    ContagemVotos contagem = new ContagemVotos(idSessao, pendente.getPros(),
+                                            pendente.getContra());
+                                    contagem.somar(contagens.getT1().get(idSessao));
+                                    contagem.somar(contagens.getT2().get(idSessao));
+                                    return contagem;
+                                })));
+    }
+
+}
@@ -0,0 +1,107 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.ApuracaoVotosService;
+import br.com.votingapi.application.RegistroVotosService;
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.EstrategiaApuracao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Soma os contadores da sessão, os votos confirmados que ainda não chegaram aos contadores e os votos da lista
+ * da sessão, que só existe para os votos registrados antes dos contadores. Os votos da lista são contados pelo
+ * {@link ContagemVotosLegados}, sem ler a sessão com a pauta e os votos.
+ * <p>
+ * Os contadores marcados como divergentes, porque um incremento falhou depois de o voto ser gravado, são
+ * substituídos pela contagem dos votos gravados com o ID da sessão, feita com uma agregação.
+ */
+@Service
+public class ApuracaoPorContadoresServiceImpl implements ApuracaoVotosService {
+
+    private final SessaoVotacaoRepository sessaoVotacaoRepository;
+    private final ContagemVotosRepository contagemVotosRepository;
+    private final VotoRepository votoRepository;
+    private final RegistroVotosService registroVotosService;
+    private final ContagemVotosLegados contagemVotosLegados;
+
+    public ApuracaoPorContadoresServiceImpl(SessaoVotacaoRepository sessaoVotacaoRepository,
+                                            ContagemVotosRepository contagemVotosRepository,
+                                            VotoRepository votoRepository,
+                                            RegistroVotosService registroVotosService,
+                                            ContagemVotosLegados contagemVotosLegados) {
+        this.sessaoVotacaoRepository = sessaoVotacaoRepository;
+        this.contagemVotosRepository = contagemVotosRepository;
+        this.votoRepository = votoRepository;
+        this.registroVotosService = registroVotosService;
+        this.contagemVotosLegados = contagemVotosLegados;
+    }
+
+    @Override
+    public EstrategiaApuracao getEstrategia() {
+        return EstrategiaApuracao.CONTADORES;
+    }
+
+    @Override
+    public Mono<ContagemVotos> apurar(String idSessao) {
+        return sessaoVotacaoRepository.buscarMetadados(idSessao)
+                .flatMap(sessaoVotacao -> Mono.zip(
+                        contagemVotosRepository.findById(idSessao)
+                                .flatMap(contagem -> contagem.isDivergente()
+                                        ? votoRepository.contarVotos(idSessao) : Mono.just(contagem))
+                                .defaultIfEmpty(new ContagemVotos(idSessao, 0, 0)),
+                        registroVotosService.contagemPendente(idSessao)
+                                .defaultIfEmpty(new ContagemVotos(idSessao, 0, 0)),
+                        contagemVotosLegados.contar(List.of(idSessao)))
+                        .map(contagens -> {
+                            ContagemVotos contagem = new ContagemVotos(idSessao, 0, 0);
+                            contagem.somar(contagens.getT1());
+                            contagem.somar(contagens.getT2());
+                            contagem.somar(contagens.getT3().get(idSessao));
+                            return contagem;
+                        }));
+    }
+
+    @Override
+    public Flux<ContagemVotos> apurar(Collection<String> idsSessoes) {
+        return Mono.zip(contarPorContadores(idsSessoes), contagemVotosLegados.contar(idsSessoes))
+                .flatMapMany(contagens -> Flux.fromIterable(idsSessoes)
+                        .flatMap(idSessao -> registroVotosService.contagemPendente(idSessao)
+                                .defaultIfEmpty(new ContagemVotos(idSessao, 0, 0))
+                                .map(pendente -> {
+                                    ContagemVotos contagem = new ContagemVotos(idSessao, pendente.getPros(),
+                                            pendente.getContra());
+                                    contagem.somar(contagens.getT1().get(idSessao));
+                                    contagem.somar(contagens.getT2().get(idSessao));
+                                    return contagem;
+                                })));
+    }
+
+    private Mono<Map<String, ContagemVotos>> contarPorContadores(Collection<String> idsSessoes) {
+        return contagemVotosRepository.findAllById(idsSessoes)
+                .collectMap(ContagemVotos::getId)
+                .flatMap(contagens -> {
+                    List<String> divergentes = contagens.values().stream()
+                            .filter(ContagemVotos::isDivergente)
+                            .map(ContagemVotos::getId)
+                            .collect(Collectors.toList());
+                    return divergentes.isEmpty() ? Mono.just(contagens)
+                            : votoRepository.contarVotosPorSessao(divergentes)
+                            .collectMap(ContagemVotos::getId)
+                            .map(recontadas -> {
+                                divergentes.forEach(idSessao -> contagens.put(idSessao,
+                                        recontadas.getOrDefault(idSessao, new ContagemVotos(idSessao, 0, 0))));
+                                return contagens;
+                            });
+                });
+    }
+
+}
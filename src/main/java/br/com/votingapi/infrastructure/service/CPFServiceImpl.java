@@ -3,41 +3,134 @@ package br.com.votingapi.infrastructure.service;
 import br.com.votingapi.application.CPFService;
 import br.com.votingapi.domain.model.AssociateVotePermission;
 import br.com.votingapi.domain.model.CpfResponse;
+import br.com.votingapi.domain.model.VerificacaoCpfPendente;
 import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VerificacaoCpfPendenteRepository;
 import br.com.votingapi.infrastructure.service.exception.AssociadoSemPermissaoParaVotarException;
+import br.com.votingapi.infrastructure.service.exception.ServicoCpfIndisponivelException;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Service responsável por consumir a API de CPF e verificar se é válido para
  * votar.
+ * <p>
+ * As respostas ficam em cache por CPF, com validades diferentes para quem pode e para quem não pode votar.
+ * Consultas simultâneas ao mesmo CPF aguardam a mesma requisição à API. O comportamento quando a API está
+ * indisponível é definido pela propriedade {@code cpf.api.indisponivel}.
  *
  * @author rafael.rutsatz
  */
 @Component
 public class CPFServiceImpl implements CPFService {
 
-    private final String cpfApiUrl;
+    private final ClienteApiCpf clienteApiCpf;
+    private final VerificacaoCpfPendenteRepository verificacaoCpfPendenteRepository;
+    private final boolean aceitarComApiIndisponivel;
+    private final AsyncCache<String, CpfResponse> cache;
+    private final Counter votosRecusadosApiIndisponivel;
+    private final Counter votosAceitosApiIndisponivel;
 
-    public CPFServiceImpl(@Value("${cpf-api-url}") String cpfApiUrl) {
-        this.cpfApiUrl = cpfApiUrl;
+    public CPFServiceImpl(ClienteApiCpf clienteApiCpf,
+                          VerificacaoCpfPendenteRepository verificacaoCpfPendenteRepository,
+                          @Value("${cpf.api.indisponivel:rejeitar}") String comportamentoApiIndisponivel,
+                          @Value("${cpf.cache.tamanho-maximo:100000}") long tamanhoMaximo,
+                          @Value("${cpf.cache.ttl-pode-votar-ms:600000}") long ttlPodeVotar,
+                          @Value("${cpf.cache.ttl-nao-pode-votar-ms:60000}") long ttlNaoPodeVotar,
+                          MeterRegistry meterRegistry) {
+        this.clienteApiCpf = clienteApiCpf;
+        this.verificacaoCpfPendenteRepository = verificacaoCpfPendenteRepository;
+        this.aceitarComApiIndisponivel = "aceitar".equals(comportamentoApiIndisponivel);
+        this.votosRecusadosApiIndisponivel = Counter.builder("cpf.api.indisponivel")
+                .tag("acao", "recusado")
+                .description("Votos recusados porque a API de CPF estava indisponível")
+                .register(meterRegistry);
+        this.votosAceitosApiIndisponivel = Counter.builder("cpf.api.indisponivel")
+                .tag("acao", "aceito")
+                .description("Votos aceitos sem consultar a API de CPF, para verificação posterior")
+                .register(meterRegistry);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ValidadePorPermissao(ttlPodeVotar, ttlNaoPodeVotar))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "cpf");
     }
 
     @Override
     public Mono<Voto> verificarSeCPFPodeVotar(Voto voto) {
-        return WebClient.create().get().uri(cpfApiUrl, voto.getCpfAssociado())
-                .retrieve()
-                .bodyToMono(CpfResponse.class)
+        return consultar(voto.getCpfAssociado())
                 .filter(this::podeVotar)
                 .map(cpfResponse -> voto)
-                .switchIfEmpty(Mono.error(new AssociadoSemPermissaoParaVotarException()));
+                .switchIfEmpty(Mono.error(new AssociadoSemPermissaoParaVotarException()))
+                .onErrorResume(ClienteApiCpf::indisponivel, erro -> tratarApiIndisponivel(voto, erro));
     }
 
     @Override
     public Boolean podeVotar(CpfResponse cpfResponse) {
         return cpfResponse.getAssociateVotePermission() == AssociateVotePermission.ABLE_TO_VOTE;
     }
-}
 
+    /**
+     * Respostas vazias e erros não ficam no cache: a próxima consulta ao CPF chama a API novamente.
+     */
+    private Mono<CpfResponse> consultar(String cpf) {
+        return Mono.defer(() -> Mono.fromFuture(cache.get(cpf, (chave, executor) -> buscarNaApi(chave).toFuture())));
+    }
+
+    private Mono<CpfResponse> buscarNaApi(String cpf) {
+        return clienteApiCpf.consultar(cpf);
+    }
+
+    /**
+     * Com o circuito aberto ou o limite de consultas atingido, recusa o voto ou, com
+     * {@code cpf.api.indisponivel=aceitar}, aceita o voto e registra o CPF para ser verificado depois.
+     */
+    private Mono<Voto> tratarApiIndisponivel(Voto voto, Throwable erro) {
+        if (!aceitarComApiIndisponivel) {
+            votosRecusadosApiIndisponivel.increment();
+            return Mono.error(new ServicoCpfIndisponivelException(erro));
+        }
+        votosAceitosApiIndisponivel.increment();
+        return verificacaoCpfPendenteRepository.save(new VerificacaoCpfPendente(null, voto.getIdSessao(),
+                voto.getCpfAssociado(), LocalDateTime.now()))
+                .thenReturn(voto);
+    }
+
+    private static class ValidadePorPermissao implements Expiry<String, CpfResponse> {
+
+        private final long ttlPodeVotar;
+        private final long ttlNaoPodeVotar;
+
+        ValidadePorPermissao(long ttlPodeVotarMs, long ttlNaoPodeVotarMs) {
+            this.ttlPodeVotar = TimeUnit.MILLISECONDS.toNanos(ttlPodeVotarMs);
+            this.ttlNaoPodeVotar = TimeUnit.MILLISECONDS.toNanos(ttlNaoPodeVotarMs);
+        }
+
+        @Override
+        public long expireAfterCreate(String cpf, CpfResponse cpfResponse, long currentTime) {
+            return cpfResponse.getAssociateVotePermission() == AssociateVotePermission.ABLE_TO_VOTE
+                    ? ttlPodeVotar : ttlNaoPodeVotar;
+        }
+
+        @Override
+        public long expireAfterUpdate(String cpf, CpfResponse cpfResponse, long currentTime, long currentDuration) {
+            return expireAfterCreate(cpf, cpfResponse, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String cpf, CpfResponse cpfResponse, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.domain.model.SessaoVotacao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.MetadadosSessao;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Mantém em memória as datas das sessões, para que o voto seja validado sem ler a sessão do banco. A sessão é
+ * colocada no cache ao ser gravada e no primeiro acesso, e removida quando é excluída. O cache é limitado por
+ * quantidade e as sessões sem acesso expiram, para não acumular sessões antigas.
+ */
+@Component
+public class CacheMetadadosSessao extends AbstractMongoEventListener<SessaoVotacao> {
+
+    private final SessaoVotacaoRepository sessaoVotacaoRepository;
+    private final AsyncCache<String, MetadadosSessao> cache;
+
+    public CacheMetadadosSessao(SessaoVotacaoRepository sessaoVotacaoRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${votacao.sessoes.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                                @Value("${votacao.sessoes.cache.expiracao-ms:3600000}") long expiracaoMs) {
+        this.sessaoVotacaoRepository = sessaoVotacaoRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(Duration.ofMillis(expiracaoMs))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "sessoes");
+    }
+
+    /**
+     * Sessões inexistentes não ficam no cache.
+     */
+    public Mono<MetadadosSessao> buscar(String idSessao) {
+        return Mono.defer(() -> Mono.fromFuture(cache.get(idSessao,
+                (id, executor) -> sessaoVotacaoRepository.buscarMetadados(id).toFuture())));
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<SessaoVotacao> event) {
+        SessaoVotacao sessaoVotacao = event.getSource();
+        cache.put(sessaoVotacao.getId(), CompletableFuture.completedFuture(MetadadosSessao.de(sessaoVotacao)));
+    }
+
+    /**
+     * A exclusão informa somente o filtro usado: uma sessão excluída pelo ID é removida do cache, qualquer outra
+     * exclusão limpa o cache.
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<SessaoVotacao> event) {
+        Document filtro = event.getSource();
+        Object id = filtro.get("_id");
+        if (id != null && filtro.size() == 1 && !(id instanceof Document)) {
+            cache.synchronous().invalidate(id.toString());
+        } else {
+            cache.synchronous().invalidateAll();
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.domain.model.Pauta;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.PautaRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Mantém em memória as pautas, que praticamente não mudam depois de criadas, para que os resultados das sessões
+ * sejam montados sem ler a pauta do banco a cada sessão. As pautas que faltam no cache são lidas com uma única
+ * consulta ($in), independente da quantidade. A pauta é colocada no cache ao ser gravada e removida quando é
+ * excluída.
+ */
+@Component
+public class CachePautas extends AbstractMongoEventListener<Pauta> {
+
+    private final PautaRepository pautaRepository;
+    private final AsyncCache<String, Pauta> cache;
+
+    public CachePautas(PautaRepository pautaRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${votacao.pautas.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                       @Value("${votacao.pautas.cache.expiracao-ms:3600000}") long expiracaoMs) {
+        this.pautaRepository = pautaRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(Duration.ofMillis(expiracaoMs))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "pautas");
+    }
+
+    /**
+     * Pautas inexistentes não ficam no cache.
+     */
+    public Mono<Pauta> buscar(String idPauta) {
+        return Mono.defer(() -> Mono.fromFuture(cache.get(idPauta,
+                (id, executor) -> pautaRepository.findById(id).toFuture())));
+    }
+
+    /**
+     * @return as pautas encontradas, pelo ID. As pautas inexistentes não aparecem.
+     */
+    public Mono<Map<String, Pauta>> buscar(Collection<String> idsPautas) {
+        return Mono.defer(() -> Mono.fromFuture(cache.getAll(idsPautas,
+                (ids, executor) -> pautaRepository.findAllById(ids)
+                        .collectMap(Pauta::getId)
+                        .toFuture())));
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Pauta> event) {
+        Pauta pauta = event.getSource();
+        cache.put(pauta.getId(), CompletableFuture.completedFuture(pauta));
+    }
+
+    /**
+     * A exclusão informa somente o filtro usado: uma pauta excluída pelo ID é removida do cache, qualquer outra
+     * exclusão limpa o cache.
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Pauta> event) {
+        Document filtro = event.getSource();
+        Object id = filtro.get("_id");
+        if (id != null && filtro.size() == 1 && !(id instanceof Document)) {
+            cache.synchronous().invalidate(id.toString());
+        } else {
+            cache.synchronous().invalidateAll();
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.domain.model.ResultadoVotacao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResumoVotacao;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Resultados das sessões encerradas mantidos em memória. O resultado gravado só é excluído quando a nova
+ * verificação de um CPF remove um voto da sessão: a exclusão retira o resultado do cache do nó que a fez, e os
+ * demais nós deixam de usá-lo em até {@code votacao.resultado.cache.expiracao-ms} depois de carregá-lo.
+ */
+@Component
+public class CacheResultados extends AbstractMongoEventListener<ResultadoVotacao> {
+
+    private final AsyncCache<String, ResumoVotacao> cache;
+
+    public CacheResultados(MeterRegistry meterRegistry,
+                           @Value("${votacao.resultado.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                           @Value("${votacao.resultado.cache.expiracao-ms:60000}") long expiracaoMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofMillis(expiracaoMs))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "resultados");
+    }
+
+    /**
+     * Erros e resultados vazios não ficam no cache.
+     */
+    public Mono<ResumoVotacao> buscar(String idSessao, Function<String, Mono<ResumoVotacao>> carregar) {
+        return Mono.defer(() -> Mono.fromFuture(cache.get(idSessao,
+                (id, executor) -> carregar.apply(id).toFuture())));
+    }
+
+    /**
+     * Resultados já carregados das sessões informadas, sem consultar o banco.
+     */
+    public Map<String, ResumoVotacao> buscarCarregados(Collection<String> idsSessoes) {
+        return cache.synchronous().getAllPresent(idsSessoes);
+    }
+
+    public void adicionar(String idSessao, ResumoVotacao resumoVotacao) {
+        cache.put(idSessao, CompletableFuture.completedFuture(resumoVotacao));
+    }
+
+    public void remover(String idSessao) {
+        cache.synchronous().invalidate(idSessao);
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<ResultadoVotacao> event) {
+        cache.synchronous().invalidateAll();
+    }
+
+}
@@ -0,0 +1,64 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.domain.model.CpfResponse;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Consulta a API de CPF pelo cliente configurado em
+ * {@link br.com.votingapi.infrastructure.configuration.CpfApiConfig}, dentro do bulkhead e do circuit breaker.
+ */
+@Component
+public class ClienteApiCpf {
+
+    private final String cpfApiUrl;
+    private final WebClient cpfApiWebClient;
+    private final Bulkhead cpfApiBulkhead;
+    private final CircuitBreaker cpfApiCircuitBreaker;
+    private final HedgeRequisicoes cpfApiHedge;
+
+    public ClienteApiCpf(@Value("${cpf-api-url}") String cpfApiUrl,
+                         WebClient cpfApiWebClient,
+                         Bulkhead cpfApiBulkhead,
+                         CircuitBreaker cpfApiCircuitBreaker,
+                         HedgeRequisicoes cpfApiHedge) {
+        this.cpfApiUrl = cpfApiUrl;
+        this.cpfApiWebClient = cpfApiWebClient;
+        this.cpfApiBulkhead = cpfApiBulkhead;
+        this.cpfApiCircuitBreaker = cpfApiCircuitBreaker;
+        this.cpfApiHedge = cpfApiHedge;
+    }
+
+    /**
+     * Consultas recusadas pelo bulkhead, que não entram no cálculo do circuit breaker, terminam com
+     * {@link BulkheadFullException}; com o circuito aberto, com {@link CallNotPermittedException}. Uma consulta
+     * repetida pelo hedge passa pelos mesmos limites.
+     */
+    public Mono<CpfResponse> consultar(String cpf) {
+        return cpfApiHedge.executar(() -> requisitar(cpf));
+    }
+
+    private Mono<CpfResponse> requisitar(String cpf) {
+        return cpfApiWebClient.get().uri(cpfApiUrl, cpf)
+                .retrieve()
+                .bodyToMono(CpfResponse.class)
+                .transformDeferred(CircuitBreakerOperator.of(cpfApiCircuitBreaker))
+                .transformDeferred(BulkheadOperator.of(cpfApiBulkhead));
+    }
+
+    /**
+     * Indica se o erro é uma consulta recusada sem chegar à API.
+     */
+    public static boolean indisponivel(Throwable erro) {
+        return erro instanceof CallNotPermittedException || erro instanceof BulkheadFullException;
+    }
+
+}
@@ -0,0 +1,33 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Conta os votos da lista das sessões, que só existe para os votos registrados antes dos contadores, com uma única
+ * agregação no banco, independente da quantidade de sessões e de votos na lista. Os votos da lista que já têm o ID
+ * da sessão são contados pelos contadores ou pela contagem dos votos da sessão, e ficam de fora.
+ */
+@Component
+public class ContagemVotosLegados {
+
+    private final SessaoVotacaoRepository sessaoVotacaoRepository;
+
+    public ContagemVotosLegados(SessaoVotacaoRepository sessaoVotacaoRepository) {
+        this.sessaoVotacaoRepository = sessaoVotacaoRepository;
+    }
+
+    /**
+     * @return a contagem de cada sessão com votos na lista. Sessões sem votos na lista não aparecem.
+     */
+    public Mono<Map<String, ContagemVotos>> contar(Collection<String> idsSessoes) {
+        return sessaoVotacaoRepository.contarVotosLegados(idsSessoes)
+                .collectMap(ContagemVotos::getId);
+    }
+
+}
@@ -0,0 +1,35 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.domain.model.Voto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Leitura dos CPFs dos votos já gravados para os conjuntos e filtros em memória das sessões.
+ * <p>
+ * Um CPF com formato inválido gravado antes da validação não pode ser compactado. O voto é ignorado, com um aviso,
+ * para que o conjunto da sessão seja montado mesmo assim: o índice único de sessão e CPF continua valendo para ele.
+ */
+@Slf4j
+final class CpfsArmazenados {
+
+    private CpfsArmazenados() {
+    }
+
+    /**
+     * Entrega o CPF compactado do voto ao destino, ou ignora o voto se o CPF gravado for inválido.
+     */
+    static void compactar(Voto voto, LongConsumer destino) {
+        long cpf;
+        try {
+            cpf = voto.compactarCpf();
+        } catch (IllegalArgumentException e) {
+            log.warn("Voto {} da sessão {} ignorado: CPF gravado com formato inválido", voto.getId(),
+                    voto.getIdSessao());
+            return;
+        }
+        destino.accept(cpf);
+    }
+
+}
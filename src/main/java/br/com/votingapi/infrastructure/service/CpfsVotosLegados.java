@@ -0,0 +1,70 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.domain.model.ConjuntoCpfs;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Mantém em memória os CPFs dos votos da lista de cada sessão, que só existe para os votos registrados antes do
+ * índice único de sessão e CPF. Esses votos não têm o ID da sessão e ficam fora do índice, então o voto anterior
+ * do associado na lista precisa ser verificado à parte.
+ * <p>
+ * A lista não recebe novos votos, então os CPFs são lidos uma única vez por sessão: os IDs da lista e depois os
+ * CPFs desses votos, em lotes de {@code votacao.votos-legados.tamanho-lote} IDs. Uma sessão sem votos na lista
+ * fica no cache com um conjunto vazio, sem novas consultas.
+ */
+@Component
+public class CpfsVotosLegados {
+
+    private final SessaoVotacaoRepository sessaoVotacaoRepository;
+    private final VotoRepository votoRepository;
+    private final int tamanhoLote;
+    private final AsyncCache<String, ConjuntoCpfs> cache;
+
+    public CpfsVotosLegados(SessaoVotacaoRepository sessaoVotacaoRepository,
+                            VotoRepository votoRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${votacao.votos-legados.tamanho-lote:1000}") int tamanhoLote,
+                            @Value("${votacao.votos-legados.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                            @Value("${votacao.votos-legados.cache.expiracao-ms:3600000}") long expiracaoMs) {
+        this.sessaoVotacaoRepository = sessaoVotacaoRepository;
+        this.votoRepository = votoRepository;
+        this.tamanhoLote = tamanhoLote;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(Duration.ofMillis(expiracaoMs))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "cpfs-votos-legados");
+    }
+
+    /**
+     * @return se o associado tem voto na lista da sessão. Sessões inexistentes respondem {@code false} e não ficam
+     * no cache.
+     */
+    public Mono<Boolean> associadoJaVotou(String idSessao, long cpf) {
+        return Mono.defer(() -> Mono.fromFuture(cache.get(idSessao, (id, executor) -> carregar(id).toFuture())))
+                .map(cpfs -> cpfs.contem(cpf))
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<ConjuntoCpfs> carregar(String idSessao) {
+        return sessaoVotacaoRepository.buscarIdsVotosLegados(idSessao)
+                .flatMap(idsVotos -> Flux.fromIterable(idsVotos)
+                        .buffer(tamanhoLote)
+                        .concatMap(votoRepository::buscarCpfs)
+                        .collect(() -> new ConjuntoCpfs(idsVotos.size()),
+                                (cpfs, voto) -> CpfsArmazenados.compactar(voto, cpfs::adicionar)));
+    }
+
+}
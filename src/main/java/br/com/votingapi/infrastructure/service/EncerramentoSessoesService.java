@@ -0,0 +1,207 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.SessaoVotacaoService;
+import br.com.votingapi.domain.model.SessaoVotacao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.MetadadosSessao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResumoVotacao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encerra as sessões de votação no término, apurando o resultado final e publicando um
+ * {@link SessaoVotacaoEncerradaEvent}.
+ * <p>
+ * As sessões que terminam dentro da próxima {@code votacao.encerramento.recarga-ms} são lidas do banco e mantidas
+ * em uma fila ordenada pelo término, verificada a cada {@code votacao.encerramento.intervalo-ms} por uma única
+ * thread. A fila guarda só o ID e o término de cada sessão. As sessões criadas neste nó entram na fila sem esperar
+ * a próxima leitura.
+ * <p>
+ * Somente as sessões que terminaram há menos de {@code votacao.encerramento.janela-retroativa-ms} são
+ * carregadas: as sessões mais antigas, encerradas antes deste agendador ou durante uma parada maior que a janela,
+ * não são encerradas na inicialização, e o resultado delas é apurado e gravado na primeira consulta.
+ * <p>
+ * Todos os nós agendam todas as sessões. A apuração é gravada uma única vez, pelo primeiro nó, e a data de
+ * encerramento gravada na sessão garante que somente um nó publique o evento. Uma sessão cuja apuração falhou não
+ * é marcada e volta para a fila na próxima leitura.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "votacao.encerramento.habilitado", havingValue = "true", matchIfMissing = true)
+public class EncerramentoSessoesService extends AbstractMongoEventListener<SessaoVotacao> {
+
+    private final SessaoVotacaoRepository sessaoVotacaoRepository;
+    private final SessaoVotacaoService sessaoVotacaoService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long intervaloMs;
+    private final long recargaMs;
+    private final long atrasoMs;
+    private final Duration janelaRetroativa;
+    private final int encerramentosSimultaneos;
+    private final DelayQueue<Encerramento> fila = new DelayQueue<>();
+    private final Set<String> agendadas = ConcurrentHashMap.newKeySet();
+    private final Counter sessoesEncerradas;
+    private Disposable execucao;
+
+    public EncerramentoSessoesService(SessaoVotacaoRepository sessaoVotacaoRepository,
+                                      SessaoVotacaoService sessaoVotacaoService,
+                                      ApplicationEventPublisher eventPublisher,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${votacao.encerramento.intervalo-ms:1000}") long intervaloMs,
+                                      @Value("${votacao.encerramento.recarga-ms:60000}") long recargaMs,
+                                      @Value("${votacao.encerramento.atraso-ms:1000}") long atrasoMs,
+                                      @Value("${votacao.encerramento.encerramentos-simultaneos:8}")
+                                              int encerramentosSimultaneos,
+                                      @Value("${votacao.encerramento.janela-retroativa-ms:86400000}")
+                                              long janelaRetroativaMs) {
+        this.sessaoVotacaoRepository = sessaoVotacaoRepository;
+        this.sessaoVotacaoService = sessaoVotacaoService;
+        this.eventPublisher = eventPublisher;
+        this.intervaloMs = intervaloMs;
+        this.recargaMs = recargaMs;
+        this.atrasoMs = atrasoMs;
+        this.encerramentosSimultaneos = encerramentosSimultaneos;
+        this.janelaRetroativa = Duration.ofMillis(janelaRetroativaMs);
+        this.sessoesEncerradas = Counter.builder("votacao.encerramento.sessoes")
+                .description("Sessões encerradas por este nó")
+                .register(meterRegistry);
+        Gauge.builder("votacao.encerramento.agendadas", fila, DelayQueue::size)
+                .description("Sessões na fila de encerramento")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        execucao = Disposables.composite(
+                Flux.interval(Duration.ZERO, Duration.ofMillis(recargaMs), Schedulers.single())
+                        .onBackpressureDrop()
+                        .concatMap(tick -> carregar(), 1)
+                        .subscribe(),
+                Flux.interval(Duration.ofMillis(intervaloMs), Schedulers.single())
+                        .onBackpressureDrop()
+                        .concatMap(tick -> encerrarVencidas(), 1)
+                        .subscribe());
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        execucao.dispose();
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<SessaoVotacao> event) {
+        agendar(MetadadosSessao.de(event.getSource()), LocalDateTime.now().plus(Duration.ofMillis(recargaMs)));
+    }
+
+    /**
+     * Coloca na fila as sessões não encerradas que terminaram dentro da janela retroativa ou que terminam antes da
+     * próxima leitura.
+     */
+    public Mono<Void> carregar() {
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime limite = agora.plus(Duration.ofMillis(recargaMs));
+        return sessaoVotacaoRepository.buscarNaoEncerradas(agora.minus(janelaRetroativa), limite)
+                .doOnNext(metadados -> agendar(metadados, limite))
+                .onErrorResume(erro -> {
+                    log.warn("Falha ao carregar as sessões a encerrar", erro);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Encerra as sessões da fila cujo término já passou.
+     */
+    public Mono<Void> encerrarVencidas() {
+        return Flux.defer(() -> {
+            List<Encerramento> vencidas = new ArrayList<>();
+            fila.drainTo(vencidas);
+            return Flux.fromIterable(vencidas);
+        })
+                .flatMap(encerramento -> encerrarSessao(encerramento.idSessao)
+                        .onErrorResume(erro -> {
+                            log.warn("Falha ao encerrar a sessão {}", encerramento.idSessao, erro);
+                            return Mono.empty();
+                        })
+                        .doFinally(sinal -> agendadas.remove(encerramento.idSessao)), encerramentosSimultaneos)
+                .then();
+    }
+
+    /**
+     * Apura o resultado da sessão e a marca como encerrada. Retorna vazio quando a sessão não existe ou já tinha
+     * sido encerrada por outro nó; nesse caso o evento não é publicado. Um resultado ainda provisório, com votos
+     * da sessão aguardando gravação ou CPFs aguardando nova verificação, também não encerra a sessão, que volta para a fila na próxima leitura.
+     */
+    public Mono<ResumoVotacao> encerrarSessao(String idSessao) {
+        return sessaoVotacaoService.apurarResultadoVotacao(idSessao)
+                .filter(resultado -> !Boolean.TRUE.equals(resultado.getProvisorio()))
+                .filterWhen(resultado -> sessaoVotacaoRepository.marcarEncerrada(idSessao, LocalDateTime.now()))
+                .doOnNext(resultado -> {
+                    log.info("Sessão {} encerrada: {}", idSessao, resultado);
+                    sessoesEncerradas.increment();
+                    eventPublisher.publishEvent(new SessaoVotacaoEncerradaEvent(idSessao, resultado));
+                });
+    }
+
+    private void agendar(MetadadosSessao sessaoVotacao, LocalDateTime limite) {
+        if (sessaoVotacao.getDataFim() != null && sessaoVotacao.getDataFim().isBefore(limite)
+                && agendadas.add(sessaoVotacao.getId())) {
+            fila.add(new Encerramento(sessaoVotacao.getId(), sessaoVotacao.getDataFim()
+                    .atZone(ZoneId.systemDefault())
+                    .toInstant()
+                    .toEpochMilli() + atrasoMs));
+        }
+    }
+
+    /**
+     * O atraso sobre o término dá tempo de gravar os votos aceitos no último instante da sessão.
+     */
+    private static final class Encerramento implements Delayed {
+
+        private final String idSessao;
+        private final long instanteMs;
+
+        private Encerramento(String idSessao, long instanteMs) {
+            this.idSessao = idSessao;
+            this.instanteMs = instanteMs;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(instanteMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed outro) {
+            return Long.compare(instanteMs, ((Encerramento) outro).instanteMs);
+        }
+
+    }
+
+}
@@ -0,0 +1,132 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.ExportacaoCsvService;
+import br.com.votingapi.application.SessaoVotacaoService;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.MetadadosSessao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoApuracaoSessao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResumoVotacao;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lê os votos e as sessões com cursores do banco, em lotes de {@code votacao.exportacao.tamanho-lote}, pedindo um
+ * novo lote somente depois que o anterior foi consumido. A memória usada não depende do tamanho da exportação.
+ */
+@Service
+public class ExportacaoCsvServiceImpl implements ExportacaoCsvService {
+
+    private static final String CABECALHO_VOTOS = "id,idSessao,cpfAssociado,voto,dataRegistro\n";
+    private static final String CABECALHO_RESULTADOS =
+            "idSessao,idPauta,dataInicio,dataFim,situacao,assunto,pros,contra,aprovado\n";
+
+    private final VotoRepository votoRepository;
+    private final SessaoVotacaoRepository sessaoVotacaoRepository;
+    private final SessaoVotacaoService sessaoVotacaoService;
+    private final int tamanhoLote;
+
+    public ExportacaoCsvServiceImpl(VotoRepository votoRepository,
+                                    SessaoVotacaoRepository sessaoVotacaoRepository,
+                                    SessaoVotacaoService sessaoVotacaoService,
+                                    @Value("${votacao.exportacao.tamanho-lote:1000}") int tamanhoLote) {
+        this.votoRepository = votoRepository;
+        this.sessaoVotacaoRepository = sessaoVotacaoRepository;
+        this.sessaoVotacaoService = sessaoVotacaoService;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Os votos da lista da sessão, gravados sem o ID da sessão, são lidos pelo ID em lotes; os demais pelo índice
+     * de sessão. Um voto da lista que já recebeu o ID da sessão pela migração aparece nas duas leituras e só é
+     * exportado na primeira.
+     */
+    @Override
+    public Flux<String> exportarVotos(String idSessao) {
+        return Flux.just(CABECALHO_VOTOS)
+                .concatWith(sessaoVotacaoRepository.buscarIdsVotosLegados(idSessao)
+                        .defaultIfEmpty(Collections.emptyList())
+                        .flatMapMany(idsLegados -> {
+                            Set<String> legados = new HashSet<>(idsLegados);
+                            return Flux.fromIterable(idsLegados)
+                                    .buffer(tamanhoLote)
+                                    .concatMap(lote -> votoRepository.findAllById(lote), 1)
+                                    .concatWith(votoRepository.buscarPorSessao(idSessao, tamanhoLote)
+                                            .filter(voto -> !legados.contains(voto.getId())));
+                        })
+                        .limitRate(tamanhoLote)
+                        .map(voto -> linha(voto.getId(), idSessao, voto.getCpfAssociado(), voto.getVoto(),
+                                voto.getDataRegistro())));
+    }
+
+    /**
+     * Os resultados são apurados em lotes, com as mesmas consultas em lote da consulta de resultados de várias
+     * sessões, mas sem gravar os resultados ainda não gravados. As linhas de cada lote saem na ordem de término.
+     */
+    @Override
+    public Flux<String> exportarResultados(LocalDateTime inicio, LocalDateTime fim) {
+        return Flux.just(CABECALHO_RESULTADOS)
+                .concatWith(sessaoVotacaoRepository.buscarMetadadosPorTermino(inicio, fim, tamanhoLote)
+                        .limitRate(tamanhoLote)
+                        .buffer(tamanhoLote)
+                        .concatMap(this::exportarLoteResultados, 1));
+    }
+
+    private Flux<String> exportarLoteResultados(List<MetadadosSessao> lote) {
+        Map<String, MetadadosSessao> sessoes = lote.stream()
+                .collect(Collectors.toMap(MetadadosSessao::getId, Function.identity(), (a, b) -> a,
+                        LinkedHashMap::new));
+        return sessaoVotacaoService.consultarResultadosVotacao(List.copyOf(sessoes.keySet()))
+                .collectMap(ResultadoApuracaoSessao::getIdSessao)
+                .flatMapIterable(resultados -> sessoes.values().stream()
+                        .filter(sessao -> resultados.containsKey(sessao.getId()))
+                        .map(sessao -> {
+                            ResultadoApuracaoSessao resultado = resultados.get(sessao.getId());
+                            ResumoVotacao resumo = resultado.getResultado() == null ? new ResumoVotacao()
+                                    : resultado.getResultado();
+                            return linha(sessao.getId(), sessao.getIdPauta(), sessao.getDataInicio(),
+                                    sessao.getDataFim(), resultado.getSituacao(), resumo.getAssunto(),
+                                    resumo.getPros(), resumo.getContra(), resumo.getAprovado());
+                        })
+                        .collect(Collectors.toList()));
+    }
+
+    private static String linha(Object... campos) {
+        StringBuilder linha = new StringBuilder();
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                linha.append(',');
+            }
+            adicionarCampo(linha, campos[i]);
+        }
+        return linha.append('\n').toString();
+    }
+
+    /**
+     * Campos com vírgula, aspas ou quebra de linha vão entre aspas, com as aspas duplicadas (RFC 4180).
+     */
+    private static void adicionarCampo(StringBuilder linha, Object campo) {
+        if (campo == null) {
+            return;
+        }
+        String texto = campo.toString();
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0
+                && texto.indexOf('\r') < 0) {
+            linha.append(texto);
+        } else {
+            linha.append('"').append(texto.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.domain.model.FiltroBloom;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Filtro de Bloom, por sessão, dos CPFs que já votaram. Quase todo voto é o primeiro do associado na sessão:
+ * quando o filtro responde que o CPF não votou, a consulta de voto anterior no banco não é feita. Somente os
+ * possíveis positivos são confirmados no banco.
+ * <p>
+ * O filtro da sessão é montado a partir da coleção de votos no primeiro voto aceito da sessão e, ao iniciar, para
+ * as sessões abertas que terminam em até {@code votacao.filtro-votantes.horizonte-carga-ms}. Enquanto o filtro não
+ * está pronto, a consulta vai ao banco. O filtro não conhece os votos gravados por outros nós: um voto duplicado
+ * que passe pelo filtro continua sendo recusado pelo índice único de sessão e CPF, somente mais tarde.
+ * <p>
+ * A memória de cada filtro depende de {@code votacao.filtro-votantes.capacidade} e
+ * {@code votacao.filtro-votantes.taxa-falsos-positivos}; os filtros das sessões sem acesso expiram.
+ */
+@Slf4j
+@Component
+public class FiltroVotantes {
+
+    private static final int TAMANHO_LOTE_CARGA = 100;
+
+    private final VotoRepository votoRepository;
+    private final SessaoVotacaoRepository sessaoVotacaoRepository;
+    private final boolean habilitado;
+    private final long capacidade;
+    private final double taxaFalsosPositivos;
+    private final long horizonteCargaMs;
+    private final AsyncCache<String, FiltroBloom> filtros;
+    private final Counter consultasEvitadas;
+    private final Counter consultasConfirmadas;
+    private final Counter falsosPositivos;
+    private Disposable carga;
+
+    public FiltroVotantes(VotoRepository votoRepository,
+                          SessaoVotacaoRepository sessaoVotacaoRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${votacao.filtro-votantes.habilitado:true}") boolean habilitado,
+                          @Value("${votacao.filtro-votantes.capacidade:100000}") long capacidade,
+                          @Value("${votacao.filtro-votantes.taxa-falsos-positivos:0.01}") double taxaFalsosPositivos,
+                          @Value("${votacao.filtro-votantes.tamanho-maximo:1000}") long tamanhoMaximo,
+                          @Value("${votacao.filtro-votantes.expiracao-ms:3600000}") long expiracaoMs,
+                          @Value("${votacao.filtro-votantes.horizonte-carga-ms:86400000}") long horizonteCargaMs) {
+        this.votoRepository = votoRepository;
+        this.sessaoVotacaoRepository = sessaoVotacaoRepository;
+        this.habilitado = habilitado;
+        this.capacidade = capacidade;
+        this.taxaFalsosPositivos = taxaFalsosPositivos;
+        this.horizonteCargaMs = horizonteCargaMs;
+        this.filtros = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(Duration.ofMillis(expiracaoMs))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, filtros.synchronous(), "filtros-votantes");
+        this.consultasEvitadas = contadorConsultas(meterRegistry, "evitada");
+        this.consultasConfirmadas = contadorConsultas(meterRegistry, "confirmada");
+        this.falsosPositivos = Counter.builder("votacao.filtro-votantes.falsos-positivos")
+                .description("Consultas ao banco em que o filtro indicou um voto anterior que não existia")
+                .register(meterRegistry);
+        Gauge.builder("votacao.filtro-votantes.memoria", this, FiltroVotantes::memoria)
+                .description("Bytes ocupados pelos filtros carregados")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("votacao.filtro-votantes.taxa-falsos-positivos-estimada", this,
+                FiltroVotantes::maiorTaxaFalsosPositivos)
+                .description("Maior taxa de falsos positivos esperada entre os filtros carregados")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Monta, em segundo plano, os filtros das sessões abertas que terminam dentro do horizonte de carga.
+     */
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado || horizonteCargaMs <= 0) {
+            return;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime horizonte = agora.plus(Duration.ofMillis(horizonteCargaMs));
+        carga = sessaoVotacaoRepository.buscarMetadadosAbertas(agora, horizonte, TAMANHO_LOTE_CARGA)
+                .concatMap(sessaoVotacao -> carregar(sessaoVotacao.getId()), 1)
+                .subscribe(null, erro -> log.warn("Erro ao montar os filtros de votantes", erro));
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (carga != null) {
+            carga.dispose();
+        }
+    }
+
+    /**
+     * Monta o filtro da sessão, se ainda não estiver carregado.
+     */
+    public Mono<Void> carregar(String idSessao) {
+        return habilitado ? Mono.defer(() -> Mono.fromFuture(filtro(idSessao))).then() : Mono.empty();
+    }
+
+    /**
+     * Responde se o associado já votou na sessão. A consulta ao banco só é feita se o filtro da sessão não estiver
+     * pronto ou indicar um possível voto anterior.
+     */
+    public Mono<Boolean> associadoJaVotou(String idSessao, long cpf, Supplier<Mono<Boolean>> consultaBanco) {
+        CompletableFuture<FiltroBloom> filtro = habilitado ? filtros.getIfPresent(idSessao) : null;
+        if (filtro == null || !filtro.isDone() || filtro.isCompletedExceptionally()) {
+            return consultaBanco.get();
+        }
+        if (!filtro.join().podeConter(cpf)) {
+            consultasEvitadas.increment();
+            return Mono.just(false);
+        }
+        consultasConfirmadas.increment();
+        return consultaBanco.get()
+                .doOnNext(votou -> {
+                    if (!votou) {
+                        falsosPositivos.increment();
+                    }
+                });
+    }
+
+    /**
+     * Adiciona os votos aceitos aos filtros das sessões, montando o filtro da sessão se ainda não existir.
+     */
+    public void adicionar(Collection<Voto> votos) {
+        if (!habilitado) {
+            return;
+        }
+        votos.forEach(voto -> filtro(voto.getIdSessao())
+                .thenAccept(filtro -> filtro.adicionar(voto.compactarCpf())));
+    }
+
+    private CompletableFuture<FiltroBloom> filtro(String idSessao) {
+        return filtros.get(idSessao, (id, executor) -> montar(id).toFuture());
+    }
+
+    /**
+     * Os votos são contados antes, pelo índice de sessão e voto, para dimensionar o filtro com folga para o dobro
+     * dos votos já gravados, e os CPFs são adicionados conforme são lidos. Os votos gravados durante a montagem
+     * que não forem lidos pela consulta são adicionados por {@link #adicionar} quando a montagem termina.
+     */
+    private Mono<FiltroBloom> montar(String idSessao) {
+        return votoRepository.contarVotos(idSessao)
+                .map(contagem -> new FiltroBloom(Math.max(capacidade, 2 * (contagem.getPros() + contagem.getContra())),
+                        taxaFalsosPositivos))
+                .flatMap(filtro -> votoRepository.findCpfsByIdSessao(idSessao)
+                        .doOnNext(voto -> CpfsArmazenados.compactar(voto, filtro::adicionar))
+                        .then(Mono.fromSupplier(() -> {
+                            log.debug("Filtro de votantes da sessão {} montado com {} CPFs ({} bytes)", idSessao,
+                                    filtro.quantidade(), filtro.tamanhoBytes());
+                            return filtro;
+                        })));
+    }
+
+    private double memoria() {
+        return filtros.synchronous().asMap().values().stream()
+                .mapToLong(FiltroBloom::tamanhoBytes)
+                .sum();
+    }
+
+    private double maiorTaxaFalsosPositivos() {
+        return filtros.synchronous().asMap().values().stream()
+                .mapToDouble(FiltroBloom::taxaFalsosPositivosEstimada)
+                .max()
+                .orElse(0);
+    }
+
+    private static Counter contadorConsultas(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("votacao.filtro-votantes.consultas")
+                .description("Verificações de voto anterior respondidas pelo filtro (evitada) ou pelo banco após "
+                        + "um possível positivo (confirmada)")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,120 @@
+package br.com.votingapi.infrastructure.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Repete uma requisição que ainda não respondeu dentro do percentil de latência configurado, ficando com a
+ * primeira resposta. O percentil é calculado sobre as últimas respostas recebidas.
+ * <p>
+ * Cada requisição acumula {@code orcamentoPercentual} centésimos de uma repetição e cada repetição consome uma
+ * inteira, de forma que as repetições nunca passam desse percentual das requisições. O saldo acumulado é
+ * limitado para que um período sem lentidão não libere uma rajada de repetições.
+ */
+public class HedgeRequisicoes {
+
+    private static final int AMOSTRAS = 1024;
+    private static final int AMOSTRAS_POR_ATUALIZACAO = 64;
+    private static final long CUSTO_REPETICAO = 100;
+    private static final long SALDO_MAXIMO = 10 * CUSTO_REPETICAO;
+
+    private final boolean habilitado;
+    private final double percentil;
+    private final long orcamentoPercentual;
+    private final long atrasoMinimoNanos;
+
+    private final AtomicLongArray latencias = new AtomicLongArray(AMOSTRAS);
+    private final AtomicLong amostras = new AtomicLong();
+    private final AtomicLong saldo = new AtomicLong();
+    private volatile long atrasoNanos;
+
+    private final Counter repeticoes;
+    private final Counter repeticoesVencedoras;
+
+    public HedgeRequisicoes(boolean habilitado, double percentil, long orcamentoPercentual, long atrasoMinimoMs,
+                            MeterRegistry meterRegistry) {
+        this.habilitado = habilitado;
+        this.percentil = percentil;
+        this.orcamentoPercentual = orcamentoPercentual;
+        this.atrasoMinimoNanos = Duration.ofMillis(atrasoMinimoMs).toNanos();
+        this.atrasoNanos = atrasoMinimoNanos;
+        this.repeticoes = Counter.builder("cpf.api.hedge.repeticoes")
+                .description("Requisições repetidas por demora da primeira")
+                .register(meterRegistry);
+        this.repeticoesVencedoras = Counter.builder("cpf.api.hedge.vencedoras")
+                .description("Requisições repetidas que responderam antes da primeira")
+                .register(meterRegistry);
+        Gauge.builder("cpf.api.hedge.atraso", this, hedge -> hedge.atrasoNanos / 1_000_000d)
+                .description("Tempo de espera pela primeira resposta antes de repetir a requisição")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> executar(Supplier<Mono<T>> requisicao) {
+        if (!habilitado) {
+            return requisicao.get();
+        }
+        return Mono.defer(() -> {
+            depositar();
+            Mono<T> primeira = medir(requisicao.get());
+            Mono<T> repeticao = Mono.delay(Duration.ofNanos(atrasoNanos))
+                    .flatMap(tick -> {
+                        if (!retirar()) {
+                            return Mono.<T>never();
+                        }
+                        repeticoes.increment();
+                        return medir(requisicao.get()).doOnNext(resposta -> repeticoesVencedoras.increment());
+                    });
+            return Mono.first(primeira, repeticao);
+        });
+    }
+
+    private <T> Mono<T> medir(Mono<T> requisicao) {
+        return Mono.defer(() -> {
+            long inicio = System.nanoTime();
+            return requisicao.doOnNext(resposta -> registrar(System.nanoTime() - inicio));
+        });
+    }
+
+    private void registrar(long latenciaNanos) {
+        long amostra = amostras.getAndIncrement();
+        latencias.set((int) (amostra % AMOSTRAS), latenciaNanos);
+        if ((amostra + 1) % AMOSTRAS_POR_ATUALIZACAO == 0) {
+            atualizarAtraso((int) Math.min(amostra + 1, AMOSTRAS));
+        }
+    }
+
+    private void atualizarAtraso(int quantidade) {
+        long[] ordenadas = new long[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            ordenadas[i] = latencias.get(i);
+        }
+        Arrays.sort(ordenadas);
+        int posicao = (int) Math.ceil(percentil / 100 * quantidade) - 1;
+        atrasoNanos = Math.max(ordenadas[Math.max(posicao, 0)], atrasoMinimoNanos);
+    }
+
+    private void depositar() {
+        saldo.updateAndGet(atual -> Math.min(atual + orcamentoPercentual, SALDO_MAXIMO));
+    }
+
+    private boolean retirar() {
+        long atual;
+        do {
+            atual = saldo.get();
+            if (atual < CUSTO_REPETICAO) {
+                return false;
+            }
+        } while (!saldo.compareAndSet(atual, atual - CUSTO_REPETICAO));
+        return true;
+    }
+
+}
@@ -0,0 +1,144 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.CPFService;
+import br.com.votingapi.application.RegistroVotosService;
+import br.com.votingapi.domain.model.Cpf;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.configuration.PropriedadesVotacao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.MetadadosSessao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoImportacaoVoto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoImportacaoVoto.Situacao;
+import br.com.votingapi.infrastructure.service.exception.AssociadoSemPermissaoParaVotarException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import javax.validation.Validator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Importa os votos de uma sessão em lotes de {@code votacao.importacao.tamanho-lote}. Um novo lote só é lido
+ * depois que o anterior foi gravado e seus resultados enviados, de forma que a memória usada não depende do
+ * tamanho da importação.
+ * <p>
+ * Os votos seguem as mesmas regras do voto individual: sessão aberta, associado com permissão para votar e um
+ * voto por associado. O voto anterior do associado é verificado antes da consulta à API de CPF, que não é feita
+ * para os votos repetidos; até {@code votacao.importacao.verificacoes-cpf-simultaneas} consultas à API são feitas
+ * ao mesmo tempo. Cada linha recebe o seu resultado, sem interromper a importação.
+ */
+@Slf4j
+@Service
+public class ImportacaoVotosService {
+
+    private final CacheMetadadosSessao cacheMetadadosSessao;
+    private final FiltroVotantes filtroVotantes;
+    private final CpfsVotosLegados cpfsVotosLegados;
+    private final RegistroVotosService registroVotosService;
+    private final CPFService cpfService;
+    private final Validator validator;
+    private final PropriedadesVotacao.Importacao propriedades;
+
+    public ImportacaoVotosService(CacheMetadadosSessao cacheMetadadosSessao,
+                                  FiltroVotantes filtroVotantes,
+                                  CpfsVotosLegados cpfsVotosLegados,
+                                  RegistroVotosService registroVotosService,
+                                  CPFService cpfService,
+                                  Validator validator,
+                                  PropriedadesVotacao propriedades) {
+        this.cacheMetadadosSessao = cacheMetadadosSessao;
+        this.filtroVotantes = filtroVotantes;
+        this.cpfsVotosLegados = cpfsVotosLegados;
+        this.registroVotosService = registroVotosService;
+        this.cpfService = cpfService;
+        this.validator = validator;
+        this.propriedades = propriedades.getImportacao();
+    }
+
+    public Flux<ResultadoImportacaoVoto> importar(String idSessao, Flux<Voto> votos) {
+        log.debug("Importando votos na sessão {}", idSessao);
+        return cacheMetadadosSessao.buscar(idSessao)
+                .switchIfEmpty(Mono.error(
+                        new EmptyResultDataAccessException("Sessão de Votação não encontrada.", 1)))
+                .flatMapMany(sessaoVotacao -> votos
+                        .index()
+                        .buffer(propriedades.getTamanhoLote())
+                        .concatMap(lote -> importarLote(sessaoVotacao, lote), 1));
+    }
+
+    private Flux<ResultadoImportacaoVoto> importarLote(MetadadosSessao sessaoVotacao, List<Tuple2<Long, Voto>> lote) {
+        LocalDateTime now = LocalDateTime.now();
+        return Flux.fromIterable(lote)
+                .flatMapSequential(linha -> verificarVotoImportado(sessaoVotacao, linha.getT2(), now)
+                                .map(situacao -> new ResultadoImportacaoVoto(linha.getT1() + 1,
+                                        linha.getT2().getCpfAssociado(), situacao)),
+                        propriedades.getVerificacoesCpfSimultaneas())
+                .collectList()
+                .flatMapMany(resultados -> {
+                    List<Voto> aceitos = new ArrayList<>(lote.size());
+                    List<ResultadoImportacaoVoto> resultadosAceitos = new ArrayList<>(lote.size());
+                    for (int i = 0; i < lote.size(); i++) {
+                        if (resultados.get(i).getSituacao() == Situacao.ACEITO) {
+                            aceitos.add(lote.get(i).getT2());
+                            resultadosAceitos.add(resultados.get(i));
+                        }
+                    }
+                    return registroVotosService.registrarEmLote(aceitos)
+                            .flatMapIterable(duplicados -> {
+                                duplicados.forEach(posicao -> resultadosAceitos.get(posicao)
+                                        .setSituacao(Situacao.ASSOCIADO_JA_VOTOU));
+                                List<Voto> gravados = new ArrayList<>(aceitos.size());
+                                for (int i = 0; i < aceitos.size(); i++) {
+                                    if (!duplicados.contains(i)) {
+                                        gravados.add(aceitos.get(i));
+                                    }
+                                }
+                                filtroVotantes.adicionar(gravados);
+                                return resultados;
+                            });
+                });
+    }
+
+    private Mono<Situacao> verificarVotoImportado(MetadadosSessao sessaoVotacao, Voto voto, LocalDateTime now) {
+        voto.setIdSessao(sessaoVotacao.getId());
+        voto.setDataRegistro(now);
+        if (!validator.validate(voto).isEmpty()) {
+            return Mono.just(Situacao.INVALIDO);
+        }
+        voto.setCpfCompacto(Cpf.compactar(voto.getCpfAssociado()));
+        voto.setCpfAssociado(Cpf.expandir(voto.getCpfCompacto()));
+        if (now.isBefore(sessaoVotacao.getDataInicio())) {
+            return Mono.just(Situacao.SESSAO_NAO_INICIADA);
+        }
+        if (now.isAfter(sessaoVotacao.getDataFim())) {
+            return Mono.just(Situacao.SESSAO_ENCERRADA);
+        }
+        String idSessao = sessaoVotacao.getId();
+        return Mono.zip(
+                filtroVotantes.associadoJaVotou(idSessao, voto.getCpfCompacto(),
+                        () -> registroVotosService.associadoJaVotou(idSessao, voto.getCpfAssociado())),
+                cpfsVotosLegados.associadoJaVotou(idSessao, voto.getCpfCompacto()))
+                .flatMap(jaVotou -> jaVotou.getT1() || jaVotou.getT2()
+                        ? Mono.just(Situacao.ASSOCIADO_JA_VOTOU) : verificarPermissao(voto));
+    }
+
+    /**
+     * A API de CPF indisponível segue {@code cpf.api.indisponivel}, como no voto individual: com {@code aceitar} o
+     * voto é aceito para verificação posterior. A recusa por indisponibilidade, ou qualquer outra falha da consulta,
+     * vira o resultado da linha, sem interromper a importação.
+     */
+    private Mono<Situacao> verificarPermissao(Voto voto) {
+        return cpfService.verificarSeCPFPodeVotar(voto)
+                .thenReturn(Situacao.ACEITO)
+                .onErrorReturn(AssociadoSemPermissaoParaVotarException.class, Situacao.ASSOCIADO_SEM_PERMISSAO)
+                .onErrorResume(erro -> {
+                    log.debug("Falha ao verificar o CPF do voto importado na sessão {}", voto.getIdSessao(), erro);
+                    return Mono.just(Situacao.SERVICO_CPF_INDISPONIVEL);
+                });
+    }
+
+}
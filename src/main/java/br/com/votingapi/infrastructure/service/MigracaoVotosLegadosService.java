@@ -0,0 +1,214 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.SessaoVotacaoService;
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.MigracaoVotosLegados;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.MigracaoVotosLegadosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.MetadadosSessao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Migra os votos da lista das sessões (referências DBRef) para votos com o ID da sessão, com o sistema em uso.
+ * <p>
+ * As sessões com votos na lista são lidas em páginas de {@code votacao.migracao.tamanho-pagina}, em ordem de ID, e
+ * migradas uma de cada vez. De cada sessão são lidos somente os primeiros {@code votacao.migracao.tamanho-lote} IDs
+ * da lista; esses votos recebem o ID da sessão, são somados aos contadores e saem da lista. Entre dois lotes há uma
+ * pausa de {@code votacao.migracao.pausa-lote-ms}, para limitar a carga sobre o banco. Ao esvaziar a lista, os
+ * contadores da sessão são recontados a partir dos votos.
+ * <p>
+ * Cada passo pode ser repetido sem efeito colateral, por isso o progresso, gravado em {@link MigracaoVotosLegados}
+ * a cada sessão, é suficiente para continuar depois de uma parada: a sessão interrompida é migrada de novo desde o
+ * início e a recontagem corrige um lote somado duas vezes. Uma falha interrompe a passagem, que é retomada do
+ * último progresso gravado.
+ * <p>
+ * Somente sessões encerradas há mais de {@code votacao.migracao.margem-encerramento-ms} são migradas, para que a
+ * recontagem não concorra com votos novos. O resultado da sessão é gravado antes da migração, para que nenhuma
+ * apuração feita durante a migração seja gravada como resultado final. Durante a migração os votos vinculados
+ * são contados pelos contadores e deixam de ser contados como votos da lista, por isso não são contados duas
+ * vezes. As demais ficam para uma nova passagem, feita a cada
+ * {@code votacao.migracao.intervalo-passagem-ms} até não restar sessão com votos na lista.
+ * <p>
+ * Deve ser habilitada ({@code votacao.migracao.habilitada}) em um único nó.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "votacao.migracao.habilitada", havingValue = "true")
+public class MigracaoVotosLegadosService {
+
+    private final SessaoVotacaoRepository sessaoVotacaoRepository;
+    private final VotoRepository votoRepository;
+    private final ContagemVotosRepository contagemVotosRepository;
+    private final MigracaoVotosLegadosRepository migracaoRepository;
+    private final SessaoVotacaoService sessaoVotacaoService;
+    private final int tamanhoPagina;
+    private final int tamanhoLote;
+    private final long pausaLoteMs;
+    private final long intervaloPassagemMs;
+    private final long margemEncerramentoMs;
+    private final Counter sessoesMigradas;
+    private final Counter votosMigrados;
+    private final Counter votosDescartados;
+    private Disposable execucao;
+
+    public MigracaoVotosLegadosService(SessaoVotacaoRepository sessaoVotacaoRepository,
+                                       VotoRepository votoRepository,
+                                       ContagemVotosRepository contagemVotosRepository,
+                                       MigracaoVotosLegadosRepository migracaoRepository,
+                                       SessaoVotacaoService sessaoVotacaoService,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${votacao.migracao.tamanho-pagina:100}") int tamanhoPagina,
+                                       @Value("${votacao.migracao.tamanho-lote:1000}") int tamanhoLote,
+                                       @Value("${votacao.migracao.pausa-lote-ms:50}") long pausaLoteMs,
+                                       @Value("${votacao.migracao.intervalo-passagem-ms:60000}")
+                                               long intervaloPassagemMs,
+                                       @Value("${votacao.migracao.margem-encerramento-ms:60000}")
+                                               long margemEncerramentoMs) {
+        this.sessaoVotacaoRepository = sessaoVotacaoRepository;
+        this.votoRepository = votoRepository;
+        this.contagemVotosRepository = contagemVotosRepository;
+        this.migracaoRepository = migracaoRepository;
+        this.sessaoVotacaoService = sessaoVotacaoService;
+        this.tamanhoPagina = tamanhoPagina;
+        this.tamanhoLote = tamanhoLote;
+        this.pausaLoteMs = pausaLoteMs;
+        this.intervaloPassagemMs = intervaloPassagemMs;
+        this.margemEncerramentoMs = margemEncerramentoMs;
+        this.sessoesMigradas = Counter.builder("votacao.migracao.sessoes")
+                .description("Sessões com os votos da lista migrados")
+                .register(meterRegistry);
+        this.votosMigrados = Counter.builder("votacao.migracao.votos")
+                .description("Votos da lista das sessões migrados")
+                .register(meterRegistry);
+        this.votosDescartados = Counter.builder("votacao.migracao.votos-descartados")
+                .description("Referências da lista das sessões que não puderam ser migradas")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        execucao = executarPassagem()
+                .expand(migracao -> migracao.isConcluida() ? Mono.empty()
+                        : Mono.delay(Duration.ofMillis(intervaloPassagemMs)).then(executarPassagem()))
+                .doOnError(erro -> log.warn("Migração dos votos da lista interrompida", erro))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(intervaloPassagemMs)))
+                .subscribeOn(Schedulers.single())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        execucao.dispose();
+    }
+
+    /**
+     * Continua a passagem do último progresso gravado até a última sessão. A migração é concluída quando, ao fim da
+     * passagem, não resta sessão com votos na lista; caso contrário a próxima passagem começa da primeira sessão.
+     */
+    public Mono<MigracaoVotosLegados> executarPassagem() {
+        return migracaoRepository.findById(MigracaoVotosLegados.ID)
+                .defaultIfEmpty(MigracaoVotosLegados.iniciar())
+                .flatMap(migracao -> migracao.isConcluida() ? Mono.just(migracao)
+                        : Mono.defer(() -> migrarPagina(migracao))
+                        .repeat()
+                        .takeWhile(continuar -> continuar)
+                        .then(sessaoVotacaoRepository.buscarMetadadosComVotosLegados(null, 1).hasElements())
+                        .flatMap(restantes -> {
+                            migracao.setConcluida(!restantes);
+                            migracao.setUltimoIdSessao(null);
+                            log.info("Passagem da migração dos votos da lista {}: {}",
+                                    restantes ? "encerrada" : "concluída", migracao);
+                            migracao.setSessoesAdiadas(0);
+                            return salvar(migracao);
+                        }));
+    }
+
+    /**
+     * @return {@code false} quando não há mais sessões na passagem.
+     */
+    private Mono<Boolean> migrarPagina(MigracaoVotosLegados migracao) {
+        return sessaoVotacaoRepository.buscarMetadadosComVotosLegados(migracao.getUltimoIdSessao(), tamanhoPagina)
+                .concatMap(sessaoVotacao -> migrarSessao(migracao, sessaoVotacao), 1)
+                .hasElements();
+    }
+
+    private Mono<MigracaoVotosLegados> migrarSessao(MigracaoVotosLegados migracao, MetadadosSessao sessaoVotacao) {
+        String idSessao = sessaoVotacao.getId();
+        migracao.setUltimoIdSessao(idSessao);
+        if (sessaoVotacao.getDataFim().isAfter(LocalDateTime.now().minus(Duration.ofMillis(margemEncerramentoMs)))) {
+            migracao.setSessoesAdiadas(migracao.getSessoesAdiadas() + 1);
+            return salvar(migracao);
+        }
+        return sessaoVotacaoService.apurarResultadoVotacao(idSessao)
+                .thenMany(Mono.defer(() -> migrarLote(migracao, idSessao))
+                        .repeat()
+                        .takeWhile(continuar -> continuar))
+                .then(votoRepository.contarVotos(idSessao))
+                .flatMap(contagem -> contagemVotosRepository.definir(idSessao, contagem.getPros(),
+                        contagem.getContra()))
+                .then(Mono.defer(() -> {
+                    migracao.setSessoesMigradas(migracao.getSessoesMigradas() + 1);
+                    sessoesMigradas.increment();
+                    log.info("Votos da lista da sessão {} migrados: {}", idSessao, migracao);
+                    return salvar(migracao);
+                }));
+    }
+
+    /**
+     * @return {@code false} quando a lista da sessão está vazia.
+     */
+    private Mono<Boolean> migrarLote(MigracaoVotosLegados migracao, String idSessao) {
+        return sessaoVotacaoRepository.buscarIdsVotosLegados(idSessao, tamanhoLote)
+                .defaultIfEmpty(Collections.emptyList())
+                .flatMap(idsVotos -> idsVotos.isEmpty() ? Mono.just(false)
+                        : migrarVotos(migracao, idSessao, idsVotos)
+                        .then(Mono.delay(Duration.ofMillis(pausaLoteMs)))
+                        .thenReturn(true));
+    }
+
+    private Mono<Void> migrarVotos(MigracaoVotosLegados migracao, String idSessao, List<String> idsVotos) {
+        return votoRepository.vincularSessao(idSessao, idsVotos)
+                .flatMap(contagem -> contagemVotosRepository.incrementar(idSessao, contagem.getPros(),
+                        contagem.getContra())
+                        .then(sessaoVotacaoRepository.removerVotosLegados(idSessao, idsVotos))
+                        .then(Mono.fromRunnable(() -> registrar(migracao, idSessao, idsVotos, contagem))));
+    }
+
+    private void registrar(MigracaoVotosLegados migracao, String idSessao, List<String> idsVotos,
+                           ContagemVotos contagem) {
+        long migrados = contagem.getPros() + contagem.getContra();
+        long descartados = idsVotos.size() - migrados;
+        migracao.setVotosMigrados(migracao.getVotosMigrados() + migrados);
+        migracao.setVotosDescartados(migracao.getVotosDescartados() + descartados);
+        votosMigrados.increment(migrados);
+        if (descartados > 0) {
+            votosDescartados.increment(descartados);
+            log.warn("{} referências da lista da sessão {} não puderam ser migradas e foram descartadas",
+                    descartados, idSessao);
+        }
+    }
+
+    private Mono<MigracaoVotosLegados> salvar(MigracaoVotosLegados migracao) {
+        migracao.setDataAtualizacao(LocalDateTime.now());
+        return migracaoRepository.save(migracao);
+    }
+
+}
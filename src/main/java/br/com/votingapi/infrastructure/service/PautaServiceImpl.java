@@ -2,7 +2,9 @@ package br.com.votingapi.infrastructure.service;
 
 import br.com.votingapi.application.PautaService;
 import br.com.votingapi.domain.model.Pauta;
+import br.com.votingapi.infrastructure.configuration.PropriedadesVotacao;
 import br.com.votingapi.infrastructure.persistence.repository.jpa.PautaRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.Pagina;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -12,14 +14,32 @@ import reactor.core.publisher.Mono;
 public class PautaServiceImpl implements PautaService {
 
     private final PautaRepository pautaRepository;
+    private final PropriedadesVotacao.Listagem listagem;
 
-    public PautaServiceImpl(PautaRepository pautaRepository) {
+    public PautaServiceImpl(PautaRepository pautaRepository, PropriedadesVotacao propriedades) {
         this.pautaRepository = pautaRepository;
+        this.listagem = propriedades.getListagem();
     }
 
+    /**
+     * Lê as pautas do banco à medida que são pedidas, em lotes de {@code votacao.listagem.tamanho-lote}.
+     */
     @Override
     public Flux<Pauta> listarTodas() {
-        return pautaRepository.findAll();
+        return pautaRepository.buscarTodas(listagem.getTamanhoLote())
+                .limitRate(listagem.getTamanhoLote());
+    }
+
+    /**
+     * O tamanho da página é limitado a {@code votacao.listagem.tamanho-maximo-pagina}.
+     */
+    @Override
+    public Mono<Pagina<Pauta>> listarPagina(String aposId, Integer tamanho) {
+        int tamanhoEfetivo = tamanho == null ? listagem.getTamanhoPagina()
+                : Math.max(1, Math.min(tamanho, listagem.getTamanhoMaximoPagina()));
+        return pautaRepository.buscarPagina(aposId, tamanhoEfetivo)
+                .collectList()
+                .map(pautas -> Pagina.de(pautas, tamanhoEfetivo, Pauta::getId));
     }
 
     @Override
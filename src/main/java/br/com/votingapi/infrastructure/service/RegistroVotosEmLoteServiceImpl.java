@@ -0,0 +1,194 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.RegistroVotosService;
+import br.com.votingapi.application.SerieVotacaoService;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import br.com.votingapi.infrastructure.service.exception.AssociadoJaVotouException;
+import br.com.votingapi.infrastructure.service.exception.EscritaVotosSobrecarregadaException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Agrupa os votos recebidos ao mesmo tempo e grava cada grupo com um único insert em lote. O lote é gravado
+ * quando atinge {@code votacao.escrita.lote.tamanho-maximo} votos ou quando o primeiro voto do lote espera
+ * {@code votacao.escrita.lote.espera-maxima-ms}, o que ocorrer primeiro. Lotes maiores diminuem as idas ao
+ * banco, esperas maiores aumentam a latência de cada voto.
+ * <p>
+ * Cada chamada recebe o seu próprio resultado: um voto duplicado no lote falha com
+ * {@link AssociadoJaVotouException} sem afetar os demais.
+ * <p>
+ * Enquanto {@code votacao.escrita.lote.gravacoes-simultaneas} lotes estão sendo gravados, os lotes seguintes
+ * esperam numa fila de até {@code votacao.escrita.lote.lotes-pendentes} lotes. Com a fila cheia, os votos do lote
+ * recusado falham com {@link EscritaVotosSobrecarregadaException}. O erro na gravação de um lote falha somente os
+ * votos desse lote.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "votacao.escrita.modo", havingValue = "lote")
+public class RegistroVotosEmLoteServiceImpl implements RegistroVotosService {
+
+    private final VotoRepository votoRepository;
+    private final ContagemVotosRepository contagemVotosRepository;
+    private final SerieVotacaoService serieVotacaoService;
+    private final MeterRegistry meterRegistry;
+
+    private final DistributionSummary tamanhoLote;
+    private final Timer tempoGravacaoLote;
+    private final Counter votosDuplicados;
+    private final Counter lotesRecusados;
+    private final Counter falhasContadores;
+
+    private FluxSink<VotoPendente> fila;
+
+    public RegistroVotosEmLoteServiceImpl(VotoRepository votoRepository,
+                                          ContagemVotosRepository contagemVotosRepository,
+                                          SerieVotacaoService serieVotacaoService,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${votacao.escrita.lote.tamanho-maximo:500}") int tamanhoMaximo,
+                                          @Value("${votacao.escrita.lote.espera-maxima-ms:5}") long esperaMaximaMs,
+                                          @Value("${votacao.escrita.lote.gravacoes-simultaneas:4}")
+                                                  int gravacoesSimultaneas,
+                                          @Value("${votacao.escrita.lote.lotes-pendentes:64}") int lotesPendentes) {
+        this.votoRepository = votoRepository;
+        this.contagemVotosRepository = contagemVotosRepository;
+        this.serieVotacaoService = serieVotacaoService;
+        this.meterRegistry = meterRegistry;
+        this.tamanhoLote = DistributionSummary.builder("votacao.escrita.lote.tamanho")
+                .description("Quantidade de votos gravados por lote")
+                .register(meterRegistry);
+        this.tempoGravacaoLote = Timer.builder("votacao.escrita.lote.gravacao")
+                .description("Tempo de gravação de cada lote de votos")
+                .register(meterRegistry);
+        this.votosDuplicados = Counter.builder("votacao.escrita.lote.duplicados")
+                .description("Votos recusados no lote por associado que já votou")
+                .register(meterRegistry);
+        this.falhasContadores = Counter.builder("votacao.contadores.falhas")
+                .description("Votos gravados sem atualizar os contadores da sessão")
+                .register(meterRegistry);
+        this.lotesRecusados = Counter.builder("votacao.escrita.lote.recusados")
+                .description("Lotes recusados porque a fila de lotes aguardando gravação estava cheia")
+                .register(meterRegistry);
+        Gauge.builder("votacao.escrita.lote.tamanho-maximo", () -> tamanhoMaximo)
+                .description("Tamanho máximo configurado para o lote")
+                .register(meterRegistry);
+        Gauge.builder("votacao.escrita.lote.espera-maxima", () -> esperaMaximaMs)
+                .description("Espera máxima configurada para completar o lote, em milissegundos")
+                .register(meterRegistry);
+
+        // O bufferTimeout falha quando o tempo de espera termina sem demanda do flatMap, o que acontece com todas
+        // as gravações em andamento. A fila limitada logo depois dele mantém a demanda e recusa o excedente.
+        Flux.<VotoPendente>create(sink -> this.fila = sink)
+                .bufferTimeout(tamanhoMaximo, Duration.ofMillis(esperaMaximaMs))
+                .onBackpressureBuffer(lotesPendentes, this::recusarLote, BufferOverflowStrategy.DROP_LATEST)
+                .flatMap(this::gravarLote, gravacoesSimultaneas)
+                .subscribe(null, erro -> log.error("Fila de gravação de votos em lote encerrada", erro));
+    }
+
+    @Override
+    public Mono<Voto> registrar(Voto voto) {
+        return Mono.create(resultado -> fila.next(new VotoPendente(voto, resultado)));
+    }
+
+    @Override
+    public Mono<Boolean> associadoJaVotou(String idSessao, String cpfAssociado) {
+        return votoRepository.existsByIdSessaoAndCpfAssociado(idSessao, cpfAssociado);
+    }
+
+    /**
+     * Envia para gravação o lote que ainda estiver aberto.
+     */
+    @PreDestroy
+    public void encerrar() {
+        fila.complete();
+    }
+
+    private void recusarLote(List<VotoPendente> lote) {
+        log.warn("Fila de gravação cheia, {} votos recusados", lote.size());
+        lotesRecusados.increment();
+        lote.forEach(pendente -> pendente.getResultado().error(new EscritaVotosSobrecarregadaException()));
+    }
+
+    private Mono<Void> gravarLote(List<VotoPendente> lote) {
+        List<Voto> votos = lote.stream().map(VotoPendente::getVoto).collect(Collectors.toList());
+        tamanhoLote.record(votos.size());
+        Timer.Sample inicio = Timer.start(meterRegistry);
+        return Mono.defer(() -> votoRepository.inserirEmLote(votos))
+                .flatMap(duplicados -> incrementarContadores(votos, duplicados).thenReturn(duplicados))
+                .doOnNext(duplicados -> {
+                    votosDuplicados.increment(duplicados.size());
+                    for (int i = 0; i < lote.size(); i++) {
+                        VotoPendente pendente = lote.get(i);
+                        if (duplicados.contains(i)) {
+                            pendente.getResultado().error(new AssociadoJaVotouException());
+                        } else {
+                            pendente.getResultado().success(pendente.getVoto());
+                        }
+                    }
+                })
+                .doOnError(erro -> {
+                    log.error("Erro ao gravar lote de {} votos", lote.size(), erro);
+                    lote.forEach(pendente -> pendente.getResultado().error(erro));
+                })
+                .doFinally(sinal -> inicio.stop(tempoGravacaoLote))
+                .onErrorResume(erro -> Mono.empty())
+                .then();
+    }
+
+    /**
+     * Um $inc por sessão do lote nos contadores, e um por documento nas séries, somando somente os votos aceitos.
+     * Os votos já estão gravados, então uma falha aqui não recusa os votos do lote: os contadores das sessões do
+     * lote são marcados como divergentes, e a apuração por contadores passa a contar os votos dessas sessões.
+     */
+    private Mono<Void> incrementarContadores(List<Voto> votos, Set<Integer> duplicados) {
+        List<Voto> aceitos = new ArrayList<>(votos.size());
+        for (int i = 0; i < votos.size(); i++) {
+            if (!duplicados.contains(i)) {
+                aceitos.add(votos.get(i));
+            }
+        }
+        return Mono.when(contagemVotosRepository.incrementar(aceitos), serieVotacaoService.registrar(aceitos))
+                .onErrorResume(erro -> {
+                    falhasContadores.increment(aceitos.size());
+                    Set<String> idsSessoes = aceitos.stream().map(Voto::getIdSessao).collect(Collectors.toSet());
+                    log.error("Lote gravado sem atualizar os contadores das sessões {}; contadores marcados como "
+                            + "divergentes", idsSessoes, erro);
+                    return contagemVotosRepository.marcarDivergentes(idsSessoes)
+                            .onErrorResume(falhaMarcacao -> {
+                                log.error("Não foi possível marcar os contadores das sessões {} como divergentes; "
+                                        + "conferir com a apuração por agregação", idsSessoes, falhaMarcacao);
+                                return Mono.empty();
+                            });
+                });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class VotoPendente {
+        private final Voto voto;
+        private final MonoSink<Voto> resultado;
+    }
+
+}
@@ -0,0 +1,103 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.RegistroVotosService;
+import br.com.votingapi.application.SerieVotacaoService;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import br.com.votingapi.infrastructure.service.exception.AssociadoJaVotouException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Grava cada voto com o seu próprio insert.
+ * <p>
+ * Os contadores e as séries são atualizados depois do insert, em outra operação. Se essa atualização falhar, o
+ * voto já está gravado e é confirmado assim mesmo. O incremento não é repetido, porque uma falha por tempo
+ * esgotado pode ter sido aplicada: os contadores da sessão são marcados como divergentes e a apuração por
+ * contadores passa a contar os votos da sessão. A falha é registrada no log e na métrica
+ * {@code votacao.contadores.falhas}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "votacao.escrita.modo", havingValue = "direto", matchIfMissing = true)
+public class RegistroVotosServiceImpl implements RegistroVotosService {
+
+    private final VotoRepository votoRepository;
+    private final ContagemVotosRepository contagemVotosRepository;
+    private final SerieVotacaoService serieVotacaoService;
+    private final Counter falhasContadores;
+
+    public RegistroVotosServiceImpl(VotoRepository votoRepository,
+                                    ContagemVotosRepository contagemVotosRepository,
+                                    SerieVotacaoService serieVotacaoService,
+                                    MeterRegistry meterRegistry) {
+        this.votoRepository = votoRepository;
+        this.contagemVotosRepository = contagemVotosRepository;
+        this.serieVotacaoService = serieVotacaoService;
+        this.falhasContadores = Counter.builder("votacao.contadores.falhas")
+                .description("Votos gravados sem atualizar os contadores da sessão")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Voto> registrar(Voto voto) {
+        return votoRepository.insert(voto)
+                .onErrorMap(DuplicateKeyException.class, e -> new AssociadoJaVotouException())
+                .flatMap(votoSalvo -> Mono.when(
+                        contagemVotosRepository.incrementar(votoSalvo.getIdSessao(),
+                                votoSalvo.getVoto() ? 1 : 0, votoSalvo.getVoto() ? 0 : 1),
+                        serieVotacaoService.registrar(List.of(votoSalvo)))
+                        .onErrorResume(erro -> registrarFalhaContadores(List.of(votoSalvo), erro))
+                        .thenReturn(votoSalvo));
+    }
+
+    @Override
+    public Mono<Boolean> associadoJaVotou(String idSessao, String cpfAssociado) {
+        return votoRepository.existsByIdSessaoAndCpfAssociado(idSessao, cpfAssociado);
+    }
+
+    /**
+     * Grava todos os votos com um único insert em lote.
+     */
+    @Override
+    public Mono<Set<Integer>> registrarEmLote(List<Voto> votos) {
+        return votoRepository.inserirEmLote(votos)
+                .flatMap(duplicados -> {
+                    List<Voto> aceitos = new ArrayList<>(votos.size());
+                    for (int i = 0; i < votos.size(); i++) {
+                        if (!duplicados.contains(i)) {
+                            aceitos.add(votos.get(i));
+                        }
+                    }
+                    return Mono.when(contagemVotosRepository.incrementar(aceitos),
+                            serieVotacaoService.registrar(aceitos))
+                            .onErrorResume(erro -> registrarFalhaContadores(aceitos, erro))
+                            .thenReturn(duplicados);
+                });
+    }
+
+    private Mono<Void> registrarFalhaContadores(List<Voto> votos, Throwable erro) {
+        falhasContadores.increment(votos.size());
+        Set<String> idsSessoes = votos.stream().map(Voto::getIdSessao).collect(Collectors.toSet());
+        log.error("Votos gravados sem atualizar os contadores das sessões {}; contadores marcados como divergentes",
+                idsSessoes, erro);
+        return contagemVotosRepository.marcarDivergentes(idsSessoes)
+                .onErrorResume(falhaMarcacao -> {
+                    log.error("Não foi possível marcar os contadores das sessões {} como divergentes; conferir com "
+                            + "a apuração por agregação", idsSessoes, falhaMarcacao);
+                    return Mono.empty();
+                });
+    }
+
+}
@@ -0,0 +1,347 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.RegistroVotosService;
+import br.com.votingapi.application.SerieVotacaoService;
+import br.com.votingapi.domain.model.ConjuntoCpfs;
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.Cpf;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import br.com.votingapi.infrastructure.persistence.wal.LogEscritaAntecipada;
+import br.com.votingapi.infrastructure.persistence.wal.VotoRegistrado;
+import br.com.votingapi.infrastructure.service.exception.AssociadoJaVotouException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Confirma o voto assim que ele é gravado no log de escrita antecipada local e registrado na memória, sem
+ * esperar o banco. Os votos são gravados no banco em lote, em segundo plano. Ao iniciar, os votos do log que
+ * ainda não estavam no banco são gravados antes de aceitar novos votos, de forma que nenhum voto confirmado é
+ * perdido.
+ * <p>
+ * Para cada sessão é mantido o conjunto de CPFs que já votaram, compactados em {@code long}
+ * ({@link ConjuntoCpfs}), carregado do banco no primeiro voto da sessão, e os contadores de votos confirmados que
+ * ainda não estão no banco. O conjunto só conhece os votos recebidos por este nó: com mais de uma instância, os
+ * votos de uma sessão devem ser direcionados sempre ao mesmo nó. Uma sessão sem votos pendentes e sem acesso por
+ * {@code votacao.escrita.write-behind.expiracao-sessao-ms} sai da memória e é carregada de novo no próximo voto.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "votacao.escrita.modo", havingValue = "write-behind")
+public class RegistroVotosWriteBehindServiceImpl implements RegistroVotosService {
+
+    private final VotoRepository votoRepository;
+    private final ContagemVotosRepository contagemVotosRepository;
+    private final SerieVotacaoService serieVotacaoService;
+    private final LogEscritaAntecipada logVotos;
+    private final int tamanhoLote;
+    private final long intervaloGravacaoMs;
+    private final long expiracaoSessaoMs;
+
+    private final Map<String, CompletableFuture<AcumuladorSessao>> sessoes = new ConcurrentHashMap<>();
+    private final BlockingDeque<VotoPendente> pendentes = new LinkedBlockingDeque<>();
+    private final Counter votosDescartados;
+    private final Counter sessoesRecontadas;
+    private Disposable gravacao;
+
+    public RegistroVotosWriteBehindServiceImpl(
+            VotoRepository votoRepository,
+            ContagemVotosRepository contagemVotosRepository,
+            SerieVotacaoService serieVotacaoService,
+            MeterRegistry meterRegistry,
+            @Value("${votacao.escrita.write-behind.diretorio:wal}") String diretorio,
+            @Value("${votacao.escrita.write-behind.tamanho-maximo-segmento:67108864}") long tamanhoMaximoSegmento,
+            @Value("${votacao.escrita.write-behind.tamanho-lote:1000}") int tamanhoLote,
+            @Value("${votacao.escrita.write-behind.intervalo-gravacao-ms:50}") long intervaloGravacaoMs,
+            @Value("${votacao.escrita.write-behind.expiracao-sessao-ms:3600000}") long expiracaoSessaoMs)
+            throws IOException {
+        this.votoRepository = votoRepository;
+        this.contagemVotosRepository = contagemVotosRepository;
+        this.serieVotacaoService = serieVotacaoService;
+        this.logVotos = new LogEscritaAntecipada(Paths.get(diretorio), tamanhoMaximoSegmento, tamanhoLote);
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloGravacaoMs = intervaloGravacaoMs;
+        this.expiracaoSessaoMs = expiracaoSessaoMs;
+        this.votosDescartados = Counter.builder("votacao.escrita.write-behind.descartados")
+                .description("Votos do log recusados pelo banco por associado que já votou")
+                .register(meterRegistry);
+        this.sessoesRecontadas = Counter.builder("votacao.escrita.write-behind.recontagens")
+                .description("Contadores de sessão recontados a partir da coleção de votos")
+                .register(meterRegistry);
+        Gauge.builder("votacao.escrita.write-behind.sessoes", sessoes, Map::size)
+                .description("Sessões com CPFs e votos pendentes em memória")
+                .register(meterRegistry);
+        Gauge.builder("votacao.escrita.write-behind.pendentes", pendentes, BlockingDeque::size)
+                .description("Votos confirmados que ainda não foram gravados no banco")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Grava no banco os votos que ficaram no log e só então inicia a gravação em segundo plano.
+     */
+    @PostConstruct
+    public void iniciar() {
+        List<VotoRegistrado> recuperados;
+        try {
+            recuperados = logVotos.recuperar();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível ler o log de votos", e);
+        }
+        Flux.fromIterable(recuperados)
+                .map(registrado -> new VotoPendente(registrado, null))
+                .buffer(tamanhoLote)
+                .concatMap(this::gravarLote)
+                .blockLast();
+
+        gravacao = Disposables.composite(
+                Flux.interval(Duration.ofMillis(intervaloGravacaoMs), Schedulers.single())
+                        .onBackpressureDrop()
+                        .concatMap(tick -> gravarPendentes(), 1)
+                        .subscribe(),
+                Flux.interval(Duration.ofMillis(expiracaoSessaoMs), Duration.ofMillis(expiracaoSessaoMs),
+                        Schedulers.single())
+                        .subscribe(tick -> removerInativas()));
+    }
+
+    @Override
+    public Mono<Voto> registrar(Voto voto) {
+        return acumulador(voto.getIdSessao())
+                .flatMap(acumulador -> {
+                    if (!acumulador.acessar()) {
+                        return registrar(voto);
+                    }
+                    long cpf = voto.compactarCpf();
+                    if (!acumulador.cpfs.adicionar(cpf)) {
+                        return Mono.error(new AssociadoJaVotouException());
+                    }
+                    if (voto.getId() == null) {
+                        voto.setId(new ObjectId().toHexString());
+                    }
+                    return Mono.fromFuture(logVotos.anexar(voto))
+                            .doOnError(erro -> acumulador.cpfs.remover(cpf))
+                            .map(segmento -> {
+                                acumulador.adicionar(voto, 1);
+                                pendentes.add(new VotoPendente(new VotoRegistrado(voto, segmento), acumulador));
+                                return voto;
+                            });
+                });
+    }
+
+    /**
+     * Consulta o conjunto de CPFs da sessão, se já estiver carregado. Caso contrário consulta o banco, sem
+     * carregar o conjunto, para que votos em sessões inexistentes não ocupem memória.
+     */
+    @Override
+    public Mono<Boolean> associadoJaVotou(String idSessao, String cpfAssociado) {
+        CompletableFuture<AcumuladorSessao> acumulador = sessoes.get(idSessao);
+        return acumulador == null
+                ? votoRepository.existsByIdSessaoAndCpfAssociado(idSessao, cpfAssociado)
+                : Mono.fromFuture(acumulador).flatMap(carregado -> carregado.acessar()
+                        ? Mono.just(carregado.cpfs.contem(Cpf.compactar(cpfAssociado)))
+                        : associadoJaVotou(idSessao, cpfAssociado));
+    }
+
+    @Override
+    public Mono<ContagemVotos> contagemPendente(String idSessao) {
+        CompletableFuture<AcumuladorSessao> acumulador = sessoes.get(idSessao);
+        return acumulador == null ? Mono.empty() : Mono.fromFuture(acumulador).map(AcumuladorSessao::contagem);
+    }
+
+    /**
+     * Grava no banco o que estiver pendente. Os votos que não forem gravados continuam no log e são
+     * recuperados na próxima inicialização.
+     */
+    @PreDestroy
+    public void encerrar() {
+        if (gravacao != null) {
+            gravacao.dispose();
+        }
+        try {
+            gravarPendentes().block(Duration.ofSeconds(30));
+            logVotos.close();
+        } catch (IOException e) {
+            log.error("Erro ao fechar o log de votos", e);
+        }
+    }
+
+    private Mono<AcumuladorSessao> acumulador(String idSessao) {
+        return Mono.defer(() -> Mono.fromFuture(sessoes.computeIfAbsent(idSessao, id -> {
+            CompletableFuture<AcumuladorSessao> carga = votoRepository.findCpfsByIdSessao(id)
+                    .collect(ConjuntoCpfs::new, (cpfs, voto) -> CpfsArmazenados.compactar(voto, cpfs::adicionar))
+                    .map(AcumuladorSessao::new)
+                    .toFuture();
+            carga.whenComplete((acumulador, erro) -> {
+                if (erro != null) {
+                    sessoes.remove(id, carga);
+                }
+            });
+            return carga;
+        })));
+    }
+
+    /**
+     * Retira da memória as sessões sem votos pendentes e sem acesso desde a última verificação. O acumulador é
+     * marcado como retirado e sai do mapa na mesma operação atômica, sob o bloqueio do próprio acumulador que o
+     * voto usa para registrar o acesso: um voto que chega depois disso não usa o acumulador retirado e carrega a
+     * sessão de novo do banco, onde já estão todos os votos do acumulador retirado.
+     */
+    private void removerInativas() {
+        long limite = System.currentTimeMillis() - expiracaoSessaoMs;
+        sessoes.forEach((idSessao, carga) -> {
+            AcumuladorSessao acumulador = carga.isDone() && !carga.isCompletedExceptionally() ? carga.join() : null;
+            if (acumulador != null) {
+                sessoes.computeIfPresent(idSessao,
+                        (id, atual) -> atual == carga && acumulador.retirar(limite) ? null : atual);
+            }
+        });
+    }
+
+    private Mono<Void> gravarPendentes() {
+        return Mono.defer(() -> {
+            List<VotoPendente> lote = new ArrayList<>(tamanhoLote);
+            pendentes.drainTo(lote, tamanhoLote);
+            return gravarLote(lote)
+                    .doOnError(erro -> {
+                        log.error("Erro ao gravar {} votos pendentes, nova tentativa em seguida", lote.size(), erro);
+                        for (int i = lote.size() - 1; i >= 0; i--) {
+                            pendentes.addFirst(lote.get(i));
+                        }
+                    })
+                    .onErrorResume(erro -> Mono.empty());
+        }).repeat(() -> pendentes.size() >= tamanhoLote).then();
+    }
+
+    /**
+     * Os contadores do banco são incrementados somente com os votos inseridos. Um voto do log recusado pelo índice
+     * já estava no banco, gravado antes de uma falha que pode ter ocorrido antes ou depois do incremento dos
+     * contadores. Por isso as sessões com votos recusados não são incrementadas: os seus contadores são recontados
+     * a partir da coleção de votos, que já inclui os votos deste lote. Como os lotes são gravados um de cada vez e
+     * os votos da sessão chegam somente a este nó, nenhum incremento ocorre durante a recontagem.
+     */
+    private Mono<Void> gravarLote(List<VotoPendente> lote) {
+        if (lote.isEmpty()) {
+            return Mono.empty();
+        }
+        List<Voto> votos = new ArrayList<>(lote.size());
+        lote.forEach(pendente -> votos.add(pendente.registrado.getVoto()));
+        return votoRepository.inserirEmLote(votos)
+                .flatMap(duplicados -> {
+                    votosDescartados.increment(duplicados.size());
+                    Set<String> recontar = new HashSet<>();
+                    duplicados.forEach(posicao -> recontar.add(votos.get(posicao).getIdSessao()));
+                    List<Voto> aceitos = new ArrayList<>(votos.size());
+                    List<Voto> incrementar = new ArrayList<>(votos.size());
+                    for (int i = 0; i < votos.size(); i++) {
+                        if (!duplicados.contains(i)) {
+                            aceitos.add(votos.get(i));
+                            if (!recontar.contains(votos.get(i).getIdSessao())) {
+                                incrementar.add(votos.get(i));
+                            }
+                        }
+                    }
+                    return Mono.when(contagemVotosRepository.incrementar(incrementar),
+                            Flux.fromIterable(recontar).concatMap(this::recontar),
+                            serieVotacaoService.registrar(aceitos));
+                })
+                .doOnSuccess(gravado -> lote.forEach(pendente -> {
+                    if (pendente.acumulador != null) {
+                        pendente.acumulador.adicionar(pendente.registrado.getVoto(), -1);
+                    }
+                    logVotos.confirmarGravacao(pendente.registrado.getSegmento());
+                }));
+    }
+
+    private Mono<Void> recontar(String idSessao) {
+        log.info("Recontando os contadores da sessão {} a partir da coleção de votos", idSessao);
+        sessoesRecontadas.increment();
+        return votoRepository.contarVotos(idSessao)
+                .flatMap(contagem -> contagemVotosRepository.definir(idSessao, contagem.getPros(),
+                        contagem.getContra()));
+    }
+
+    /**
+     * CPFs que já votaram na sessão e contadores, divididos em células (LongAdder) para não haver disputa entre
+     * as threads, dos votos confirmados que ainda não estão no banco.
+     */
+    private static class AcumuladorSessao {
+        private final ConjuntoCpfs cpfs;
+        private final LongAdder pros = new LongAdder();
+        private final LongAdder contra = new LongAdder();
+        private long ultimoAcesso = System.currentTimeMillis();
+        private boolean retirado;
+
+        private AcumuladorSessao(ConjuntoCpfs cpfs) {
+            this.cpfs = cpfs;
+        }
+
+        /**
+         * @return {@code false} se o acumulador já foi retirado da memória e não pode mais ser usado.
+         */
+        private synchronized boolean acessar() {
+            if (!retirado) {
+                ultimoAcesso = System.currentTimeMillis();
+            }
+            return !retirado;
+        }
+
+        /**
+         * Marca o acumulador como retirado se estiver sem votos pendentes e sem acesso desde o limite.
+         */
+        private synchronized boolean retirar(long limite) {
+            retirado = ultimoAcesso < limite && pros.sum() == 0 && contra.sum() == 0;
+            return retirado;
+        }
+
+        private void adicionar(Voto voto, int quantidade) {
+            (voto.getVoto() ? pros : contra).add(quantidade);
+        }
+
+        private ContagemVotos contagem() {
+            return new ContagemVotos(null, pros.sum(), contra.sum());
+        }
+    }
+
+    /**
+     * Voto confirmado aguardando a gravação no banco, com o acumulador da sessão em que foi contado como pendente.
+     * Os votos recuperados do log não têm acumulador.
+     */
+    private static class VotoPendente {
+        private final VotoRegistrado registrado;
+        private final AcumuladorSessao acumulador;
+
+        private VotoPendente(VotoRegistrado registrado, AcumuladorSessao acumulador) {
+            this.registrado = registrado;
+            this.acumulador = acumulador;
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.domain.model.AssociateVotePermission;
+import br.com.votingapi.domain.model.VerificacaoCpfPendente;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ResultadoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VerificacaoCpfPendenteRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Verifica novamente os CPFs dos votos aceitos enquanto a API de CPF estava indisponível. Quando o associado
+ * não tinha permissão para votar, o voto é removido e descontado dos contadores da sessão. Se a API continuar
+ * indisponível, a verificação fica para a próxima execução.
+ * <p>
+ * A pendência é registrada antes de o voto ser gravado, por isso só é verificada depois de
+ * {@code cpf.api.reverificacao.espera-ms}. Passada essa espera, um voto que não está no banco é considerado não
+ * gravado e sua verificação é descartada.
+ * <p>
+ * O voto só é descontado dos contadores quando esta verificação o removeu. O resultado já gravado da sessão é
+ * excluído, para ser apurado novamente sem o voto, e retirado do {@link CacheResultados} deste nó; os demais nós
+ * deixam de usá-lo em até {@code votacao.resultado.cache.expiracao-ms}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "cpf.api.indisponivel", havingValue = "aceitar")
+public class ReverificacaoCpfService {
+
+    private final ClienteApiCpf clienteApiCpf;
+    private final VerificacaoCpfPendenteRepository verificacaoCpfPendenteRepository;
+    private final VotoRepository votoRepository;
+    private final ContagemVotosRepository contagemVotosRepository;
+    private final ResultadoVotacaoRepository resultadoVotacaoRepository;
+    private final CacheResultados cacheResultados;
+    private final long intervaloMs;
+    private final Duration espera;
+    private final Counter votosRemovidos;
+    private Disposable reverificacao;
+
+    public ReverificacaoCpfService(ClienteApiCpf clienteApiCpf,
+                                   VerificacaoCpfPendenteRepository verificacaoCpfPendenteRepository,
+                                   VotoRepository votoRepository,
+                                   ContagemVotosRepository contagemVotosRepository,
+                                   ResultadoVotacaoRepository resultadoVotacaoRepository,
+                                   CacheResultados cacheResultados,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${cpf.api.reverificacao.intervalo-ms:30000}") long intervaloMs,
+                                   @Value("${cpf.api.reverificacao.espera-ms:60000}") long esperaMs) {
+        this.clienteApiCpf = clienteApiCpf;
+        this.verificacaoCpfPendenteRepository = verificacaoCpfPendenteRepository;
+        this.votoRepository = votoRepository;
+        this.contagemVotosRepository = contagemVotosRepository;
+        this.resultadoVotacaoRepository = resultadoVotacaoRepository;
+        this.cacheResultados = cacheResultados;
+        this.intervaloMs = intervaloMs;
+        this.espera = Duration.ofMillis(esperaMs);
+        this.votosRemovidos = Counter.builder("cpf.api.reverificacao.removidos")
+                .description("Votos aceitos com a API de CPF indisponível e removidos na verificação posterior")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        reverificacao = Flux.interval(Duration.ofMillis(intervaloMs), Schedulers.single())
+                .onBackpressureDrop()
+                .concatMap(tick -> reverificarPendentes(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        reverificacao.dispose();
+    }
+
+    /**
+     * Verifica as pendências uma a uma e para na primeira consulta recusada por indisponibilidade da API.
+     */
+    public Mono<Void> reverificarPendentes() {
+        return verificacaoCpfPendenteRepository.findByDataAceiteBefore(LocalDateTime.now().minus(espera))
+                .concatMap(this::reverificar)
+                .onErrorResume(ClienteApiCpf::indisponivel, erro -> Mono.empty())
+                .onErrorResume(erro -> {
+                    log.warn("Falha ao verificar novamente os CPFs pendentes", erro);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Void> reverificar(VerificacaoCpfPendente pendente) {
+        return clienteApiCpf.consultar(pendente.getCpfAssociado())
+                .filter(cpfResponse -> cpfResponse.getAssociateVotePermission()
+                        != AssociateVotePermission.ABLE_TO_VOTE)
+                .flatMap(cpfResponse -> votoRepository
+                        .findByIdSessaoAndCpfAssociado(pendente.getIdSessao(), pendente.getCpfAssociado())
+                        .flatMap(this::removerVoto))
+                .then(verificacaoCpfPendenteRepository.delete(pendente));
+    }
+
+    private Mono<Void> removerVoto(Voto voto) {
+        log.info("Removendo voto {} da sessão {}: associado sem permissão para votar", voto.getId(),
+                voto.getIdSessao());
+        return votoRepository.remover(voto.getId())
+                .filter(removido -> removido)
+                .flatMap(removido -> contagemVotosRepository.incrementar(voto.getIdSessao(),
+                        voto.getVoto() ? -1 : 0, voto.getVoto() ? 0 : -1)
+                        .then(resultadoVotacaoRepository.deleteById(voto.getIdSessao()))
+                        .then(Mono.fromRunnable(() -> cacheResultados.remover(voto.getIdSessao())))
+                        .doOnSuccess(vazio -> votosRemovidos.increment()));
+    }
+
+}
@@ -0,0 +1,94 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.SerieVotacaoService;
+import br.com.votingapi.domain.model.GranularidadeSerie;
+import br.com.votingapi.domain.model.SerieVotos;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SerieVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.SerieVotacao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.SerieVotacao.Ponto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Slf4j
+@Service
+public class SerieVotacaoServiceImpl implements SerieVotacaoService {
+
+    private final SerieVotosRepository serieVotosRepository;
+    private final CacheMetadadosSessao cacheMetadadosSessao;
+
+    public SerieVotacaoServiceImpl(SerieVotosRepository serieVotosRepository,
+                                   CacheMetadadosSessao cacheMetadadosSessao) {
+        this.serieVotosRepository = serieVotosRepository;
+        this.cacheMetadadosSessao = cacheMetadadosSessao;
+    }
+
+    @Override
+    public Mono<Void> registrar(Collection<Voto> votos) {
+        if (votos.isEmpty()) {
+            return Mono.empty();
+        }
+        return serieVotosRepository.incrementar(votos)
+                .onErrorResume(erro -> {
+                    log.warn("Erro ao registrar {} votos nas séries", votos.size(), erro);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Lê somente os documentos da série, um por minuto ou por hora de votação, sem ler os votos.
+     */
+    @Override
+    public Mono<SerieVotacao> buscarSerie(String idSessao, GranularidadeSerie granularidade) {
+        return cacheMetadadosSessao.buscar(idSessao)
+                .switchIfEmpty(Mono.error(
+                        new EmptyResultDataAccessException("Sessão de Votação não encontrada.", 1)))
+                .flatMap(sessaoVotacao -> serieVotosRepository
+                        .findByIdSessaoAndGranularidadeOrderByInicio(idSessao, granularidade)
+                        .collectList())
+                .map(documentos -> montarSerie(idSessao, granularidade, documentos));
+    }
+
+    private static SerieVotacao montarSerie(String idSessao, GranularidadeSerie granularidade,
+                                            List<SerieVotos> documentos) {
+        List<Ponto> pontos = new ArrayList<>();
+        Ponto pico = null;
+        for (SerieVotos documento : documentos) {
+            Map<Integer, Ponto> pontosDocumento = new TreeMap<>();
+            adicionar(pontosDocumento, granularidade, documento, documento.getPros(), true);
+            adicionar(pontosDocumento, granularidade, documento, documento.getContra(), false);
+            for (Ponto ponto : pontosDocumento.values()) {
+                pontos.add(ponto);
+                if (pico == null || ponto.getPros() + ponto.getContra() > pico.getPros() + pico.getContra()) {
+                    pico = ponto;
+                }
+            }
+        }
+        return new SerieVotacao(idSessao, granularidade, pontos, pico);
+    }
+
+    private static void adicionar(Map<Integer, Ponto> pontos, GranularidadeSerie granularidade,
+                                  SerieVotos documento, Map<String, Long> contagens, boolean pros) {
+        if (contagens == null) {
+            return;
+        }
+        contagens.forEach((posicao, quantidade) -> {
+            Ponto ponto = pontos.computeIfAbsent(Integer.valueOf(posicao), p -> new Ponto(
+                    granularidade.instante(documento.getInicio(), p), 0, 0));
+            if (pros) {
+                ponto.setPros(quantidade);
+            } else {
+                ponto.setContra(quantidade);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,19 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResumoVotacao;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Publicado pelo {@link EncerramentoSessoesService} uma única vez por sessão, no nó que a encerrou, com o
+ * resultado final da votação. Pode ser recebido com {@code @EventListener}.
+ */
+@Data
+@AllArgsConstructor
+public class SessaoVotacaoEncerradaEvent {
+
+    private String idSessao;
+
+    private ResumoVotacao resultado;
+
+}
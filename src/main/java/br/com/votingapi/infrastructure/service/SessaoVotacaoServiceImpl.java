@@ -1,75 +1,232 @@
 package br.com.votingapi.infrastructure.service;
 
+import br.com.votingapi.application.ApuracaoVotosService;
 import br.com.votingapi.application.CPFService;
+import br.com.votingapi.application.RegistroVotosService;
 import br.com.votingapi.application.SessaoVotacaoService;
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.Cpf;
+import br.com.votingapi.domain.model.EstrategiaApuracao;
+import br.com.votingapi.domain.model.Pauta;
+import br.com.votingapi.domain.model.ResultadoVotacao;
 import br.com.votingapi.domain.model.SessaoVotacao;
+import br.com.votingapi.domain.model.VerificacaoCpfPendente;
 import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.configuration.PropriedadesVotacao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ResultadoVotacaoRepository;
 import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
-import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VerificacaoCpfPendenteRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.MetadadosSessao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.Pagina;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoApuracaoSessao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoImportacaoVoto;
 import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResumoVotacao;
 import br.com.votingapi.infrastructure.service.exception.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class SessaoVotacaoServiceImpl implements SessaoVotacaoService {
 
     private final SessaoVotacaoRepository sessaoVotacaoRepository;
-    private final VotoRepository votoRepository;
+    private final CacheMetadadosSessao cacheMetadadosSessao;
+    private final FiltroVotantes filtroVotantes;
+    private final CpfsVotosLegados cpfsVotosLegados;
+    private final ContagemVotosRepository contagemVotosRepository;
+    private final ResultadoVotacaoRepository resultadoVotacaoRepository;
+    private final CacheResultados cacheResultados;
+    private final VerificacaoCpfPendenteRepository verificacaoCpfPendenteRepository;
+    private final CachePautas cachePautas;
+    private final Map<EstrategiaApuracao, ApuracaoVotosService> apuracoes = new EnumMap<>(EstrategiaApuracao.class);
+    private final RegistroVotosService registroVotosService;
     private final CPFService cpfService;
+    private final ImportacaoVotosService importacaoVotosService;
+    private final AcompanhamentoResultadoService acompanhamentoResultadoService;
+    private final Map<Class<? extends Throwable>, Counter> votosRecusados;
+    private final EstrategiaApuracao estrategiaApuracao;
+    private final PropriedadesVotacao.Listagem listagem;
+    private final int tamanhoLoteResultados;
+    private final Duration atrasoEncerramento;
 
     public SessaoVotacaoServiceImpl(SessaoVotacaoRepository sessaoVotacaoRepository,
-                                    VotoRepository votoRepository, CPFService cpfService) {
+                                    CacheMetadadosSessao cacheMetadadosSessao,
+                                    FiltroVotantes filtroVotantes,
+                                    CpfsVotosLegados cpfsVotosLegados,
+                                    ContagemVotosRepository contagemVotosRepository,
+                                    ResultadoVotacaoRepository resultadoVotacaoRepository,
+                                    CacheResultados cacheResultados,
+                                    VerificacaoCpfPendenteRepository verificacaoCpfPendenteRepository,
+                                    CachePautas cachePautas,
+                                    List<ApuracaoVotosService> apuracoes,
+                                    RegistroVotosService registroVotosService,
+                                    CPFService cpfService,
+                                    ImportacaoVotosService importacaoVotosService,
+                                    AcompanhamentoResultadoService acompanhamentoResultadoService,
+                                    MeterRegistry meterRegistry,
+                                    PropriedadesVotacao propriedades) {
         this.sessaoVotacaoRepository = sessaoVotacaoRepository;
-        this.votoRepository = votoRepository;
+        this.cacheMetadadosSessao = cacheMetadadosSessao;
+        this.filtroVotantes = filtroVotantes;
+        this.cpfsVotosLegados = cpfsVotosLegados;
+        this.contagemVotosRepository = contagemVotosRepository;
+        this.resultadoVotacaoRepository = resultadoVotacaoRepository;
+        this.cacheResultados = cacheResultados;
+        this.verificacaoCpfPendenteRepository = verificacaoCpfPendenteRepository;
+        this.cachePautas = cachePautas;
+        apuracoes.forEach(apuracao -> this.apuracoes.put(apuracao.getEstrategia(), apuracao));
+        this.registroVotosService = registroVotosService;
         this.cpfService = cpfService;
+        this.importacaoVotosService = importacaoVotosService;
+        this.acompanhamentoResultadoService = acompanhamentoResultadoService;
+        this.votosRecusados = criarContadoresRecusa(meterRegistry);
+        this.estrategiaApuracao = propriedades.getApuracao().getEstrategia();
+        this.listagem = propriedades.getListagem();
+        this.tamanhoLoteResultados = propriedades.getResultado().getLote().getTamanhoLote();
+        this.atrasoEncerramento = Duration.ofMillis(propriedades.getEncerramento().getAtrasoMs());
     }
 
+    /**
+     * Lê somente os metadados das sessões, sem a pauta e os votos, à medida que são pedidos, em lotes de
+     * {@code votacao.listagem.tamanho-lote}.
+     */
     @Override
-    public Flux<SessaoVotacao> listarTodas() {
-        return sessaoVotacaoRepository.findAll();
+    public Flux<MetadadosSessao> listarTodas() {
+        return sessaoVotacaoRepository.buscarMetadadosTodas(listagem.getTamanhoLote())
+                .limitRate(listagem.getTamanhoLote());
+    }
+
+    /**
+     * Lê somente os metadados das sessões, sem a pauta e os votos. O tamanho da página é limitado a
+     * {@code votacao.listagem.tamanho-maximo-pagina}.
+     */
+    @Override
+    public Mono<Pagina<MetadadosSessao>> listarPagina(String aposId, Integer tamanho) {
+        int tamanhoEfetivo = tamanho == null ? listagem.getTamanhoPagina()
+                : Math.max(1, Math.min(tamanho, listagem.getTamanhoMaximoPagina()));
+        return sessaoVotacaoRepository.buscarMetadadosPagina(aposId, tamanhoEfetivo)
+                .collectList()
+                .map(sessoes -> Pagina.de(sessoes, tamanhoEfetivo, MetadadosSessao::getId));
     }
 
     @Override
     public Mono<SessaoVotacao> salvar(SessaoVotacao sessaoVotacao) {
         log.trace("Salvando uma nova sessão de votação");
-        return sessaoVotacaoRepository.findByPautaId(sessaoVotacao.getPauta().getId())
-                .flatMap(s -> Mono.error(new SessaoVotacaoJaCadastradaException()))
+        return sessaoVotacaoRepository.existsByPautaId(sessaoVotacao.getPauta().getId())
+                .flatMap(existe -> existe ? Mono.error(new SessaoVotacaoJaCadastradaException()) : Mono.empty())
                 .then(Mono.just(sessaoVotacao)
                         .map(this::inicializarDatas)
                         .map(this::verificarDatasValidas)
-                        .flatMap(sessaoVotacaoRepository::save));
+                        .flatMap(sessaoVotacaoRepository::save)
+                        .flatMap(sessaoSalva -> contagemVotosRepository
+                                .insert(new ContagemVotos(sessaoSalva.getId(), 0, 0))
+                                .thenReturn(sessaoSalva)));
     }
 
+    /**
+     * Admite o voto executando primeiro as verificações mais baratas: o dígito verificador do CPF, em memória; a
+     * sessão e o voto anterior do associado, consultados ao mesmo tempo; e por último a API de CPF. Um voto
+     * recusado em uma verificação local não chega a consultar a API.
+     */
     @Override
     public Mono<Voto> votar(String idSessao, Voto voto) {
         log.debug("Processando voto para associado {} na sessão {} ", voto.getCpfAssociado(), idSessao);
-        return cpfService.verificarSeCPFPodeVotar(voto)
-                .then(sessaoVotacaoRepository.findById(idSessao))
-                .switchIfEmpty(Mono.error(
-                        new EmptyResultDataAccessException("Sessão de Votação não encontrada.", 1)))
-                .map(sessaoVotacao -> validarSessao(sessaoVotacao, voto))
-                .zipWith(votoRepository.save(voto))
-                .flatMap(tuple2 -> {
-                    tuple2.getT1().getVotos().add(tuple2.getT2());
-                    return sessaoVotacaoRepository.save(tuple2.getT1());
-                })
-                .thenReturn(voto);
+        voto.setIdSessao(idSessao);
+        return verificarCpf(voto)
+                .then(verificarSessaoEVotoAnterior(idSessao, voto))
+                .then(Mono.defer(() -> cpfService.verificarSeCPFPodeVotar(voto)))
+                .then(Mono.defer(() -> {
+                    voto.setCpfCompacto(Cpf.compactar(voto.getCpfAssociado()));
+                    voto.setDataRegistro(LocalDateTime.now());
+                    return registroVotosService.registrar(voto);
+                }))
+                .doOnNext(votoSalvo -> filtroVotantes.adicionar(List.of(votoSalvo)))
+                .doOnError(this::contarRecusa);
+    }
+
+    /**
+     * Atendido pelo {@link ImportacaoVotosService}.
+     */
+    @Override
+    public Flux<ResultadoImportacaoVoto> importarVotos(String idSessao, Flux<Voto> votos) {
+        return importacaoVotosService.importar(idSessao, votos);
     }
 
+    /**
+     * O resultado de uma sessão encerrada é apurado uma única vez e gravado na coleção de resultados, depois de
+     * {@code votacao.encerramento.atraso-ms} do término, quando os votos do fim da sessão já foram gravados, e
+     * depois da nova verificação dos CPFs aceitos com a API de CPF indisponível. Até lá cada consulta apura o
+     * resultado, sem gravá-lo, e o marca como provisório. As consultas seguintes à
+     * gravação são atendidas pelo {@link CacheResultados} ou, fora dele, pela coleção de resultados.
+     */
     @Override
     public Mono<ResumoVotacao> apurarResultadoVotacao(String idSessao) {
-        log.debug("Apurando resultado da votação da sessão {}", idSessao);
-        return buscarSessaoVotacaoPeloId(idSessao)
-                .map(this::validarSessaoEncerrada)
-                .map(this::montarResumo);
+        return cacheResultados.buscar(idSessao, id -> resultadoVotacaoRepository.findById(id)
+                .map(this::converterResultado))
+                .switchIfEmpty(Mono.defer(() -> materializarResultado(idSessao)));
+    }
+
+    /**
+     * Apura o resultado com a estratégia informada, sem usar nem gravar o resultado já apurado. Serve para conferir
+     * o resultado de sessões com contadores ausentes ou suspeitos.
+     */
+    @Override
+    public Mono<ResumoVotacao> apurarResultadoVotacao(String idSessao, EstrategiaApuracao estrategia) {
+        return apurar(idSessao, estrategia);
+    }
+
+    /**
+     * Consulta as sessões em lotes de {@code votacao.resultado.lote.tamanho-lote}, com um número fixo de consultas
+     * ($in) por lote. Os resultados de cada lote são enviados à medida que ficam prontos: primeiro os que estão no
+     * {@link CacheResultados}, depois os já gravados na coleção de resultados e por último os apurados agora.
+     * IDs repetidos são consultados uma única vez.
+     */
+    @Override
+    public Flux<ResultadoApuracaoSessao> apurarResultadosVotacao(List<String> idsSessoes) {
+        return Flux.fromIterable(new LinkedHashSet<>(idsSessoes))
+                .buffer(tamanhoLoteResultados)
+                .concatMap(lote -> apurarLoteResultados(lote, true));
+    }
+
+    /**
+     * Como {@link #apurarResultadosVotacao}, mas sem gravar nenhum resultado: os resultados ainda não gravados
+     * são apurados e enviados sem ir para a coleção de resultados nem para o {@link CacheResultados}.
+     */
+    @Override
+    public Flux<ResultadoApuracaoSessao> consultarResultadosVotacao(List<String> idsSessoes) {
+        return Flux.fromIterable(new LinkedHashSet<>(idsSessoes))
+                .buffer(tamanhoLoteResultados)
+                .concatMap(lote -> apurarLoteResultados(lote, false));
+    }
+
+    /**
+     * Atendido pelo {@link AcompanhamentoResultadoService}.
+     */
+    @Override
+    public Flux<ResumoVotacao> acompanharResultadoVotacao(String idSessao) {
+        return acompanhamentoResultadoService.acompanhar(idSessao);
     }
 
     @Override
@@ -77,6 +234,238 @@ public class SessaoVotacaoServiceImpl implements SessaoVotacaoService {
         return this.sessaoVotacaoRepository.findById(idSessao);
     }
 
+    /**
+     * Atendido pelo {@link CacheMetadadosSessao}, sem ler a pauta e os votos da sessão.
+     */
+    @Override
+    public Mono<MetadadosSessao> buscarMetadadosSessao(String idSessao) {
+        return cacheMetadadosSessao.buscar(idSessao);
+    }
+
+    /**
+     * Apura o resultado com a estratégia de {@code votacao.apuracao.estrategia} e, se já for definitivo, o grava.
+     * Se outra apuração da mesma sessão gravou antes, usa o resultado já gravado.
+     */
+    private Mono<ResumoVotacao> materializarResultado(String idSessao) {
+        return cacheMetadadosSessao.buscar(idSessao)
+                .map(this::validarSessaoEncerrada)
+                .flatMap(this::resultadoDefinitivo)
+                .flatMap(definitivo -> apurar(idSessao, estrategiaApuracao)
+                        .flatMap(resumoVotacao -> concluirApuracao(idSessao, resumoVotacao, definitivo)));
+    }
+
+    /**
+     * O resultado só é definitivo depois de {@code votacao.encerramento.atraso-ms} do término, o mesmo atraso do
+     * encerramento da sessão, sem votos da sessão aguardando gravação neste nó e sem votos aceitos com a API de
+     * CPF indisponível aguardando a nova verificação, que pode removê-los.
+     */
+    private Mono<Boolean> resultadoDefinitivo(MetadadosSessao sessaoVotacao) {
+        if (LocalDateTime.now().isBefore(sessaoVotacao.getDataFim().plus(atrasoEncerramento))) {
+            return Mono.just(false);
+        }
+        return verificacaoCpfPendenteRepository.existsByIdSessao(sessaoVotacao.getId())
+                .flatMap(verificacaoPendente -> resultadoDefinitivo(sessaoVotacao, verificacaoPendente));
+    }
+
+    private Mono<Boolean> resultadoDefinitivo(MetadadosSessao sessaoVotacao, boolean verificacaoCpfPendente) {
+        if (verificacaoCpfPendente
+                || LocalDateTime.now().isBefore(sessaoVotacao.getDataFim().plus(atrasoEncerramento))) {
+            return Mono.just(false);
+        }
+        return registroVotosService.contagemPendente(sessaoVotacao.getId())
+                .map(pendente -> pendente.getPros() == 0 && pendente.getContra() == 0)
+                .defaultIfEmpty(true);
+    }
+
+    /**
+     * Grava o resultado definitivo e o coloca no {@link CacheResultados}. O provisório só é marcado.
+     */
+    private Mono<ResumoVotacao> concluirApuracao(String idSessao, ResumoVotacao resumoVotacao, boolean definitivo) {
+        if (!definitivo) {
+            resumoVotacao.setProvisorio(true);
+            return Mono.just(resumoVotacao);
+        }
+        return gravarResultado(idSessao, resumoVotacao)
+                .doOnNext(resumoGravado -> cacheResultados.adicionar(idSessao, resumoGravado));
+    }
+
+    private Mono<ResumoVotacao> gravarResultado(String idSessao, ResumoVotacao resumoVotacao) {
+        return resultadoVotacaoRepository.insert(new ResultadoVotacao(idSessao, resumoVotacao.getAssunto(),
+                resumoVotacao.getPros(), resumoVotacao.getContra(), resumoVotacao.getAprovado(), LocalDateTime.now()))
+                .onErrorResume(DuplicateKeyException.class, e -> resultadoVotacaoRepository.findById(idSessao))
+                .map(this::converterResultado);
+    }
+
+    private Flux<ResultadoApuracaoSessao> apurarLoteResultados(List<String> idsSessoes, boolean gravar) {
+        Map<String, ResumoVotacao> carregados = cacheResultados.buscarCarregados(idsSessoes);
+        Set<String> pendentes = ConcurrentHashMap.newKeySet();
+        idsSessoes.stream()
+                .filter(idSessao -> !carregados.containsKey(idSessao))
+                .forEach(pendentes::add);
+        Flux<ResultadoApuracaoSessao> gravados = pendentes.isEmpty() ? Flux.empty()
+                : resultadoVotacaoRepository.findAllById(List.copyOf(pendentes))
+                .map(resultadoVotacao -> {
+                    ResumoVotacao resumoVotacao = converterResultado(resultadoVotacao);
+                    if (gravar) {
+                        cacheResultados.adicionar(resultadoVotacao.getId(), resumoVotacao);
+                    }
+                    pendentes.remove(resultadoVotacao.getId());
+                    return ResultadoApuracaoSessao.apurado(resultadoVotacao.getId(), resumoVotacao);
+                });
+        return Flux.fromIterable(carregados.entrySet())
+                .map(carregado -> ResultadoApuracaoSessao.apurado(carregado.getKey(), carregado.getValue()))
+                .concatWith(gravados)
+                .concatWith(Flux.defer(() -> materializarResultados(idsSessoes.stream()
+                        .filter(pendentes::contains)
+                        .collect(Collectors.toList()), gravar)));
+    }
+
+    /**
+     * Lê os metadados das sessões e as contagens com uma consulta ($in) cada, independente da quantidade de
+     * sessões, e as pautas do {@link CachePautas}, que lê as que faltam também com uma única consulta. Somente a
+     * gravação dos resultados é feita sessão a sessão, e só para os resultados já definitivos; os demais são
+     * enviados como provisórios.
+     */
+    private Flux<ResultadoApuracaoSessao> materializarResultados(List<String> idsSessoes, boolean gravar) {
+        if (idsSessoes.isEmpty()) {
+            return Flux.empty();
+        }
+        return sessaoVotacaoRepository.buscarMetadados(idsSessoes)
+                .collectMap(MetadadosSessao::getId)
+                .flatMapMany(sessoes -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    List<ResultadoApuracaoSessao> recusados = new ArrayList<>();
+                    List<MetadadosSessao> encerradas = new ArrayList<>();
+                    for (String idSessao : idsSessoes) {
+                        MetadadosSessao sessaoVotacao = sessoes.get(idSessao);
+                        if (sessaoVotacao == null) {
+                            recusados.add(ResultadoApuracaoSessao.recusado(idSessao,
+                                    ResultadoApuracaoSessao.Situacao.SESSAO_NAO_ENCONTRADA));
+                        } else if (now.isBefore(sessaoVotacao.getDataFim())) {
+                            recusados.add(ResultadoApuracaoSessao.recusado(idSessao,
+                                    ResultadoApuracaoSessao.Situacao.SESSAO_NAO_ENCERRADA));
+                        } else {
+                            encerradas.add(sessaoVotacao);
+                        }
+                    }
+                    return Flux.fromIterable(recusados).concatWith(apurarEncerradas(encerradas, gravar));
+                });
+    }
+
+    private Flux<ResultadoApuracaoSessao> apurarEncerradas(List<MetadadosSessao> sessoes, boolean gravar) {
+        if (sessoes.isEmpty()) {
+            return Flux.empty();
+        }
+        List<String> idsSessoes = sessoes.stream().map(MetadadosSessao::getId).collect(Collectors.toList());
+        Set<String> idsPautas = sessoes.stream()
+                .map(MetadadosSessao::getIdPauta)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return Mono.zip(
+                cachePautas.buscar(idsPautas),
+                apuracoes.get(estrategiaApuracao).apurar(idsSessoes).collectMap(ContagemVotos::getId),
+                verificacaoCpfPendenteRepository.findIdsSessoesByIdSessaoIn(idsSessoes)
+                        .map(VerificacaoCpfPendente::getIdSessao)
+                        .collect(Collectors.toSet()))
+                .flatMapMany(apuracao -> Flux.fromIterable(sessoes)
+                        .flatMap(sessaoVotacao -> {
+                            String idSessao = sessaoVotacao.getId();
+                            Pauta pauta = apuracao.getT1().get(sessaoVotacao.getIdPauta());
+                            ResumoVotacao resumoVotacao = ResumoVotacao.de(pauta == null ? null : pauta.getAssunto(),
+                                    apuracao.getT2().getOrDefault(idSessao, new ContagemVotos(idSessao, 0, 0)));
+                            return resultadoDefinitivo(sessaoVotacao, apuracao.getT3().contains(idSessao))
+                                    .flatMap(definitivo -> definitivo && !gravar ? Mono.just(resumoVotacao)
+                                            : concluirApuracao(idSessao, resumoVotacao, definitivo))
+                                    .map(resumo -> ResultadoApuracaoSessao.apurado(idSessao, resumo));
+                        }));
+    }
+
+    private Mono<ResumoVotacao> apurar(String idSessao, EstrategiaApuracao estrategia) {
+        log.debug("Apurando resultado da votação da sessão {} por {}", idSessao, estrategia);
+        return cacheMetadadosSessao.buscar(idSessao)
+                .map(this::validarSessaoEncerrada)
+                .flatMap(sessaoVotacao -> Mono.zip(
+                        cachePautas.buscar(sessaoVotacao.getIdPauta()).map(Pauta::getAssunto),
+                        apuracoes.get(estrategia).apurar(idSessao)))
+                .map(apuracao -> ResumoVotacao.de(apuracao.getT1(), apuracao.getT2()));
+    }
+
+    private ResumoVotacao converterResultado(ResultadoVotacao resultadoVotacao) {
+        return ResumoVotacao.builder()
+                .assunto(resultadoVotacao.getAssunto())
+                .pros(resultadoVotacao.getPros())
+                .contra(resultadoVotacao.getContra())
+                .aprovado(resultadoVotacao.isAprovado())
+                .build();
+    }
+
+    /**
+     * Recusa o CPF inválido e passa o válido para a forma canônica, só com os 11 dígitos, antes de qualquer
+     * consulta: o índice único de sessão e CPF e a consulta de voto anterior comparam o CPF como texto.
+     */
+    private Mono<Void> verificarCpf(Voto voto) {
+        if (!Cpf.valido(voto.getCpfAssociado())) {
+            return Mono.error(new CpfInvalidoException());
+        }
+        voto.setCpfAssociado(Cpf.expandir(Cpf.compactar(voto.getCpfAssociado())));
+        return Mono.empty();
+    }
+
+    /**
+     * As duas consultas são feitas em paralelo, mas os motivos de recusa são avaliados sempre na mesma ordem:
+     * sessão inexistente, fora do período de votação e associado que já votou. A consulta de voto anterior passa
+     * pelo {@link FiltroVotantes}, que dispensa o banco quando o associado certamente não votou. Os votos da lista
+     * da sessão, fora do índice único de sessão e CPF, são verificados pelo {@link CpfsVotosLegados}.
+     */
+    private Mono<MetadadosSessao> verificarSessaoEVotoAnterior(String idSessao, Voto voto) {
+        return Mono.zip(
+                cacheMetadadosSessao.buscar(idSessao)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty()),
+                Mono.defer(() -> filtroVotantes.associadoJaVotou(idSessao, voto.compactarCpf(),
+                        () -> registroVotosService.associadoJaVotou(idSessao, voto.getCpfAssociado()))),
+                Mono.defer(() -> cpfsVotosLegados.associadoJaVotou(idSessao, voto.compactarCpf())))
+                .map(consultas -> {
+                    MetadadosSessao sessaoVotacao = consultas.getT1().orElseThrow(() ->
+                            new EmptyResultDataAccessException("Sessão de Votação não encontrada.", 1));
+                    validarSessao(sessaoVotacao);
+                    if (consultas.getT2() || consultas.getT3()) {
+                        throw new AssociadoJaVotouException();
+                    }
+                    return sessaoVotacao;
+                });
+    }
+
+    private void contarRecusa(Throwable erro) {
+        Counter contador = votosRecusados.get(erro.getClass());
+        if (contador != null) {
+            contador.increment();
+        }
+    }
+
+    private static Map<Class<? extends Throwable>, Counter> criarContadoresRecusa(MeterRegistry meterRegistry) {
+        Map<Class<? extends Throwable>, Counter> contadores = new HashMap<>();
+        contadores.put(CpfInvalidoException.class, contadorRecusa(meterRegistry, "cpf-invalido"));
+        contadores.put(EmptyResultDataAccessException.class, contadorRecusa(meterRegistry, "sessao-inexistente"));
+        contadores.put(SessaoVotacaoNaoIniciadaException.class, contadorRecusa(meterRegistry, "sessao-nao-iniciada"));
+        contadores.put(SessaoVotacaoEncerradaException.class, contadorRecusa(meterRegistry, "sessao-encerrada"));
+        contadores.put(AssociadoJaVotouException.class, contadorRecusa(meterRegistry, "associado-ja-votou"));
+        contadores.put(AssociadoSemPermissaoParaVotarException.class,
+                contadorRecusa(meterRegistry, "associado-sem-permissao"));
+        contadores.put(ServicoCpfIndisponivelException.class,
+                contadorRecusa(meterRegistry, "servico-cpf-indisponivel"));
+        contadores.put(EscritaVotosSobrecarregadaException.class,
+                contadorRecusa(meterRegistry, "escrita-sobrecarregada"));
+        return contadores;
+    }
+
+    private static Counter contadorRecusa(MeterRegistry meterRegistry, String motivo) {
+        return Counter.builder("votacao.votos.recusados")
+                .tag("motivo", motivo)
+                .description("Votos recusados, por motivo")
+                .register(meterRegistry);
+    }
+
     private SessaoVotacao inicializarDatas(SessaoVotacao sessaoVotacao) {
         LocalDateTime dataInicio = sessaoVotacao.getDataInicio();
         LocalDateTime dataFim = sessaoVotacao.getDataFim();
@@ -93,30 +482,23 @@ public class SessaoVotacaoServiceImpl implements SessaoVotacaoService {
         return sessaoVotacao;
     }
 
-    private SessaoVotacao validarSessao(SessaoVotacao sessaoVotacao, Voto voto) {
+    /**
+     * Verifica se a sessão está aberta, com as datas mantidas em memória pelo {@link CacheMetadadosSessao}.
+     */
+    private MetadadosSessao validarSessao(MetadadosSessao sessaoVotacao) {
         LocalDateTime now = LocalDateTime.now();
         verificaSeSessaoFoiIniciada(sessaoVotacao, now);
         verificaSeSessaoEstaEncerrada(sessaoVotacao, now);
-        verificarSeAssociadoJaVotouNessaPauta(sessaoVotacao, voto);
         return sessaoVotacao;
     }
 
-    private void verificarSeAssociadoJaVotouNessaPauta(SessaoVotacao sessaoVotacao, Voto voto) {
-        sessaoVotacao.getVotos().stream()
-                .filter(voto1 -> voto1.getCpfAssociado().equals(voto.getCpfAssociado()))
-                .findAny()
-                .ifPresent(v -> {
-                    throw new AssociadoJaVotouException();
-                });
-    }
-
-    private void verificaSeSessaoEstaEncerrada(SessaoVotacao sessaoVotacao, LocalDateTime now) {
+    private void verificaSeSessaoEstaEncerrada(MetadadosSessao sessaoVotacao, LocalDateTime now) {
         if (now.isAfter(sessaoVotacao.getDataFim())) {
             throw new SessaoVotacaoEncerradaException();
         }
     }
 
-    private void verificaSeSessaoFoiIniciada(SessaoVotacao sessaoVotacao, LocalDateTime now) {
+    private void verificaSeSessaoFoiIniciada(MetadadosSessao sessaoVotacao, LocalDateTime now) {
         if (now.isBefore(sessaoVotacao.getDataInicio())) {
             throw new SessaoVotacaoNaoIniciadaException();
         }
@@ -129,29 +511,11 @@ public class SessaoVotacaoServiceImpl implements SessaoVotacaoService {
         return sessaoVotacao;
     }
 
-    private SessaoVotacao validarSessaoEncerrada(SessaoVotacao sessaoVotacao) {
+    private MetadadosSessao validarSessaoEncerrada(MetadadosSessao sessaoVotacao) {
         if (LocalDateTime.now().isBefore(sessaoVotacao.getDataFim())) {
             throw new SessaoVotacaoNaoEncerradaException();
         }
         return sessaoVotacao;
     }
 
-    private ResumoVotacao montarResumo(SessaoVotacao sessaoVotacao) {
-        long qtdPros = sessaoVotacao.getVotos()
-                .stream()
-                .filter(Voto::getVoto)
-                .count();
-
-        long qtdContra = sessaoVotacao.getVotos().size() - qtdPros;
-
-        boolean aprovado = qtdPros > qtdContra; // Maioria simples para aprovar.
-
-        return ResumoVotacao.builder()
-                .assunto(sessaoVotacao.getPauta().getAssunto())
-                .pros(qtdPros)
-                .contra(qtdContra)
-                .aprovado(aprovado)
-                .build();
-    }
-
 }
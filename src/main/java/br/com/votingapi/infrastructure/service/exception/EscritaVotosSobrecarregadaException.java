@@ -0,0 +1,7 @@
+package br.com.votingapi.infrastructure.service.exception;
+
+public class EscritaVotosSobrecarregadaException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+}
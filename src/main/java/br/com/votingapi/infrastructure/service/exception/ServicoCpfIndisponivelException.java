@@ -0,0 +1,11 @@
+package br.com.votingapi.infrastructure.service.exception;
+
+public class ServicoCpfIndisponivelException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ServicoCpfIndisponivelException(Throwable cause) {
+		super(cause);
+	}
+
+}
@@ -91,4 +91,34 @@ public class SessaoVotacaoExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(erros);
     }
 
+    @ExceptionHandler({CpfInvalidoException.class})
+    public ResponseEntity<Object> handleCpfInvalidoException(CpfInvalidoException ex) {
+        String mensagemUsuario = messageSource.getMessage("voto.cpf-invalido", null,
+                LocaleContextHolder.getLocale());
+        String mensagemDesenvolvedor = ex.toString();
+        List<VotingApiExceptionHandler.Erro> erros = Collections.singletonList(
+                new VotingApiExceptionHandler.Erro(mensagemUsuario, mensagemDesenvolvedor));
+        return ResponseEntity.badRequest().body(erros);
+    }
+
+    @ExceptionHandler({ServicoCpfIndisponivelException.class})
+    public ResponseEntity<Object> handleServicoCpfIndisponivelException(ServicoCpfIndisponivelException ex) {
+        String mensagemUsuario = messageSource.getMessage("voto.servico-cpf-indisponivel", null,
+                LocaleContextHolder.getLocale());
+        String mensagemDesenvolvedor = ex.toString();
+        List<VotingApiExceptionHandler.Erro> erros = Collections.singletonList(
+                new VotingApiExceptionHandler.Erro(mensagemUsuario, mensagemDesenvolvedor));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(erros);
+    }
+
+    @ExceptionHandler({EscritaVotosSobrecarregadaException.class})
+    public ResponseEntity<Object> handleEscritaVotosSobrecarregadaException(EscritaVotosSobrecarregadaException ex) {
+        String mensagemUsuario = messageSource.getMessage("voto.escrita-sobrecarregada", null,
+                LocaleContextHolder.getLocale());
+        String mensagemDesenvolvedor = ex.toString();
+        List<VotingApiExceptionHandler.Erro> erros = Collections.singletonList(
+                new VotingApiExceptionHandler.Erro(mensagemUsuario, mensagemDesenvolvedor));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(erros);
+    }
+
 }
@@ -1,5 +1,6 @@
 package br.com.votingapi.infrastructure.service.exception.handler;
 
+import br.com.votingapi.infrastructure.service.exception.CursorInvalidoException;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.context.MessageSource;
@@ -33,6 +34,15 @@ public class VotingApiExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(erros);
     }
 
+    @ExceptionHandler({CursorInvalidoException.class})
+    public ResponseEntity<Object> handleCursorInvalidoException(CursorInvalidoException ex) {
+        String mensagemUsuario = messageSource.getMessage("paginacao.cursor-invalido", null,
+                LocaleContextHolder.getLocale());
+        String mensagemDesenvolvedor = ex.toString();
+        List<Erro> erros = Collections.singletonList(new Erro(mensagemUsuario, mensagemDesenvolvedor));
+        return ResponseEntity.badRequest().body(erros);
+    }
+
     /**
      * Representa o erro que é retornado ao usuário.
      *
@@ -0,0 +1,136 @@
+package br.com.votingapi.benchmark;
+
+import br.com.votingapi.domain.model.ConjuntoCpfs;
+import br.com.votingapi.domain.model.Cpf;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o conjunto de CPFs que já votaram na sessão como Strings em um {@code ConcurrentHashMap}, como era
+ * mantido pelo registro write-behind, com os CPFs compactados em um {@link ConjuntoCpfs}.
+ * <p>
+ * Executar pelo método {@link #main}, com as classes de teste no classpath. O tempo médio por consulta aparece na
+ * coluna {@code Score}, metade das consultas para CPFs que estão no conjunto. A memória retida por CPF de cada
+ * conjunto, medida depois de uma coleta de lixo ao montar os conjuntos, aparece nos resultados secundários
+ * ({@link MemoriaRetida}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class ConjuntoCpfsBenchmark {
+
+    private static final int CONSULTAS = 1 << 16;
+    private static final long CPFS_POSSIVEIS = 100_000_000_000L;
+
+    @Param({"1000000", "10000000"})
+    private int votantes;
+
+    private Set<String> cpfsString;
+    private ConjuntoCpfs cpfsCompactos;
+    private String[] consultas;
+    private int proxima;
+    private double bytesPorCpfString;
+    private double bytesPorCpfCompacto;
+
+    /**
+     * Memória retida por CPF em cada conjunto, informada por iteração como contador auxiliar.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class MemoriaRetida {
+
+        public double bytesPorCpfString;
+        public double bytesPorCpfCompacto;
+
+        @Setup(Level.Iteration)
+        public void copiar(ConjuntoCpfsBenchmark benchmark) {
+            bytesPorCpfString = benchmark.bytesPorCpfString;
+            bytesPorCpfCompacto = benchmark.bytesPorCpfCompacto;
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        Random aleatorio = new Random(42);
+        long[] cpfs = new long[votantes];
+        for (int i = 0; i < votantes; i++) {
+            cpfs[i] = Math.floorMod(aleatorio.nextLong(), CPFS_POSSIVEIS);
+        }
+        long antes = memoriaUsada();
+        cpfsString = ConcurrentHashMap.newKeySet(votantes);
+        for (long cpf : cpfs) {
+            cpfsString.add(Cpf.expandir(cpf));
+        }
+        long depois = memoriaUsada();
+        bytesPorCpfString = (double) (depois - antes) / votantes;
+        antes = depois;
+        cpfsCompactos = new ConjuntoCpfs(votantes);
+        for (long cpf : cpfs) {
+            cpfsCompactos.adicionar(cpf);
+        }
+        bytesPorCpfCompacto = (double) (memoriaUsada() - antes) / votantes;
+        consultas = new String[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            long cpf = i % 2 == 0 ? cpfs[aleatorio.nextInt(votantes)]
+                    : Math.floorMod(aleatorio.nextLong(), CPFS_POSSIVEIS);
+            consultas[i] = Cpf.expandir(cpf);
+        }
+    }
+
+    /**
+     * A String é copiada a cada consulta, como o CPF que chega em cada requisição, para que o hash não venha
+     * pronto da consulta anterior.
+     */
+    @Benchmark
+    public boolean contemString(MemoriaRetida memoria) {
+        return cpfsString.contains(new String(proximaConsulta()));
+    }
+
+    @Benchmark
+    public boolean contemCompacto(MemoriaRetida memoria) {
+        return cpfsCompactos.contem(Cpf.compactar(proximaConsulta()));
+    }
+
+    private String proximaConsulta() {
+        return consultas[proxima++ & (CONSULTAS - 1)];
+    }
+
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConjuntoCpfsBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+}
@@ -0,0 +1,119 @@
+package br.com.votingapi.benchmark;
+
+import br.com.votingapi.VotingApiApplication;
+import br.com.votingapi.domain.model.Pauta;
+import br.com.votingapi.domain.model.SessaoVotacao;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.api.rest.dto.SessaoVotacaoDto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.PautaRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compara a leitura de uma sessão pela entidade, que resolve a pauta e todos os votos da lista da sessão, com a
+ * leitura somente dos metadados, usada pela API de sessões.
+ * <p>
+ * Usa o MongoDB embarcado dos testes. Executar pelo método {@link #main}, com as classes de teste no classpath. O
+ * tempo médio por leitura aparece na coluna {@code Score} e os bytes alocados por leitura em
+ * {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LeituraSessoesBenchmark {
+
+    private static final String ID_SESSAO = "SESSAO1";
+
+    @Param({"0", "1000", "10000"})
+    private int votosPorSessao;
+
+    private ConfigurableApplicationContext contexto;
+    private SessaoVotacaoRepository sessaoVotacaoRepository;
+    private ModelMapper modelMapper;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(VotingApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--votacao.encerramento.habilitado=false");
+        sessaoVotacaoRepository = contexto.getBean(SessaoVotacaoRepository.class);
+        modelMapper = contexto.getBean(ModelMapper.class);
+        PautaRepository pautaRepository = contexto.getBean(PautaRepository.class);
+        VotoRepository votoRepository = contexto.getBean(VotoRepository.class);
+
+        List<Voto> votos = IntStream.range(0, votosPorSessao)
+                .mapToObj(i -> Voto.builder().cpfAssociado(String.format("%011d", i)).voto(i % 2 == 0).build())
+                .collect(Collectors.toList());
+        pautaRepository.deleteAll()
+                .then(votoRepository.deleteAll())
+                .then(sessaoVotacaoRepository.deleteAll())
+                .then(pautaRepository.save(new Pauta("PAUTA1", "Assunto 1")))
+                .thenMany(Flux.fromIterable(votos)
+                        .buffer(1000)
+                        .concatMap(lote -> votoRepository.insert(lote)))
+                .collectList()
+                .flatMap(votosSalvos -> sessaoVotacaoRepository.save(new SessaoVotacao(ID_SESSAO,
+                        new Pauta("PAUTA1", null), LocalDateTime.now(), LocalDateTime.now().plusHours(1),
+                        votosSalvos)))
+                .block();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public SessaoVotacaoDto entidade() {
+        return sessaoVotacaoRepository.findById(ID_SESSAO)
+                .map(sessaoVotacao -> modelMapper.map(sessaoVotacao, SessaoVotacaoDto.class))
+                .block();
+    }
+
+    @Benchmark
+    public SessaoVotacaoDto metadados() {
+        return sessaoVotacaoRepository.buscarMetadados(ID_SESSAO)
+                .map(metadados -> modelMapper.map(metadados, SessaoVotacaoDto.class))
+                .block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LeituraSessoesBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+
+}
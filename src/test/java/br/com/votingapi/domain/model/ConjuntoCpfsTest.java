@@ -0,0 +1,67 @@
+package br.com.votingapi.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConjuntoCpfsTest {
+
+    @Test
+    public void adicionarEContem() {
+        var cpfs = new ConjuntoCpfs();
+        assertTrue(cpfs.adicionar(26622817073L));
+        assertFalse(cpfs.adicionar(26622817073L));
+        assertTrue(cpfs.adicionar(0));
+        assertFalse(cpfs.adicionar(0));
+        assertTrue(cpfs.contem(26622817073L));
+        assertTrue(cpfs.contem(0));
+        assertFalse(cpfs.contem(21165748037L));
+        assertEquals(2, cpfs.tamanho());
+    }
+
+    @Test
+    public void remover() {
+        var cpfs = new ConjuntoCpfs();
+        cpfs.adicionar(26622817073L);
+        cpfs.adicionar(0);
+        assertTrue(cpfs.remover(26622817073L));
+        assertFalse(cpfs.remover(26622817073L));
+        assertTrue(cpfs.remover(0));
+        assertFalse(cpfs.contem(26622817073L));
+        assertFalse(cpfs.contem(0));
+        assertEquals(0, cpfs.tamanho());
+    }
+
+    /**
+     * Compara com um HashSet em uma sequência aleatória de operações, com redimensionamentos e remoções no meio
+     * das sequências de sondagem.
+     */
+    @Test
+    public void equivalenteAoHashSet() {
+        var aleatorio = new Random(42);
+        var cpfs = new ConjuntoCpfs(4);
+        Set<Long> esperado = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            long cpf = aleatorio.nextInt(50_000);
+            switch (aleatorio.nextInt(3)) {
+                case 0:
+                    assertEquals(esperado.add(cpf), cpfs.adicionar(cpf));
+                    break;
+                case 1:
+                    assertEquals(esperado.remove(cpf), cpfs.remover(cpf));
+                    break;
+                default:
+                    assertEquals(esperado.contains(cpf), cpfs.contem(cpf));
+            }
+        }
+        assertEquals(esperado.size(), cpfs.tamanho());
+        esperado.forEach(cpf -> assertTrue(cpfs.contem(cpf)));
+    }
+
+}
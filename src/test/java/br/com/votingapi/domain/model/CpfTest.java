@@ -0,0 +1,44 @@
+package br.com.votingapi.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CpfTest {
+
+    @Test
+    public void valido() {
+        assertTrue(Cpf.valido("26622817073"));
+        assertTrue(Cpf.valido("266.228.170-73"));
+        assertTrue(Cpf.valido("21165748037"));
+    }
+
+    @Test
+    public void invalido() {
+        assertFalse(Cpf.valido(null));
+        assertFalse(Cpf.valido(""));
+        assertFalse(Cpf.valido("12345678900"));
+        assertFalse(Cpf.valido("11111111111"));
+        assertFalse(Cpf.valido("2662281707"));
+        assertFalse(Cpf.valido("266228170730"));
+        assertFalse(Cpf.valido("2662281707A"));
+    }
+
+    @Test
+    public void compactar() {
+        assertEquals(26622817073L, Cpf.compactar("26622817073"));
+        assertEquals(26622817073L, Cpf.compactar("266.228.170-73"));
+        assertEquals(1234567890L, Cpf.compactar("01234567890"));
+        assertEquals("01234567890", Cpf.expandir(Cpf.compactar("012.345.678-90")));
+        assertEquals("00000000000", Cpf.expandir(0));
+        assertThrows(IllegalArgumentException.class, () -> Cpf.compactar(null));
+        assertThrows(IllegalArgumentException.class, () -> Cpf.compactar("2662281707"));
+        assertThrows(IllegalArgumentException.class, () -> Cpf.compactar("266228170730"));
+        assertThrows(IllegalArgumentException.class, () -> Cpf.compactar("2662281707A"));
+        assertThrows(IllegalArgumentException.class, () -> Cpf.expandir(100_000_000_000L));
+    }
+
+}
@@ -0,0 +1,50 @@
+package br.com.votingapi.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FiltroBloomTest {
+
+    @Test
+    public void semFalsosNegativos() {
+        var filtro = new FiltroBloom(10_000, 0.01);
+        for (long i = 0; i < 10_000; i++) {
+            filtro.adicionar(26622817073L + i * 7919);
+        }
+        for (long i = 0; i < 10_000; i++) {
+            assertTrue(filtro.podeConter(26622817073L + i * 7919));
+        }
+        assertEquals(10_000, filtro.quantidade());
+    }
+
+    @Test
+    public void taxaFalsosPositivos() {
+        var filtro = new FiltroBloom(10_000, 0.01);
+        for (long i = 0; i < 10_000; i++) {
+            filtro.adicionar(26622817073L + i * 7919);
+        }
+        int falsosPositivos = 0;
+        for (long i = 0; i < 100_000; i++) {
+            if (filtro.podeConter(10_000_000_000L + i * 104729)) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(falsosPositivos < 2_000, "Falsos positivos: " + falsosPositivos);
+        assertEquals(0.01, filtro.taxaFalsosPositivosEstimada(), 0.001);
+        assertEquals(11_984, filtro.tamanhoBytes());
+    }
+
+    @Test
+    public void vazio() {
+        var filtro = new FiltroBloom(1000, 0.01);
+        assertFalse(filtro.podeConter(26622817073L));
+        assertEquals(0, filtro.taxaFalsosPositivosEstimada());
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(1000, 1));
+    }
+
+}
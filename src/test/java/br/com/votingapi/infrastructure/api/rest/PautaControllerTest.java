@@ -2,24 +2,31 @@ package br.com.votingapi.infrastructure.api.rest;
 
 import br.com.votingapi.domain.model.Pauta;
 import br.com.votingapi.infrastructure.api.rest.dto.PautaDto;
+import br.com.votingapi.infrastructure.configuration.WebFluxConfig;
 import br.com.votingapi.infrastructure.persistence.repository.jpa.PautaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
-@SpringBootTest
+@SpringBootTest(properties = "votacao.listagem.tamanho-pagina=2")
 @DirtiesContext
 @AutoConfigureWebTestClient
 public class PautaControllerTest {
@@ -49,12 +56,16 @@ public class PautaControllerTest {
                 .blockLast();
     }
 
+    /**
+     * Sem cursor e sem tamanho a listagem não é paginada, mesmo com mais pautas que o tamanho padrão da página.
+     */
     @Test
     public void listarTodas() {
         webTestClient.get().uri(ENDPOINT_URL)
                 .exchange()
                 .expectStatus().isOk()
                 .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().doesNotExist(HttpHeaders.LINK)
                 .expectBodyList(PautaDto.class)
                 .hasSize(4)
                 .consumeWith(response -> {
@@ -64,6 +75,46 @@ public class PautaControllerTest {
                 });
     }
 
+    @Test
+    public void listarPaginas() {
+        List<String> ids = new ArrayList<>();
+        String proximaPagina = ENDPOINT_URL + "?tamanho=2";
+        while (proximaPagina != null) {
+            var response = webTestClient.get().uri(URI.create(proximaPagina))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(PautaDto.class)
+                    .returnResult();
+            response.getResponseBody().forEach(pauta -> ids.add(pauta.getId()));
+            String link = response.getResponseHeaders().getFirst(HttpHeaders.LINK);
+            proximaPagina = link == null ? null : link.substring(1, link.indexOf('>'));
+        }
+        assertEquals(4, ids.size());
+        assertEquals(4, new HashSet<>(ids).size());
+        assertEquals("ABC", ids.get(0));
+    }
+
+    @Test
+    public void listarPaginas_cursorInvalido() {
+        webTestClient.get().uri(ENDPOINT_URL + "?cursor={cursor}", "@@")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void listarTodas_ndjson() {
+        webTestClient.get().uri(ENDPOINT_URL.concat("/stream"))
+                .accept(WebFluxConfig.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(WebFluxConfig.APPLICATION_NDJSON)
+                .returnResult(PautaDto.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNextCount(4)
+                .verifyComplete();
+    }
+
     @Test
     public void criarPauta() {
         PautaDto pautaDto = new PautaDto(null, "Assunto 5");
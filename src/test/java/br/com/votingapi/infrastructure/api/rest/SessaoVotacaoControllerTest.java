@@ -7,9 +7,16 @@ import br.com.votingapi.domain.model.Voto;
 import br.com.votingapi.infrastructure.api.rest.dto.SessaoVotacaoDto;
 import br.com.votingapi.infrastructure.api.rest.dto.VotoDTO;
 import br.com.votingapi.infrastructure.persistence.repository.jpa.PautaRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ResultadoVotacaoRepository;
 import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import br.com.votingapi.infrastructure.configuration.WebFluxConfig;
 import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoApuracaoSessao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoImportacaoVoto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoImportacaoVoto.Situacao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResumoVotacao;
 import br.com.votingapi.infrastructure.service.exception.AssociadoSemPermissaoParaVotarException;
+import br.com.votingapi.infrastructure.service.exception.ServicoCpfIndisponivelException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -17,24 +24,33 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import static java.time.LocalDateTime.now;
 import static java.time.LocalDateTime.parse;
 import static java.util.Collections.emptyList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@SpringBootTest
+@SpringBootTest(properties = {"votacao.encerramento.habilitado=false", "votacao.encerramento.atraso-ms=60000"})
 @DirtiesContext
 @AutoConfigureWebTestClient
 public class SessaoVotacaoControllerTest {
@@ -53,6 +69,9 @@ public class SessaoVotacaoControllerTest {
     @Autowired
     private SessaoVotacaoRepository sessaoVotacaoRepository;
 
+    @Autowired
+    private ResultadoVotacaoRepository resultadoVotacaoRepository;
+
     @MockBean
     private CPFService cpfService;
 
@@ -108,6 +127,7 @@ public class SessaoVotacaoControllerTest {
                 .flatMap(sessaoVotacaoRepository::save)
                 .doOnNext(sessao -> System.out.println("Sessão inserida : " + sessao))
                 .blockLast();
+        resultadoVotacaoRepository.deleteAll().block();
         sessaoVotacaoRepository.findById("ABC")
                 .map(sessaoVotacao -> {
                     sessaoVotacao.getVotos().addAll(votosList());
@@ -123,6 +143,7 @@ public class SessaoVotacaoControllerTest {
                 .exchange()
                 .expectStatus().isOk()
                 .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().doesNotExist(HttpHeaders.LINK)
                 .expectBodyList(SessaoVotacaoDto.class)
                 .hasSize(4)
                 .consumeWith(response -> {
@@ -136,6 +157,16 @@ public class SessaoVotacaoControllerTest {
                 });
     }
 
+    @Test
+    public void listarPagina() {
+        webTestClient.get().uri(ENDPOINT_URL + "?tamanho=3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.LINK)
+                .expectBodyList(SessaoVotacaoDto.class)
+                .hasSize(3);
+    }
+
     @Test
     public void criarSessao() {
         SessaoVotacaoDto sessao = new SessaoVotacaoDto(null, "E", parse("2020-04-19T17:03:00"),
@@ -327,6 +358,118 @@ public class SessaoVotacaoControllerTest {
                 .isEqualTo("Associado sem permissão para votar");
     }
 
+    @Test
+    public void importarVotos() {
+        Mockito.when(cpfService.verificarSeCPFPodeVotar(Mockito.any()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        String votos = "{\"cpfAssociado\":\"26622817073\",\"voto\":true}\n"
+                + "{\"cpfAssociado\":\"26622817073\",\"voto\":false}\n"
+                + "{\"cpfAssociado\":\"12345678900\",\"voto\":true}\n"
+                + "{\"cpfAssociado\":\"33546206096\",\"voto\":false}\n";
+
+        Flux<ResultadoImportacaoVoto> resultados = webTestClient.post()
+                .uri(ENDPOINT_URL.concat("/{idSessao}/votos:batch"), "A")
+                .contentType(WebFluxConfig.APPLICATION_NDJSON)
+                .accept(WebFluxConfig.APPLICATION_NDJSON)
+                .bodyValue(votos)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ResultadoImportacaoVoto.class)
+                .getResponseBody();
+
+        StepVerifier.create(resultados)
+                .expectNext(new ResultadoImportacaoVoto(1, "26622817073", Situacao.ACEITO))
+                .expectNext(new ResultadoImportacaoVoto(2, "26622817073", Situacao.ASSOCIADO_JA_VOTOU))
+                .expectNext(new ResultadoImportacaoVoto(3, "12345678900", Situacao.INVALIDO))
+                .expectNext(new ResultadoImportacaoVoto(4, "33546206096", Situacao.ACEITO))
+                .verifyComplete();
+    }
+
+    @Test
+    public void importarVotos_linhaMalFormadaNaoInterrompeImportacao() {
+        Mockito.when(cpfService.verificarSeCPFPodeVotar(Mockito.any()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        String votos = "{\"cpfAssociado\":\"26622817073\",\"voto\":true}\n"
+                + "{\"cpfAssociado\":\"33546206096\",\"voto\":\n"
+                + "{\"cpfAssociado\":\"33546206096\",\"voto\":\"talvez\"}\n"
+                + "{\"cpfAssociado\":\"33546206096\",\"voto\":false}\n";
+
+        Flux<ResultadoImportacaoVoto> resultados = webTestClient.post()
+                .uri(ENDPOINT_URL.concat("/{idSessao}/votos:batch"), "A")
+                .contentType(WebFluxConfig.APPLICATION_NDJSON)
+                .accept(WebFluxConfig.APPLICATION_NDJSON)
+                .bodyValue(votos)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ResultadoImportacaoVoto.class)
+                .getResponseBody();
+
+        StepVerifier.create(resultados)
+                .expectNext(new ResultadoImportacaoVoto(1, "26622817073", Situacao.ACEITO))
+                .expectNext(new ResultadoImportacaoVoto(2, null, Situacao.INVALIDO))
+                .expectNext(new ResultadoImportacaoVoto(3, null, Situacao.INVALIDO))
+                .expectNext(new ResultadoImportacaoVoto(4, "33546206096", Situacao.ACEITO))
+                .verifyComplete();
+    }
+
+    /**
+     * A API de CPF indisponível recusa somente a linha; o voto repetido é recusado sem consultar a API.
+     */
+    @Test
+    public void importarVotos_servicoCpfIndisponivelNaoInterrompeImportacao() {
+        Mockito.when(cpfService.verificarSeCPFPodeVotar(Mockito.any()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        importar("A", "{\"cpfAssociado\":\"26622817073\",\"voto\":true}\n")
+                .expectNext(new ResultadoImportacaoVoto(1, "26622817073", Situacao.ACEITO))
+                .verifyComplete();
+        Mockito.clearInvocations(cpfService);
+        Mockito.doReturn(Mono.error(new ServicoCpfIndisponivelException(new IllegalStateException())))
+                .when(cpfService).verificarSeCPFPodeVotar(Mockito.argThat(voto ->
+                "33546206096".equals(voto.getCpfAssociado())));
+
+        importar("A", "{\"cpfAssociado\":\"33546206096\",\"voto\":true}\n"
+                + "{\"cpfAssociado\":\"26622817073\",\"voto\":false}\n"
+                + "{\"cpfAssociado\":\"89221190048\",\"voto\":false}\n")
+                .expectNext(new ResultadoImportacaoVoto(1, "33546206096", Situacao.SERVICO_CPF_INDISPONIVEL))
+                .expectNext(new ResultadoImportacaoVoto(2, "26622817073", Situacao.ASSOCIADO_JA_VOTOU))
+                .expectNext(new ResultadoImportacaoVoto(3, "89221190048", Situacao.ACEITO))
+                .verifyComplete();
+        Mockito.verify(cpfService, Mockito.never()).verificarSeCPFPodeVotar(Mockito.argThat(voto ->
+                "26622817073".equals(voto.getCpfAssociado())));
+    }
+
+    private StepVerifier.FirstStep<ResultadoImportacaoVoto> importar(String idSessao, String votos) {
+        return StepVerifier.create(webTestClient.post()
+                .uri(ENDPOINT_URL.concat("/{idSessao}/votos:batch"), idSessao)
+                .contentType(WebFluxConfig.APPLICATION_NDJSON)
+                .accept(WebFluxConfig.APPLICATION_NDJSON)
+                .bodyValue(votos)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ResultadoImportacaoVoto.class)
+                .getResponseBody());
+    }
+
+    @Test
+    public void importarVotos_sessaoJaEncerrada() {
+        Mockito.when(cpfService.verificarSeCPFPodeVotar(Mockito.any()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        Flux<ResultadoImportacaoVoto> resultados = webTestClient.post()
+                .uri(ENDPOINT_URL.concat("/{idSessao}/votos:batch"), "C")
+                .contentType(WebFluxConfig.APPLICATION_NDJSON)
+                .accept(WebFluxConfig.APPLICATION_NDJSON)
+                .bodyValue("{\"cpfAssociado\":\"26622817073\",\"voto\":true}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ResultadoImportacaoVoto.class)
+                .getResponseBody();
+
+        StepVerifier.create(resultados)
+                .expectNext(new ResultadoImportacaoVoto(1, "26622817073", Situacao.SESSAO_ENCERRADA))
+                .verifyComplete();
+    }
+
     @Test
     public void apurarResultado_aprovado() {
         webTestClient.get().uri(ENDPOINT_URL.concat("/{idSessao}/resultado"), "ABC")
@@ -340,6 +483,185 @@ public class SessaoVotacaoControllerTest {
                 .jsonPath("$.aprovado").isEqualTo(true);
     }
 
+    @Test
+    public void apurarResultados() {
+        Map<String, ResultadoApuracaoSessao> resultados = webTestClient.post()
+                .uri(ENDPOINT_URL.concat("/resultados"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(WebFluxConfig.APPLICATION_NDJSON)
+                .bodyValue(Arrays.asList("ABC", "A", "XYZ"))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ResultadoApuracaoSessao.class)
+                .getResponseBody()
+                .collectMap(ResultadoApuracaoSessao::getIdSessao)
+                .block();
+
+        assertEquals(3, resultados.size());
+        assertEquals(ResultadoApuracaoSessao.Situacao.APURADO, resultados.get("ABC").getSituacao());
+        assertEquals("Assunto 4", resultados.get("ABC").getResultado().getAssunto());
+        assertEquals(3, resultados.get("ABC").getResultado().getPros());
+        assertEquals(2, resultados.get("ABC").getResultado().getContra());
+        assertEquals(ResultadoApuracaoSessao.Situacao.SESSAO_NAO_ENCERRADA, resultados.get("A").getSituacao());
+        assertEquals(ResultadoApuracaoSessao.Situacao.SESSAO_NAO_ENCONTRADA, resultados.get("XYZ").getSituacao());
+    }
+
+    @Test
+    public void exportarVotos() {
+        String csv = webTestClient.get().uri(ENDPOINT_URL.concat("/{idSessao}/votos/csv"), "ABC")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("text/csv;charset=UTF-8")
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        String[] linhas = csv.split("\n");
+        assertEquals(6, linhas.length);
+        assertEquals("id,idSessao,cpfAssociado,voto,dataRegistro", linhas[0]);
+        assertTrue(Arrays.asList(linhas).contains("A,ABC,89221190048,true,"));
+    }
+
+    /**
+     * Voto da lista que já recebeu o ID da sessão, mas ainda não foi retirado da lista.
+     */
+    @Test
+    public void exportarVotos_votoLegadoVinculado() {
+        votoRepository.findById("A")
+                .map(voto -> {
+                    voto.setIdSessao("ABC");
+                    return voto;
+                })
+                .flatMap(votoRepository::save)
+                .block();
+
+        String csv = webTestClient.get().uri(ENDPOINT_URL.concat("/{idSessao}/votos/csv"), "ABC")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        String[] linhas = csv.split("\n");
+        assertEquals(6, linhas.length);
+        assertEquals(1, Arrays.stream(linhas).filter(linha -> linha.startsWith("A,")).count());
+    }
+
+    @Test
+    public void exportarVotos_gzip() throws IOException {
+        byte[] compactado = webTestClient.get().uri(ENDPOINT_URL.concat("/{idSessao}/votos/csv?gzip=true"), "ABC")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("application/gzip")
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        try (var entrada = new GZIPInputStream(new ByteArrayInputStream(compactado))) {
+            String csv = new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(6, csv.split("\n").length);
+        }
+    }
+
+    @Test
+    public void exportarVotos_sessaoInexistente() {
+        webTestClient.get().uri(ENDPOINT_URL.concat("/{idSessao}/votos/csv"), "XYZ")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void exportarResultados() {
+        String csv = webTestClient.get().uri(ENDPOINT_URL.concat("/resultados/csv?inicio={inicio}&fim={fim}"),
+                "2020-04-19T00:00:00", "2020-04-20T00:00:00")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        String[] linhas = csv.split("\n");
+        assertEquals(2, linhas.length);
+        assertEquals("idSessao,idPauta,dataInicio,dataFim,situacao,assunto,pros,contra,aprovado", linhas[0]);
+        assertEquals("ABC,D,2020-04-19T17:03,2020-04-19T17:03,APURADO,Assunto 4,3,2,true", linhas[1]);
+        StepVerifier.create(resultadoVotacaoRepository.findById("ABC"))
+                .verifyComplete();
+    }
+
+    @Test
+    public void acompanharResultado_sessaoAberta() {
+        Flux<ServerSentEvent<ResumoVotacao>> eventos = webTestClient.get()
+                .uri(ENDPOINT_URL.concat("/{idSessao}/resultado/stream"), "A")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<ResumoVotacao>>() {
+                })
+                .getResponseBody();
+
+        StepVerifier.create(eventos)
+                .consumeNextWith(evento -> {
+                    assertEquals("parcial", evento.event());
+                    assertEquals("Assunto 1", evento.data().getAssunto());
+                    assertEquals(0, evento.data().getPros());
+                    assertEquals(0, evento.data().getContra());
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    public void acompanharResultado_sessaoEncerrada() {
+        Flux<ServerSentEvent<ResumoVotacao>> eventos = webTestClient.get()
+                .uri(ENDPOINT_URL.concat("/{idSessao}/resultado/stream"), "ABC")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<ResumoVotacao>>() {
+                })
+                .getResponseBody();
+
+        StepVerifier.create(eventos)
+                .consumeNextWith(evento -> {
+                    assertEquals("final", evento.event());
+                    assertEquals(3, evento.data().getPros());
+                    assertEquals(2, evento.data().getContra());
+                    assertEquals(true, evento.data().getAprovado());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void apurarResultado_eTag() {
+        String eTag = webTestClient.get().uri(ENDPOINT_URL.concat("/{idSessao}/resultado"), "ABC")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches("Cache-Control", ".*max-age=31536000.*")
+                .returnResult(ResumoVotacao.class)
+                .getResponseHeaders()
+                .getETag();
+        assertNotNull(eTag);
+
+        webTestClient.get().uri(ENDPOINT_URL.concat("/{idSessao}/resultado"), "ABC")
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    public void apurarResultado_provisorio_semCache() {
+        webTestClient.get().uri(ENDPOINT_URL.concat("/{idSessao}/resultado"), "C")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("Cache-Control", "no-store")
+                .expectHeader().doesNotExist("ETag")
+                .expectBody()
+                .jsonPath("$.provisorio").isEqualTo(true);
+
+        StepVerifier.create(resultadoVotacaoRepository.findById("C"))
+                .verifyComplete();
+    }
+
     @Test
     public void apurarResultado_badRequest_sessaoNaoEncerrada() {
         webTestClient.get().uri(ENDPOINT_URL.concat("/{idSessao}/resultado"), "A")
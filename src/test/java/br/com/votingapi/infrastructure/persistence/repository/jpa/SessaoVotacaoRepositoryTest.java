@@ -0,0 +1,169 @@
+package br.com.votingapi.infrastructure.persistence.repository.jpa;
+
+import br.com.votingapi.domain.model.Pauta;
+import br.com.votingapi.domain.model.SessaoVotacao;
+import br.com.votingapi.domain.model.Voto;
+import com.mongodb.WriteConcern;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "votacao.encerramento.habilitado=false")
+@DirtiesContext
+public class SessaoVotacaoRepositoryTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.parse("2020-04-19T17:03:00");
+    private static final LocalDateTime FIM = LocalDateTime.parse("2020-04-19T18:03:00");
+
+    @Autowired
+    private PautaRepository pautaRepository;
+
+    @Autowired
+    private SessaoVotacaoRepository sessaoVotacaoRepository;
+
+    @Autowired
+    private VotoRepository votoRepository;
+
+    @Autowired
+    private ConsistenciaMongo consistenciaMongo;
+
+    @BeforeEach
+    public void setUp() {
+        pautaRepository.deleteAll()
+                .then(pautaRepository.save(new Pauta("PAUTA1", "Assunto 1")))
+                .block();
+        sessaoVotacaoRepository.deleteAll()
+                .then(sessaoVotacaoRepository.save(
+                        new SessaoVotacao("SESSAO1", new Pauta("PAUTA1", null), INICIO, FIM, emptyList())))
+                .block();
+    }
+
+    @Test
+    public void buscarMetadados() {
+        StepVerifier.create(sessaoVotacaoRepository.buscarMetadados("SESSAO1"))
+                .consumeNextWith(metadados -> {
+                    assertEquals("SESSAO1", metadados.getId());
+                    assertEquals("PAUTA1", metadados.getIdPauta());
+                    assertEquals(INICIO, metadados.getDataInicio());
+                    assertEquals(FIM, metadados.getDataFim());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void buscarMetadados_sessaoInexistente() {
+        StepVerifier.create(sessaoVotacaoRepository.buscarMetadados("SESSAO2"))
+                .verifyComplete();
+    }
+
+    @Test
+    public void buscarMetadadosPagina() {
+        StepVerifier.create(sessaoVotacaoRepository.buscarMetadadosPagina(null, 10))
+                .consumeNextWith(metadados -> {
+                    assertEquals("SESSAO1", metadados.getId());
+                    assertEquals("PAUTA1", metadados.getIdPauta());
+                })
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoRepository.buscarMetadadosPagina("SESSAO1", 10))
+                .verifyComplete();
+    }
+
+    /**
+     * O voto da lista que já tem o ID da sessão é contado pelo ID e fica de fora.
+     */
+    @Test
+    public void contarVotosLegados() {
+        List<Voto> votos = votoRepository.deleteAll()
+                .thenMany(votoRepository.saveAll(Arrays.asList(
+                        new Voto(null, "89221190048", true),
+                        new Voto(null, "84996652098", true),
+                        new Voto(null, "71658911024", false),
+                        new Voto(null, "SESSAO1", "21165748037", true))))
+                .collectList()
+                .block();
+        sessaoVotacaoRepository.findById("SESSAO1")
+                .map(sessaoVotacao -> {
+                    sessaoVotacao.getVotos().addAll(votos);
+                    return sessaoVotacao;
+                })
+                .flatMap(sessaoVotacaoRepository::save)
+                .block();
+
+        StepVerifier.create(sessaoVotacaoRepository.contarVotosLegados(Arrays.asList("SESSAO1", "SESSAO2")))
+                .consumeNextWith(contagem -> {
+                    assertEquals("SESSAO1", contagem.getId());
+                    assertEquals(2, contagem.getPros());
+                    assertEquals(1, contagem.getContra());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void buscarMetadadosAbertas() {
+        StepVerifier.create(sessaoVotacaoRepository.buscarMetadadosAbertas(INICIO.plusMinutes(1), FIM, 10))
+                .consumeNextWith(metadados -> {
+                    assertEquals("SESSAO1", metadados.getId());
+                    assertEquals(FIM, metadados.getDataFim());
+                })
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoRepository.buscarMetadadosAbertas(INICIO.minusMinutes(1), FIM, 10))
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoRepository.buscarMetadadosAbertas(INICIO.plusMinutes(1),
+                FIM.minusSeconds(1), 10))
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoRepository.buscarMetadadosAbertas(FIM.plusSeconds(1),
+                FIM.plusHours(1), 10))
+                .verifyComplete();
+    }
+
+    @Test
+    public void buscarNaoEncerradas() {
+        StepVerifier.create(sessaoVotacaoRepository.buscarNaoEncerradas(INICIO, FIM))
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoRepository.buscarNaoEncerradas(INICIO, FIM.plusSeconds(1)))
+                .consumeNextWith(metadados -> {
+                    assertEquals("SESSAO1", metadados.getId());
+                    assertEquals(FIM, metadados.getDataFim());
+                })
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoRepository.buscarNaoEncerradas(FIM.plusSeconds(1), FIM.plusHours(1)))
+                .verifyComplete();
+    }
+
+    @Test
+    public void marcarEncerrada() {
+        StepVerifier.create(sessaoVotacaoRepository.marcarEncerrada("SESSAO1", FIM))
+                .consumeNextWith(Assertions::assertTrue)
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoRepository.marcarEncerrada("SESSAO1", FIM))
+                .consumeNextWith(Assertions::assertFalse)
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoRepository.buscarNaoEncerradas(INICIO, FIM.plusSeconds(1)))
+                .verifyComplete();
+    }
+
+    /**
+     * Com um único servidor, a preferência de leitura dos secundários é atendida pelo próprio servidor.
+     */
+    @Test
+    public void buscarMetadadosPagina_leituraListagem() {
+        StepVerifier.create(sessaoVotacaoRepository.buscarMetadadosPagina(null, 10))
+                .consumeNextWith(metadados -> assertEquals("SESSAO1", metadados.getId()))
+                .verifyComplete();
+        assertEquals(WriteConcern.MAJORITY.withWTimeout(5000, TimeUnit.MILLISECONDS),
+                consistenciaMongo.escritaVotos());
+    }
+
+}
@@ -0,0 +1,99 @@
+package br.com.votingapi.infrastructure.persistence.wal;
+
+import br.com.votingapi.domain.model.Voto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogEscritaAntecipadaTest {
+
+    @TempDir
+    Path diretorio;
+
+    private Voto voto(String id, String cpfAssociado, boolean voto) {
+        return Voto.builder()
+                .id(id)
+                .idSessao("SESSAO1")
+                .cpfAssociado(cpfAssociado)
+                .voto(voto)
+                .build();
+    }
+
+    @Test
+    public void recuperarVotosNaoConfirmados() throws Exception {
+        var logVotos = new LogEscritaAntecipada(diretorio, 1024, 100);
+        logVotos.recuperar();
+        logVotos.anexar(voto("VOTO1", "89221190048", true)).get();
+        logVotos.anexar(voto("VOTO2", "84996652098", false)).get();
+        logVotos.close();
+
+        var logRecuperado = new LogEscritaAntecipada(diretorio, 1024, 100);
+        List<VotoRegistrado> recuperados = logRecuperado.recuperar();
+        logRecuperado.close();
+
+        assertEquals(2, recuperados.size());
+        assertEquals("VOTO1", recuperados.get(0).getVoto().getId());
+        assertEquals("SESSAO1", recuperados.get(0).getVoto().getIdSessao());
+        assertEquals("89221190048", recuperados.get(0).getVoto().getCpfAssociado());
+        assertEquals(89221190048L, recuperados.get(0).getVoto().getCpfCompacto());
+        assertEquals(true, recuperados.get(0).getVoto().getVoto());
+        assertEquals(false, recuperados.get(1).getVoto().getVoto());
+    }
+
+    @Test
+    public void recuperarDataRegistro() throws Exception {
+        var voto = voto("VOTO1", "89221190048", true);
+        voto.setDataRegistro(LocalDateTime.parse("2020-04-19T17:03:15.250"));
+        var logVotos = new LogEscritaAntecipada(diretorio, 1024, 100);
+        logVotos.recuperar();
+        logVotos.anexar(voto).get();
+        logVotos.close();
+
+        var logRecuperado = new LogEscritaAntecipada(diretorio, 1024, 100);
+        List<VotoRegistrado> recuperados = logRecuperado.recuperar();
+        logRecuperado.close();
+
+        assertEquals(1, recuperados.size());
+        assertEquals(LocalDateTime.parse("2020-04-19T17:03:15.250"), recuperados.get(0).getVoto().getDataRegistro());
+    }
+
+    @Test
+    public void ignorarLinhaIncompleta() throws Exception {
+        Files.writeString(diretorio.resolve("votos-1.wal"),
+                "VOTO1\tSESSAO1\t89221190048\t1\nVOTO2\tSESSAO1\t849966");
+
+        var logVotos = new LogEscritaAntecipada(diretorio, 1024, 100);
+        List<VotoRegistrado> recuperados = logVotos.recuperar();
+        logVotos.close();
+
+        assertEquals(1, recuperados.size());
+        assertEquals("VOTO1", recuperados.get(0).getVoto().getId());
+    }
+
+    @Test
+    public void apagarSegmentoGravadoNoBanco() throws Exception {
+        var logVotos = new LogEscritaAntecipada(diretorio, 1, 100);
+        logVotos.recuperar();
+        long segmento = logVotos.anexar(voto("VOTO1", "89221190048", true)).get();
+        logVotos.anexar(voto("VOTO2", "84996652098", false)).get();
+
+        assertTrue(Files.exists(diretorio.resolve("votos-" + segmento + ".wal")));
+        logVotos.confirmarGravacao(segmento);
+        logVotos.close();
+
+        assertTrue(Files.notExists(diretorio.resolve("votos-" + segmento + ".wal")));
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            assertEquals(1, arquivos.count());
+        }
+    }
+
+}
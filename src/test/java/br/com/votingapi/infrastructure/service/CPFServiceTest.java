@@ -4,9 +4,15 @@ import br.com.votingapi.application.CPFService;
 import br.com.votingapi.domain.model.AssociateVotePermission;
 import br.com.votingapi.domain.model.CpfResponse;
 import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.configuration.CpfApiConfig;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VerificacaoCpfPendenteRepository;
 import br.com.votingapi.infrastructure.service.exception.AssociadoSemPermissaoParaVotarException;
+import br.com.votingapi.infrastructure.service.exception.ServicoCpfIndisponivelException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterAll;
@@ -16,9 +22,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @SpringBootTest
 @DirtiesContext
@@ -29,6 +40,31 @@ public class CPFServiceTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private VerificacaoCpfPendenteRepository verificacaoCpfPendenteRepository;
+
+    private final CpfApiConfig cpfApiConfig = new CpfApiConfig();
+
+    private CPFService criarCpfService() {
+        return criarCpfService(cpfApiConfig.cpfApiCircuitBreaker(50, 20, 10000), "rejeitar");
+    }
+
+    private CPFService criarCpfService(CircuitBreaker circuitBreaker, String comportamentoApiIndisponivel) {
+        var webClient = cpfApiConfig.cpfApiWebClient(WebClient.builder(), cpfApiConfig.cpfApiConexoes(10, 500),
+                1000, 500);
+        var clienteApiCpf = new ClienteApiCpf(server.url("/").toString(), webClient,
+                cpfApiConfig.cpfApiBulkhead(10), circuitBreaker,
+                cpfApiConfig.cpfApiHedge(false, 95, 5, 20, new SimpleMeterRegistry()));
+        return new CPFServiceImpl(clienteApiCpf, verificacaoCpfPendenteRepository, comportamentoApiIndisponivel,
+                1000, 600000, 60000, new SimpleMeterRegistry());
+    }
+
+    private void enfileirarResposta(AssociateVotePermission permissao) throws JsonProcessingException {
+        server.enqueue(new MockResponse()
+                .setBody(objectMapper.writeValueAsString(new CpfResponse(permissao)))
+                .addHeader("Content-Type", "application/json"));
+    }
+
     @BeforeAll
     static void setUp() throws IOException {
         server = new MockWebServer();
@@ -48,8 +84,7 @@ public class CPFServiceTest {
                 .setBody(objectMapper.writeValueAsString(cpfResponseMock))
                 .addHeader("Content-Type", "application/json"));
 
-        String url = server.url("/").toString();
-        CPFService cpfService = new CPFServiceImpl(url);
+        CPFService cpfService = criarCpfService();
         var votoMono = cpfService.verificarSeCPFPodeVotar(voto);
 
         StepVerifier.create(votoMono)
@@ -66,8 +101,7 @@ public class CPFServiceTest {
                 .setBody(objectMapper.writeValueAsString(cpfResponseMock))
                 .addHeader("Content-Type", "application/json"));
 
-        String url = server.url("/").toString();
-        CPFService cpfService = new CPFServiceImpl(url);
+        CPFService cpfService = criarCpfService();
         var votoMono = cpfService.verificarSeCPFPodeVotar(voto);
 
         StepVerifier.create(votoMono)
@@ -76,18 +110,125 @@ public class CPFServiceTest {
                 .verify();
     }
 
+    @Test
+    public void verificarSeCPFPodeVotar_cache() throws JsonProcessingException {
+        var voto = new Voto(null, "26622817073", true);
+        enfileirarResposta(AssociateVotePermission.ABLE_TO_VOTE);
+        CPFService cpfService = criarCpfService();
+        int requisicoes = server.getRequestCount();
+
+        StepVerifier.create(cpfService.verificarSeCPFPodeVotar(voto))
+                .expectNext(voto)
+                .verifyComplete();
+        StepVerifier.create(cpfService.verificarSeCPFPodeVotar(voto))
+                .expectNext(voto)
+                .verifyComplete();
+
+        Assertions.assertEquals(requisicoes + 1, server.getRequestCount());
+    }
+
+    @Test
+    public void cpfSemPermissaoParaVotar_cache() throws JsonProcessingException {
+        var voto = new Voto(null, "26622817073", true);
+        enfileirarResposta(AssociateVotePermission.UNABLE_TO_VOTE);
+        CPFService cpfService = criarCpfService();
+        int requisicoes = server.getRequestCount();
+
+        StepVerifier.create(cpfService.verificarSeCPFPodeVotar(voto))
+                .expectError(AssociadoSemPermissaoParaVotarException.class)
+                .verify();
+        StepVerifier.create(cpfService.verificarSeCPFPodeVotar(voto))
+                .expectError(AssociadoSemPermissaoParaVotarException.class)
+                .verify();
+
+        Assertions.assertEquals(requisicoes + 1, server.getRequestCount());
+    }
+
+    @Test
+    public void verificarSeCPFPodeVotar_consultasSimultaneas() throws JsonProcessingException {
+        var voto = new Voto(null, "26622817073", true);
+        server.enqueue(new MockResponse()
+                .setBody(objectMapper.writeValueAsString(new CpfResponse(AssociateVotePermission.ABLE_TO_VOTE)))
+                .addHeader("Content-Type", "application/json")
+                .setBodyDelay(200, TimeUnit.MILLISECONDS));
+        CPFService cpfService = criarCpfService();
+        int requisicoes = server.getRequestCount();
+
+        var consultas = Flux.range(0, 10)
+                .flatMap(i -> cpfService.verificarSeCPFPodeVotar(voto));
+
+        StepVerifier.create(consultas)
+                .expectNextCount(10)
+                .verifyComplete();
+        Assertions.assertEquals(requisicoes + 1, server.getRequestCount());
+    }
+
+    @Test
+    public void verificarSeCPFPodeVotar_timeoutLeitura() throws JsonProcessingException {
+        var voto = new Voto(null, "26622817073", true);
+        server.enqueue(new MockResponse()
+                .setBody(objectMapper.writeValueAsString(new CpfResponse(AssociateVotePermission.ABLE_TO_VOTE)))
+                .addHeader("Content-Type", "application/json")
+                .setBodyDelay(2, TimeUnit.SECONDS));
+        CPFService cpfService = criarCpfService();
+
+        StepVerifier.create(cpfService.verificarSeCPFPodeVotar(voto))
+                .expectError(ReadTimeoutException.class)
+                .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void verificarSeCPFPodeVotar_circuitoAbreAposFalhas() {
+        var voto = new Voto(null, "26622817073", true);
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        CPFService cpfService = criarCpfService(cpfApiConfig.cpfApiCircuitBreaker(50, 2, 10000), "rejeitar");
+        int requisicoes = server.getRequestCount();
+
+        StepVerifier.create(cpfService.verificarSeCPFPodeVotar(voto))
+                .expectError(WebClientResponseException.class)
+                .verify();
+        StepVerifier.create(cpfService.verificarSeCPFPodeVotar(voto))
+                .expectError(WebClientResponseException.class)
+                .verify();
+        StepVerifier.create(cpfService.verificarSeCPFPodeVotar(voto))
+                .expectError(ServicoCpfIndisponivelException.class)
+                .verify();
+
+        Assertions.assertEquals(requisicoes + 2, server.getRequestCount());
+    }
+
+    @Test
+    public void verificarSeCPFPodeVotar_circuitoAberto_aceitar() {
+        verificacaoCpfPendenteRepository.deleteAll().block();
+        var voto = new Voto(null, "26622817073", true);
+        voto.setIdSessao("A");
+        var circuitBreaker = cpfApiConfig.cpfApiCircuitBreaker(50, 20, 10000);
+        circuitBreaker.transitionToOpenState();
+        CPFService cpfService = criarCpfService(circuitBreaker, "aceitar");
+        int requisicoes = server.getRequestCount();
+
+        StepVerifier.create(cpfService.verificarSeCPFPodeVotar(voto))
+                .expectNext(voto)
+                .verifyComplete();
+
+        StepVerifier.create(verificacaoCpfPendenteRepository.findAll())
+                .expectNextMatches(pendente -> pendente.getIdSessao().equals("A")
+                        && pendente.getCpfAssociado().equals("26622817073"))
+                .verifyComplete();
+        Assertions.assertEquals(requisicoes, server.getRequestCount());
+    }
+
     @Test
     public void cpfPodeVotar() {
-        String url = server.url("/").toString();
-        CPFService cpfService = new CPFServiceImpl(url);
+        CPFService cpfService = criarCpfService();
         Boolean resultado = cpfService.podeVotar(new CpfResponse(AssociateVotePermission.ABLE_TO_VOTE));
         Assertions.assertEquals(true, resultado);
     }
 
     @Test
     public void cpfNaoPodeVotar() {
-        String url = server.url("/").toString();
-        CPFService cpfService = new CPFServiceImpl(url);
+        CPFService cpfService = criarCpfService();
         Boolean resultado = cpfService.podeVotar(new CpfResponse(AssociateVotePermission.UNABLE_TO_VOTE));
         Assertions.assertEquals(false, resultado);
     }
@@ -0,0 +1,105 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.domain.model.Pauta;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.PautaRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@DirtiesContext
+public class CachePautasTest {
+
+    @Autowired
+    private CachePautas cachePautas;
+
+    @Autowired
+    private PautaRepository pautaRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    private List<Pauta> data() {
+        return Arrays.asList(
+                new Pauta("PAUTA1", "Assunto 1"),
+                new Pauta("PAUTA2", "Assunto 2"));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        pautaRepository.deleteAll()
+                .thenMany(Flux.fromIterable(data()))
+                .flatMap(pautaRepository::save)
+                .blockLast();
+    }
+
+    /**
+     * Grava a pauta direto na coleção, sem os eventos que atualizam o cache.
+     */
+    private void inserirSemEventos(String idPauta, String assunto) {
+        reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(Pauta.class))
+                .flatMap(colecao -> Mono.from(colecao.insertOne(new Document("_id", idPauta)
+                        .append("assunto", assunto))))
+                .block();
+    }
+
+    @Test
+    public void buscarVarias_pautaInexistenteNaoFicaNoCache() {
+        StepVerifier.create(cachePautas.buscar(List.of("PAUTA1", "PAUTA2", "PAUTA9")))
+                .consumeNextWith(pautas -> {
+                    assertEquals(2, pautas.size());
+                    assertEquals("Assunto 1", pautas.get("PAUTA1").getAssunto());
+                    assertEquals("Assunto 2", pautas.get("PAUTA2").getAssunto());
+                })
+                .verifyComplete();
+
+        inserirSemEventos("PAUTA9", "Assunto 9");
+
+        StepVerifier.create(cachePautas.buscar(List.of("PAUTA1", "PAUTA9")))
+                .consumeNextWith(pautas -> {
+                    assertEquals(2, pautas.size());
+                    assertEquals("Assunto 9", pautas.get("PAUTA9").getAssunto());
+                })
+                .verifyComplete();
+        StepVerifier.create(cachePautas.buscar("PAUTA9").map(Pauta::getAssunto))
+                .expectNext("Assunto 9")
+                .verifyComplete();
+    }
+
+    @Test
+    public void buscar_pautaExcluidaSaiDoCache() {
+        StepVerifier.create(cachePautas.buscar(List.of("PAUTA1", "PAUTA2")))
+                .consumeNextWith(pautas -> assertEquals(2, pautas.size()))
+                .verifyComplete();
+
+        pautaRepository.deleteById("PAUTA1").block();
+
+        StepVerifier.create(cachePautas.buscar(List.of("PAUTA1", "PAUTA2")))
+                .consumeNextWith(pautas -> {
+                    assertEquals(1, pautas.size());
+                    assertEquals("Assunto 2", pautas.get("PAUTA2").getAssunto());
+                })
+                .verifyComplete();
+        StepVerifier.create(cachePautas.buscar("PAUTA1"))
+                .verifyComplete();
+
+        inserirSemEventos("PAUTA1", "Assunto alterado");
+
+        StepVerifier.create(cachePautas.buscar("PAUTA1").map(Pauta::getAssunto))
+                .expectNext("Assunto alterado")
+                .verifyComplete();
+    }
+
+}
@@ -0,0 +1,144 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.SessaoVotacaoService;
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.Pauta;
+import br.com.votingapi.domain.model.SessaoVotacao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.PautaRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ResultadoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.time.LocalDateTime.now;
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "votacao.encerramento.habilitado=false")
+@DirtiesContext
+public class EncerramentoSessoesServiceTest {
+
+    @Autowired
+    private PautaRepository pautaRepository;
+
+    @Autowired
+    private SessaoVotacaoRepository sessaoVotacaoRepository;
+
+    @Autowired
+    private ContagemVotosRepository contagemVotosRepository;
+
+    @Autowired
+    private ResultadoVotacaoRepository resultadoVotacaoRepository;
+
+    @Autowired
+    private SessaoVotacaoService sessaoVotacaoService;
+
+    private final List<Object> eventos = new ArrayList<>();
+
+    private EncerramentoSessoesService encerramentoSessoesService;
+
+    @BeforeEach
+    public void setUp() {
+        encerramentoSessoesService = criarEncerramentoSessoesService();
+        eventos.clear();
+        pautaRepository.deleteAll()
+                .thenMany(pautaRepository.saveAll(Arrays.asList(
+                        new Pauta("PAUTA1", "Assunto 1"), new Pauta("PAUTA2", "Assunto 2"))))
+                .blockLast();
+        sessaoVotacaoRepository.deleteAll()
+                .thenMany(sessaoVotacaoRepository.saveAll(Arrays.asList(
+                        new SessaoVotacao("SESSAO1", new Pauta("PAUTA1", null),
+                                now().minusHours(1), now().minusMinutes(1), emptyList()),
+                        new SessaoVotacao("SESSAO2", new Pauta("PAUTA2", null),
+                                now(), now().plusHours(1), emptyList()))))
+                .blockLast();
+        contagemVotosRepository.deleteAll()
+                .thenMany(Flux.just(new ContagemVotos("SESSAO1", 3, 2), new ContagemVotos("SESSAO2", 0, 0)))
+                .flatMap(contagemVotosRepository::save)
+                .blockLast();
+        resultadoVotacaoRepository.deleteAll().block();
+    }
+
+    private EncerramentoSessoesService criarEncerramentoSessoesService() {
+        return new EncerramentoSessoesService(sessaoVotacaoRepository, sessaoVotacaoService, eventos::add,
+                new SimpleMeterRegistry(), 1000, 60000, 0, 8, 86400000);
+    }
+
+    @Test
+    public void encerrarSessao() {
+        StepVerifier.create(encerramentoSessoesService.encerrarSessao("SESSAO1"))
+                .consumeNextWith(resultado -> {
+                    assertEquals(3, resultado.getPros());
+                    assertEquals(2, resultado.getContra());
+                })
+                .verifyComplete();
+        assertEquals(1, eventos.size());
+        var evento = (SessaoVotacaoEncerradaEvent) eventos.get(0);
+        assertEquals("SESSAO1", evento.getIdSessao());
+        assertEquals(3, evento.getResultado().getPros());
+
+        StepVerifier.create(resultadoVotacaoRepository.findById("SESSAO1"))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    /**
+     * Simula dois nós encerrando a mesma sessão: só o primeiro publica o evento.
+     */
+    @Test
+    public void encerrarSessao_encerradaPorOutroNo() {
+        var outroNo = criarEncerramentoSessoesService();
+        StepVerifier.create(outroNo.encerrarSessao("SESSAO1"))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(encerramentoSessoesService.encerrarSessao("SESSAO1"))
+                .verifyComplete();
+        assertEquals(1, eventos.size());
+    }
+
+    @Test
+    public void encerrarVencidas() {
+        StepVerifier.create(encerramentoSessoesService.carregar()
+                .then(encerramentoSessoesService.encerrarVencidas()))
+                .verifyComplete();
+
+        assertEquals(1, eventos.size());
+        assertEquals("SESSAO1", ((SessaoVotacaoEncerradaEvent) eventos.get(0)).getIdSessao());
+        StepVerifier.create(resultadoVotacaoRepository.findById("SESSAO2"))
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoRepository.buscarNaoEncerradas(now().minusDays(1),
+                now().plusDays(1)))
+                .consumeNextWith(metadados -> assertEquals("SESSAO2", metadados.getId()))
+                .verifyComplete();
+    }
+
+    /**
+     * Uma sessão que terminou antes da janela retroativa não é encerrada pelo agendador.
+     */
+    @Test
+    public void encerrarVencidas_foraDaJanelaRetroativa() {
+        sessaoVotacaoRepository.save(new SessaoVotacao("SESSAO3", new Pauta("PAUTA2", null),
+                now().minusDays(3), now().minusDays(2), emptyList())).block();
+
+        StepVerifier.create(encerramentoSessoesService.carregar()
+                .then(encerramentoSessoesService.encerrarVencidas()))
+                .verifyComplete();
+
+        assertEquals(1, eventos.size());
+        assertEquals("SESSAO1", ((SessaoVotacaoEncerradaEvent) eventos.get(0)).getIdSessao());
+        StepVerifier.create(resultadoVotacaoRepository.findById("SESSAO3"))
+                .verifyComplete();
+    }
+
+}
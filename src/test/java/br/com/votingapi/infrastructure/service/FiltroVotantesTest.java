@@ -0,0 +1,118 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "votacao.encerramento.habilitado=false")
+@DirtiesContext
+public class FiltroVotantesTest {
+
+    @Autowired
+    private VotoRepository votoRepository;
+
+    @Autowired
+    private SessaoVotacaoRepository sessaoVotacaoRepository;
+
+    private final AtomicInteger consultasBanco = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        consultasBanco.set(0);
+        votoRepository.deleteAll()
+                .thenMany(votoRepository.saveAll(Arrays.asList(
+                        new Voto("VOTO1", "SESSAO1", "26622817073", true),
+                        new Voto("VOTO2", "SESSAO1", "89221190048", false))))
+                .blockLast();
+    }
+
+    private FiltroVotantes criarFiltroVotantes(boolean habilitado) {
+        return new FiltroVotantes(votoRepository, sessaoVotacaoRepository, new SimpleMeterRegistry(), habilitado,
+                1000, 0.01, 100, 60000, 0);
+    }
+
+    private Supplier<Mono<Boolean>> consultaBanco(boolean resposta) {
+        return () -> Mono.fromSupplier(() -> {
+            consultasBanco.incrementAndGet();
+            return resposta;
+        });
+    }
+
+    @Test
+    public void associadoJaVotou_filtroCarregado() {
+        var filtroVotantes = criarFiltroVotantes(true);
+        filtroVotantes.carregar("SESSAO1").block();
+
+        StepVerifier.create(filtroVotantes.associadoJaVotou("SESSAO1", 21165748037L, consultaBanco(false)))
+                .expectNext(false)
+                .verifyComplete();
+        assertEquals(0, consultasBanco.get());
+
+        StepVerifier.create(filtroVotantes.associadoJaVotou("SESSAO1", 26622817073L, consultaBanco(true)))
+                .expectNext(true)
+                .verifyComplete();
+        assertEquals(1, consultasBanco.get());
+    }
+
+    @Test
+    public void associadoJaVotou_filtroNaoCarregado() {
+        var filtroVotantes = criarFiltroVotantes(true);
+        StepVerifier.create(filtroVotantes.associadoJaVotou("SESSAO1", 21165748037L, consultaBanco(false)))
+                .expectNext(false)
+                .verifyComplete();
+        assertEquals(1, consultasBanco.get());
+    }
+
+    @Test
+    public void carregar_ignoraCpfGravadoInvalido() {
+        votoRepository.save(new Voto("VOTO3", "SESSAO1", "123.456", true)).block();
+        var filtroVotantes = criarFiltroVotantes(true);
+        filtroVotantes.carregar("SESSAO1").block();
+
+        StepVerifier.create(filtroVotantes.associadoJaVotou("SESSAO1", 26622817073L, consultaBanco(true)))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(filtroVotantes.associadoJaVotou("SESSAO1", 21165748037L, consultaBanco(false)))
+                .expectNext(false)
+                .verifyComplete();
+        assertEquals(1, consultasBanco.get());
+    }
+
+    @Test
+    public void adicionar() {
+        var filtroVotantes = criarFiltroVotantes(true);
+        filtroVotantes.carregar("SESSAO1").block();
+        filtroVotantes.adicionar(List.of(new Voto("VOTO3", "SESSAO1", "21165748037", true)));
+
+        StepVerifier.create(filtroVotantes.associadoJaVotou("SESSAO1", 21165748037L, consultaBanco(true)))
+                .expectNext(true)
+                .verifyComplete();
+        assertEquals(1, consultasBanco.get());
+    }
+
+    @Test
+    public void desabilitado() {
+        var filtroVotantes = criarFiltroVotantes(false);
+        filtroVotantes.carregar("SESSAO1").block();
+        StepVerifier.create(filtroVotantes.associadoJaVotou("SESSAO1", 21165748037L, consultaBanco(false)))
+                .expectNext(false)
+                .verifyComplete();
+        assertEquals(1, consultasBanco.get());
+    }
+
+}
@@ -0,0 +1,64 @@
+package br.com.votingapi.infrastructure.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HedgeRequisicoesTest {
+
+    /**
+     * A primeira requisição demora, as seguintes respondem na hora.
+     */
+    private Supplier<Mono<String>> requisicaoLenta(AtomicInteger requisicoes) {
+        return () -> requisicoes.getAndIncrement() % 2 == 0
+                ? Mono.delay(Duration.ofMillis(500)).thenReturn("lenta")
+                : Mono.just("rapida");
+    }
+
+    @Test
+    public void executar_repeteRequisicaoLenta() {
+        var hedge = new HedgeRequisicoes(true, 95, 100, 10, new SimpleMeterRegistry());
+        var requisicoes = new AtomicInteger();
+
+        StepVerifier.create(hedge.executar(requisicaoLenta(requisicoes)))
+                .expectNext("rapida")
+                .verifyComplete();
+        assertEquals(2, requisicoes.get());
+    }
+
+    @Test
+    public void executar_respeitaOrcamento() {
+        var hedge = new HedgeRequisicoes(true, 95, 50, 10, new SimpleMeterRegistry());
+        var requisicoes = new AtomicInteger();
+
+        StepVerifier.create(hedge.executar(requisicaoLenta(requisicoes)))
+                .expectNext("lenta")
+                .verifyComplete();
+        assertEquals(1, requisicoes.get());
+
+        requisicoes.set(0);
+        StepVerifier.create(hedge.executar(requisicaoLenta(requisicoes)))
+                .expectNext("rapida")
+                .verifyComplete();
+        assertEquals(2, requisicoes.get());
+    }
+
+    @Test
+    public void executar_desabilitado() {
+        var hedge = new HedgeRequisicoes(false, 95, 100, 10, new SimpleMeterRegistry());
+        var requisicoes = new AtomicInteger();
+
+        StepVerifier.create(hedge.executar(requisicaoLenta(requisicoes)))
+                .expectNext("lenta")
+                .verifyComplete();
+        assertEquals(1, requisicoes.get());
+    }
+
+}
@@ -0,0 +1,161 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.ApuracaoVotosService;
+import br.com.votingapi.application.SessaoVotacaoService;
+import br.com.votingapi.domain.model.Pauta;
+import br.com.votingapi.domain.model.SessaoVotacao;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.MigracaoVotosLegadosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.PautaRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ResultadoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.time.LocalDateTime.now;
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "votacao.encerramento.habilitado=false")
+@DirtiesContext
+public class MigracaoVotosLegadosServiceTest {
+
+    @Autowired
+    private PautaRepository pautaRepository;
+
+    @Autowired
+    private VotoRepository votoRepository;
+
+    @Autowired
+    private SessaoVotacaoRepository sessaoVotacaoRepository;
+
+    @Autowired
+    private ContagemVotosRepository contagemVotosRepository;
+
+    @Autowired
+    private MigracaoVotosLegadosRepository migracaoRepository;
+
+    @Autowired
+    private ResultadoVotacaoRepository resultadoVotacaoRepository;
+
+    @Autowired
+    private SessaoVotacaoService sessaoVotacaoService;
+
+    @Autowired
+    private List<ApuracaoVotosService> apuracaoVotosServices;
+
+    private MigracaoVotosLegadosService migracaoVotosLegadosService;
+
+    private List<Voto> votosList() {
+        return Arrays.asList(
+                new Voto("VOTO1", "89221190048", true),
+                new Voto("VOTO2", "84996652098", false),
+                new Voto("VOTO3", "71658911024", true),
+                new Voto("VOTO4", "21165748037", false),
+                new Voto("VOTO5", "31588533026", true)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() {
+        migracaoVotosLegadosService = new MigracaoVotosLegadosService(sessaoVotacaoRepository, votoRepository,
+                contagemVotosRepository, migracaoRepository, sessaoVotacaoService, new SimpleMeterRegistry(), 100, 2,
+                0, 60000, 60000);
+        votoRepository.deleteAll()
+                .thenMany(Flux.fromIterable(votosList()))
+                .flatMap(votoRepository::save)
+                .blockLast();
+        pautaRepository.deleteAll()
+                .thenMany(pautaRepository.saveAll(Arrays.asList(
+                        new Pauta("PAUTA1", "Assunto 1"), new Pauta("PAUTA2", "Assunto 2"))))
+                .blockLast();
+        sessaoVotacaoRepository.deleteAll()
+                .thenMany(sessaoVotacaoRepository.saveAll(Arrays.asList(
+                        new SessaoVotacao("SESSAO1", new Pauta("PAUTA1", null),
+                                now().minusHours(2), now().minusHours(1), new ArrayList<>(votosList())),
+                        new SessaoVotacao("SESSAO2", new Pauta("PAUTA2", null),
+                                now(), now().plusHours(1), emptyList()))))
+                .blockLast();
+        contagemVotosRepository.deleteAll().block();
+        migracaoRepository.deleteAll().block();
+        resultadoVotacaoRepository.deleteAll().block();
+    }
+
+    @Test
+    public void executarPassagem() {
+        StepVerifier.create(migracaoVotosLegadosService.executarPassagem())
+                .assertNext(migracao -> {
+                    assertTrue(migracao.isConcluida());
+                    assertEquals(1, migracao.getSessoesMigradas());
+                    assertEquals(5, migracao.getVotosMigrados());
+                    assertEquals(0, migracao.getVotosDescartados());
+                })
+                .verifyComplete();
+        StepVerifier.create(votoRepository.findAll())
+                .thenConsumeWhile(voto -> "SESSAO1".equals(voto.getIdSessao()))
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoRepository.findById("SESSAO1"))
+                .assertNext(sessaoVotacao -> assertTrue(sessaoVotacao.getVotos().isEmpty()))
+                .verifyComplete();
+        StepVerifier.create(contagemVotosRepository.findById("SESSAO1"))
+                .assertNext(contagem -> {
+                    assertEquals(3, contagem.getPros());
+                    assertEquals(2, contagem.getContra());
+                })
+                .verifyComplete();
+        apuracaoVotosServices.forEach(apuracaoVotosService ->
+                StepVerifier.create(apuracaoVotosService.apurar("SESSAO1"))
+                        .assertNext(contagem -> {
+                            assertEquals(3, contagem.getPros());
+                            assertEquals(2, contagem.getContra());
+                        })
+                        .verifyComplete());
+        StepVerifier.create(resultadoVotacaoRepository.findById("SESSAO1"))
+                .assertNext(resultado -> {
+                    assertEquals(3, resultado.getPros());
+                    assertEquals(2, resultado.getContra());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void executarPassagem_sessaoAberta() {
+        sessaoVotacaoRepository.findById("SESSAO2")
+                .map(sessaoVotacao -> {
+                    sessaoVotacao.setVotos(new ArrayList<>(votosList()));
+                    return sessaoVotacao;
+                })
+                .flatMap(sessaoVotacaoRepository::save)
+                .block();
+        StepVerifier.create(sessaoVotacaoRepository.findById("SESSAO1")
+                .map(sessaoVotacao -> {
+                    sessaoVotacao.setVotos(new ArrayList<>());
+                    return sessaoVotacao;
+                })
+                .flatMap(sessaoVotacaoRepository::save)
+                .then(migracaoVotosLegadosService.executarPassagem()))
+                .assertNext(migracao -> {
+                    assertFalse(migracao.isConcluida());
+                    assertEquals(0, migracao.getSessoesMigradas());
+                })
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoRepository.findById("SESSAO2"))
+                .assertNext(sessaoVotacao -> assertEquals(5, sessaoVotacao.getVotos().size()))
+                .verifyComplete();
+    }
+
+}
@@ -16,6 +16,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @SpringBootTest
 @DirtiesContext
@@ -53,6 +54,25 @@ public class PautaServiceTest {
                 .verifyComplete();
     }
 
+    /**
+     * A pauta com ID informado vem antes das pautas com ID gerado pelo banco.
+     */
+    @Test
+    public void listarPagina() {
+        StepVerifier.create(pautaService.listarPagina(null, 1))
+                .consumeNextWith(pagina -> {
+                    assertEquals(1, pagina.getItens().size());
+                    assertEquals("PAUTA4", pagina.getProximaAposId());
+                })
+                .verifyComplete();
+        StepVerifier.create(pautaService.listarPagina("PAUTA4", 10))
+                .consumeNextWith(pagina -> {
+                    assertEquals(3, pagina.getItens().size());
+                    assertNull(pagina.getProximaAposId());
+                })
+                .verifyComplete();
+    }
+
     @Test
     public void salvar() {
         var pauta = new Pauta(null, "Assunto 5");
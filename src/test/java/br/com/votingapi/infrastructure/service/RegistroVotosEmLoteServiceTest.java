@@ -0,0 +1,169 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.RegistroVotosService;
+import br.com.votingapi.application.SerieVotacaoService;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import br.com.votingapi.infrastructure.service.exception.AssociadoJaVotouException;
+import br.com.votingapi.infrastructure.service.exception.EscritaVotosSobrecarregadaException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "votacao.escrita.modo=lote")
+@DirtiesContext
+public class RegistroVotosEmLoteServiceTest {
+
+    @Autowired
+    private RegistroVotosService registroVotosService;
+
+    @Autowired
+    private VotoRepository votoRepository;
+
+    @Autowired
+    private ContagemVotosRepository contagemVotosRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Voto voto(String idSessao, String cpfAssociado, boolean voto) {
+        return Voto.builder()
+                .idSessao(idSessao)
+                .cpfAssociado(cpfAssociado)
+                .voto(voto)
+                .build();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        votoRepository.deleteAll().block();
+        contagemVotosRepository.deleteAll().block();
+    }
+
+    @Test
+    public void registrar_agrupaVotosSimultaneos() {
+        assertTrue(registroVotosService instanceof RegistroVotosEmLoteServiceImpl);
+        var votos = Flux.range(0, 50)
+                .map(i -> voto("SESSAO1", String.format("%011d", i), i % 5 != 0));
+
+        StepVerifier.create(votos.flatMap(registroVotosService::registrar).count())
+                .expectSubscription()
+                .expectNext(50L)
+                .verifyComplete();
+        StepVerifier.create(contagemVotosRepository.findById("SESSAO1"))
+                .expectSubscription()
+                .consumeNextWith(contagemVotos -> {
+                    assertEquals(40, contagemVotos.getPros());
+                    assertEquals(10, contagemVotos.getContra());
+                })
+                .verifyComplete();
+        assertTrue(meterRegistry.get("votacao.escrita.lote.tamanho").summary().count() < 50);
+    }
+
+    @Test
+    public void registrar_associadoJaVotou() {
+        var resultados = Flux.merge(
+                registroVotosService.registrar(voto("SESSAO1", "26622817073", true))
+                        .map(votoSalvo -> "aceito")
+                        .onErrorReturn(AssociadoJaVotouException.class, "duplicado"),
+                registroVotosService.registrar(voto("SESSAO1", "26622817073", false))
+                        .map(votoSalvo -> "aceito")
+                        .onErrorReturn(AssociadoJaVotouException.class, "duplicado"),
+                registroVotosService.registrar(voto("SESSAO2", "26622817073", false))
+                        .map(votoSalvo -> "aceito")
+                        .onErrorReturn(AssociadoJaVotouException.class, "duplicado"))
+                .collectSortedList();
+
+        StepVerifier.create(resultados)
+                .expectSubscription()
+                .expectNextMatches(lista -> lista.equals(Arrays.asList("aceito", "aceito", "duplicado")))
+                .verifyComplete();
+        StepVerifier.create(Mono.zip(contagemVotosRepository.findById("SESSAO1"),
+                contagemVotosRepository.findById("SESSAO2")))
+                .expectSubscription()
+                .consumeNextWith(contagens -> {
+                    assertEquals(1, contagens.getT1().getPros() + contagens.getT1().getContra());
+                    assertEquals(1, contagens.getT2().getContra());
+                })
+                .verifyComplete();
+    }
+
+    /**
+     * Gravação lenta, com uma gravação por vez e fila de um lote: o tempo de espera dos lotes termina com a
+     * gravação em andamento, e o excedente é recusado sem interromper a gravação em lote.
+     */
+    @Test
+    public void registrar_gravacaoLentaRecusaExcedente() {
+        var votoRepositoryLento = Mockito.mock(VotoRepository.class);
+        Mockito.when(votoRepositoryLento.inserirEmLote(Mockito.anyList()))
+                .thenAnswer(invocacao -> Mono.delay(Duration.ofMillis(100)).thenReturn(Set.<Integer>of()));
+        var registro = registroLento(votoRepositoryLento);
+
+        var resultados = Flux.range(0, 20)
+                .delayElements(Duration.ofMillis(5))
+                .flatMap(i -> registro.registrar(voto("SESSAO1", String.format("%011d", i), true))
+                        .map(votoSalvo -> "aceito")
+                        .onErrorReturn(EscritaVotosSobrecarregadaException.class, "recusado"))
+                .collectList();
+
+        StepVerifier.create(resultados)
+                .expectSubscription()
+                .consumeNextWith(lista -> {
+                    assertEquals(20, lista.size());
+                    assertTrue(lista.contains("aceito"));
+                    assertTrue(lista.contains("recusado"));
+                })
+                .verifyComplete();
+        StepVerifier.create(registro.registrar(voto("SESSAO1", "26622817073", true)))
+                .expectSubscription()
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    public void registrar_erroNoLoteNaoInterrompeGravacao() {
+        var votoRepositoryInstavel = Mockito.mock(VotoRepository.class);
+        var gravacoes = new AtomicInteger();
+        Mockito.when(votoRepositoryInstavel.inserirEmLote(Mockito.anyList()))
+                .thenAnswer(invocacao -> gravacoes.getAndIncrement() == 0
+                        ? Mono.error(new IllegalStateException("falha"))
+                        : Mono.just(Set.<Integer>of()));
+        var registro = registroLento(votoRepositoryInstavel);
+
+        StepVerifier.create(registro.registrar(voto("SESSAO1", "26622817073", true)))
+                .expectSubscription()
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(registro.registrar(voto("SESSAO1", "26622817073", true)))
+                .expectSubscription()
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    private RegistroVotosEmLoteServiceImpl registroLento(VotoRepository votoRepository) {
+        var contagemVotosRepositoryMock = Mockito.mock(ContagemVotosRepository.class);
+        Mockito.when(contagemVotosRepositoryMock.incrementar(Mockito.anyCollection())).thenReturn(Mono.empty());
+        var serieVotacaoService = Mockito.mock(SerieVotacaoService.class);
+        Mockito.when(serieVotacaoService.registrar(Mockito.anyCollection())).thenReturn(Mono.empty());
+        return new RegistroVotosEmLoteServiceImpl(votoRepository, contagemVotosRepositoryMock, serieVotacaoService,
+                new SimpleMeterRegistry(), 2, 1, 1, 1);
+    }
+
+}
@@ -0,0 +1,148 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.application.RegistroVotosService;
+import br.com.votingapi.application.SerieVotacaoService;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import br.com.votingapi.infrastructure.persistence.wal.LogEscritaAntecipada;
+import br.com.votingapi.infrastructure.service.exception.AssociadoJaVotouException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "votacao.escrita.modo=write-behind",
+        "votacao.escrita.write-behind.diretorio=target/wal-teste"})
+@DirtiesContext
+public class RegistroVotosWriteBehindServiceTest {
+
+    @Autowired
+    private RegistroVotosService registroVotosService;
+
+    @Autowired
+    private VotoRepository votoRepository;
+
+    @Autowired
+    private ContagemVotosRepository contagemVotosRepository;
+
+    @Autowired
+    private SerieVotacaoService serieVotacaoService;
+
+    private Voto voto(String cpfAssociado, boolean voto) {
+        return Voto.builder()
+                .idSessao("SESSAO-WAL")
+                .cpfAssociado(cpfAssociado)
+                .voto(voto)
+                .build();
+    }
+
+    @Test
+    public void registrar_gravaNoBancoEmSegundoPlano() {
+        assertTrue(registroVotosService instanceof RegistroVotosWriteBehindServiceImpl);
+
+        StepVerifier.create(registroVotosService.registrar(voto("89221190048", true)))
+                .expectSubscription()
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(registroVotosService.registrar(voto("89221190048", false)))
+                .expectSubscription()
+                .expectError(AssociadoJaVotouException.class)
+                .verify();
+
+        StepVerifier.create(contagemVotosRepository.findById("SESSAO-WAL")
+                .repeatWhenEmpty(tentativas -> tentativas.delayElements(Duration.ofMillis(50)))
+                .timeout(Duration.ofSeconds(5)))
+                .expectSubscription()
+                .consumeNextWith(contagemVotos -> assertEquals(1, contagemVotos.getPros()))
+                .verifyComplete();
+        StepVerifier.create(votoRepository.findCpfsByIdSessao("SESSAO-WAL").count())
+                .expectSubscription()
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    /**
+     * Falha depois de inserir o voto e antes de incrementar os contadores: o voto está no log e no banco, e os
+     * contadores não o contaram.
+     */
+    @Test
+    public void iniciar_recontaSessaoDeVotoJaGravado() throws IOException {
+        Path diretorio = Paths.get("target/wal-teste-recontagem");
+        var voto = voto("84996652098", true);
+        voto.setId(new ObjectId().toHexString());
+        voto.setIdSessao("SESSAO-WAL-RECONTAGEM");
+        try (var logVotos = new LogEscritaAntecipada(diretorio, 1 << 20, 10)) {
+            logVotos.recuperar();
+            logVotos.anexar(voto).join();
+        }
+        votoRepository.insert(voto).block();
+        contagemVotosRepository.deleteById("SESSAO-WAL-RECONTAGEM").block();
+
+        var registro = new RegistroVotosWriteBehindServiceImpl(votoRepository, contagemVotosRepository,
+                serieVotacaoService, new SimpleMeterRegistry(), diretorio.toString(), 1 << 20, 10, 50, 3600000);
+        registro.iniciar();
+        registro.encerrar();
+
+        StepVerifier.create(contagemVotosRepository.findById("SESSAO-WAL-RECONTAGEM"))
+                .expectSubscription()
+                .consumeNextWith(contagemVotos -> {
+                    assertEquals(1, contagemVotos.getPros());
+                    assertEquals(0, contagemVotos.getContra());
+                })
+                .verifyComplete();
+    }
+
+    /**
+     * A sessão sai da memória depois de gravada e é carregada de novo do banco no próximo voto.
+     */
+    @Test
+    public void registrar_sessaoRetiradaDaMemoriaRecusaVotoRepetido() throws InterruptedException {
+        var registro = new RegistroVotosWriteBehindServiceImpl(votoRepository, contagemVotosRepository,
+                serieVotacaoService, new SimpleMeterRegistry(), "target/wal-teste-expiracao", 1 << 20, 10, 10, 50);
+        registro.iniciar();
+        try {
+            var voto = voto("89221190048", true);
+            voto.setIdSessao("SESSAO-WAL-EXPIRACAO");
+            StepVerifier.create(registro.registrar(voto))
+                    .expectSubscription()
+                    .expectNextCount(1)
+                    .verifyComplete();
+            StepVerifier.create(contagemVotosRepository.findById("SESSAO-WAL-EXPIRACAO")
+                    .repeatWhenEmpty(tentativas -> tentativas.delayElements(Duration.ofMillis(50)))
+                    .timeout(Duration.ofSeconds(5)))
+                    .expectSubscription()
+                    .expectNextCount(1)
+                    .verifyComplete();
+            Thread.sleep(300);
+
+            var repetido = voto("89221190048", false);
+            repetido.setIdSessao("SESSAO-WAL-EXPIRACAO");
+            StepVerifier.create(registro.registrar(repetido))
+                    .expectSubscription()
+                    .expectError(AssociadoJaVotouException.class)
+                    .verify();
+            var outro = voto("84996652098", false);
+            outro.setIdSessao("SESSAO-WAL-EXPIRACAO");
+            StepVerifier.create(registro.registrar(outro))
+                    .expectSubscription()
+                    .expectNextCount(1)
+                    .verifyComplete();
+        } finally {
+            registro.encerrar();
+        }
+    }
+
+}
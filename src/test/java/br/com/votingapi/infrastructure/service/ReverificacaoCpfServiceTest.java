@@ -0,0 +1,193 @@
+package br.com.votingapi.infrastructure.service;
+
+import br.com.votingapi.domain.model.AssociateVotePermission;
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.CpfResponse;
+import br.com.votingapi.domain.model.ResultadoVotacao;
+import br.com.votingapi.domain.model.VerificacaoCpfPendente;
+import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.configuration.CpfApiConfig;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ResultadoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VerificacaoCpfPendenteRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResumoVotacao;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@DirtiesContext
+public class ReverificacaoCpfServiceTest {
+
+    private MockWebServer server;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private VotoRepository votoRepository;
+
+    @Autowired
+    private ContagemVotosRepository contagemVotosRepository;
+
+    @Autowired
+    private VerificacaoCpfPendenteRepository verificacaoCpfPendenteRepository;
+
+    @Autowired
+    private ResultadoVotacaoRepository resultadoVotacaoRepository;
+
+    private CacheResultados cacheResultados;
+
+    private ReverificacaoCpfService reverificacaoCpfService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        var cpfApiConfig = new CpfApiConfig();
+        var webClient = cpfApiConfig.cpfApiWebClient(WebClient.builder(), cpfApiConfig.cpfApiConexoes(10, 500),
+                1000, 500);
+        var clienteApiCpf = new ClienteApiCpf(server.url("/").toString(), webClient,
+                cpfApiConfig.cpfApiBulkhead(10), cpfApiConfig.cpfApiCircuitBreaker(50, 20, 10000),
+                cpfApiConfig.cpfApiHedge(false, 95, 5, 20, new SimpleMeterRegistry()));
+        cacheResultados = new CacheResultados(new SimpleMeterRegistry(), 100, 60000);
+        reverificacaoCpfService = new ReverificacaoCpfService(clienteApiCpf, verificacaoCpfPendenteRepository,
+                votoRepository, contagemVotosRepository, resultadoVotacaoRepository, cacheResultados,
+                new SimpleMeterRegistry(), 60000, 0);
+
+        votoRepository.deleteAll().block();
+        contagemVotosRepository.deleteAll().block();
+        resultadoVotacaoRepository.deleteAll().block();
+        verificacaoCpfPendenteRepository.deleteAll().block();
+        votoRepository.insert(Voto.builder().idSessao("A").cpfAssociado("26622817073").voto(true).build())
+                .then(contagemVotosRepository.save(new ContagemVotos("A", 1, 0)))
+                .then(verificacaoCpfPendenteRepository.save(
+                        new VerificacaoCpfPendente(null, "A", "26622817073", LocalDateTime.now().minusMinutes(1))))
+                .block();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private void enfileirarResposta(AssociateVotePermission permissao) throws JsonProcessingException {
+        server.enqueue(new MockResponse()
+                .setBody(objectMapper.writeValueAsString(new CpfResponse(permissao)))
+                .addHeader("Content-Type", "application/json"));
+    }
+
+    @Test
+    public void reverificarPendentes_podeVotar() throws JsonProcessingException {
+        enfileirarResposta(AssociateVotePermission.ABLE_TO_VOTE);
+
+        StepVerifier.create(reverificacaoCpfService.reverificarPendentes())
+                .verifyComplete();
+
+        StepVerifier.create(verificacaoCpfPendenteRepository.count())
+                .expectNext(0L)
+                .verifyComplete();
+        StepVerifier.create(votoRepository.findByIdSessaoAndCpfAssociado("A", "26622817073"))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(contagemVotosRepository.findById("A"))
+                .expectNextMatches(contagem -> contagem.getPros() == 1 && contagem.getContra() == 0)
+                .verifyComplete();
+    }
+
+    @Test
+    public void reverificarPendentes_semPermissao_removeVoto() throws JsonProcessingException {
+        enfileirarResposta(AssociateVotePermission.UNABLE_TO_VOTE);
+
+        StepVerifier.create(reverificacaoCpfService.reverificarPendentes())
+                .verifyComplete();
+
+        StepVerifier.create(verificacaoCpfPendenteRepository.count())
+                .expectNext(0L)
+                .verifyComplete();
+        StepVerifier.create(votoRepository.findByIdSessaoAndCpfAssociado("A", "26622817073"))
+                .verifyComplete();
+        StepVerifier.create(contagemVotosRepository.findById("A"))
+                .expectNextMatches(contagem -> contagem.getPros() == 0 && contagem.getContra() == 0)
+                .verifyComplete();
+    }
+
+    @Test
+    public void reverificarPendentes_semPermissao_excluiResultadoGravado() throws JsonProcessingException {
+        enfileirarResposta(AssociateVotePermission.UNABLE_TO_VOTE);
+        resultadoVotacaoRepository.save(new ResultadoVotacao("A", "Assunto", 1, 0, true, LocalDateTime.now()))
+                .block();
+        cacheResultados.adicionar("A", ResumoVotacao.builder().assunto("Assunto").pros(1L).contra(0L)
+                .aprovado(true).build());
+
+        StepVerifier.create(reverificacaoCpfService.reverificarPendentes())
+                .verifyComplete();
+
+        StepVerifier.create(resultadoVotacaoRepository.findById("A"))
+                .verifyComplete();
+        assertTrue(cacheResultados.buscarCarregados(List.of("A")).isEmpty());
+    }
+
+    @Test
+    public void reverificarPendentes_votoJaRemovido_naoDescontaContadores() throws JsonProcessingException {
+        enfileirarResposta(AssociateVotePermission.UNABLE_TO_VOTE);
+        enfileirarResposta(AssociateVotePermission.UNABLE_TO_VOTE);
+        verificacaoCpfPendenteRepository.save(new VerificacaoCpfPendente(null, "A", "26622817073",
+                LocalDateTime.now().minusMinutes(1))).block();
+
+        StepVerifier.create(reverificacaoCpfService.reverificarPendentes())
+                .verifyComplete();
+
+        StepVerifier.create(contagemVotosRepository.findById("A"))
+                .expectNextMatches(contagem -> contagem.getPros() == 0 && contagem.getContra() == 0)
+                .verifyComplete();
+    }
+
+    @Test
+    public void reverificarPendentes_pendenteRecente_aguardaEspera() {
+        verificacaoCpfPendenteRepository.deleteAll()
+                .then(verificacaoCpfPendenteRepository.save(
+                        new VerificacaoCpfPendente(null, "A", "26622817073", LocalDateTime.now())))
+                .block();
+        var reverificacaoComEspera = new ReverificacaoCpfService(null, verificacaoCpfPendenteRepository,
+                votoRepository, contagemVotosRepository, resultadoVotacaoRepository, cacheResultados,
+                new SimpleMeterRegistry(), 60000, 60000);
+
+        StepVerifier.create(reverificacaoComEspera.reverificarPendentes())
+                .verifyComplete();
+
+        StepVerifier.create(verificacaoCpfPendenteRepository.count())
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    public void reverificarPendentes_apiComFalha_mantemPendente() {
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        StepVerifier.create(reverificacaoCpfService.reverificarPendentes())
+                .verifyComplete();
+
+        StepVerifier.create(verificacaoCpfPendenteRepository.count())
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+}
@@ -1,36 +1,56 @@
 package br.com.votingapi.infrastructure.service;
 
 import br.com.votingapi.application.CPFService;
+import br.com.votingapi.application.SerieVotacaoService;
 import br.com.votingapi.application.SessaoVotacaoService;
+import br.com.votingapi.domain.model.ContagemVotos;
+import br.com.votingapi.domain.model.EstrategiaApuracao;
+import br.com.votingapi.domain.model.GranularidadeSerie;
 import br.com.votingapi.domain.model.Pauta;
 import br.com.votingapi.domain.model.SessaoVotacao;
+import br.com.votingapi.domain.model.VerificacaoCpfPendente;
 import br.com.votingapi.domain.model.Voto;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ContagemVotosRepository;
 import br.com.votingapi.infrastructure.persistence.repository.jpa.PautaRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.ResultadoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.SerieVotosRepository;
 import br.com.votingapi.infrastructure.persistence.repository.jpa.SessaoVotacaoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.VerificacaoCpfPendenteRepository;
 import br.com.votingapi.infrastructure.persistence.repository.jpa.VotoRepository;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoApuracaoSessao;
+import br.com.votingapi.infrastructure.persistence.repository.jpa.projection.ResultadoApuracaoSessao.Situacao;
 import br.com.votingapi.infrastructure.service.exception.*;
+import com.mongodb.DBRef;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import static java.time.LocalDateTime.now;
 import static java.time.LocalDateTime.parse;
 import static java.util.Collections.emptyList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
-@SpringBootTest
+@SpringBootTest(properties = "votacao.encerramento.habilitado=false")
 @DirtiesContext
 public class SessaoVotacaoServiceTest {
 
@@ -43,9 +63,27 @@ public class SessaoVotacaoServiceTest {
     @Autowired
     private SessaoVotacaoRepository sessaoVotacaoRepository;
 
+    @Autowired
+    private ContagemVotosRepository contagemVotosRepository;
+
+    @Autowired
+    private ResultadoVotacaoRepository resultadoVotacaoRepository;
+
+    @Autowired
+    private SerieVotosRepository serieVotosRepository;
+
+    @Autowired
+    private VerificacaoCpfPendenteRepository verificacaoCpfPendenteRepository;
+
     @Autowired
     private SessaoVotacaoService sessaoVotacaoService;
 
+    @Autowired
+    private SerieVotacaoService serieVotacaoService;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
     @MockBean
     private CPFService cpfService;
 
@@ -106,6 +144,10 @@ public class SessaoVotacaoServiceTest {
                 })
                 .flatMap(sessaoVotacaoRepository::save)
                 .block();
+        contagemVotosRepository.deleteAll().block();
+        resultadoVotacaoRepository.deleteAll().block();
+        serieVotosRepository.deleteAll().block();
+        verificacaoCpfPendenteRepository.deleteAll().block();
     }
 
     @Test
@@ -117,6 +159,23 @@ public class SessaoVotacaoServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    public void listarPagina() {
+        StepVerifier.create(sessaoVotacaoService.listarPagina(null, 3))
+                .consumeNextWith(pagina -> {
+                    assertEquals(3, pagina.getItens().size());
+                    assertEquals("SESSAO3", pagina.getProximaAposId());
+                })
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoService.listarPagina("SESSAO3", 3))
+                .consumeNextWith(pagina -> {
+                    assertEquals(1, pagina.getItens().size());
+                    assertEquals("PAUTA4", pagina.getItens().get(0).getIdPauta());
+                    assertNull(pagina.getProximaAposId());
+                })
+                .verifyComplete();
+    }
+
     @Test
     public void salvar() {
         var sessaoVotacao = new SessaoVotacao(null, new Pauta("PAUTA5", null),
@@ -206,6 +265,22 @@ public class SessaoVotacaoServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    public void votar_gravaSomenteNaColecaoDeVotos() {
+        var voto = new Voto(null, "26622817073", true);
+        Mockito.when(cpfService.verificarSeCPFPodeVotar(voto)).thenReturn(Mono.just(voto));
+        sessaoVotacaoService.votar("SESSAO1", voto).block();
+
+        StepVerifier.create(votoRepository.findById(voto.getId()))
+                .expectSubscription()
+                .consumeNextWith(votoSalvo -> assertEquals("SESSAO1", votoSalvo.getIdSessao()))
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoRepository.findById("SESSAO1"))
+                .expectSubscription()
+                .consumeNextWith(sessaoVotacao -> assertEquals(emptyList(), sessaoVotacao.getVotos()))
+                .verifyComplete();
+    }
+
     @Test
     public void votar_associadoJaVotou() {
         var voto = new Voto(null, "26622817073", true);
@@ -223,6 +298,59 @@ public class SessaoVotacaoServiceTest {
                 .verify();
     }
 
+    @Test
+    public void votar_cpfComPontuacao_associadoJaVotou() {
+        Mockito.when(cpfService.verificarSeCPFPodeVotar(Mockito.any()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        StepVerifier.create(sessaoVotacaoService.votar("SESSAO1", new Voto(null, "266.228.170-73", true)))
+                .consumeNextWith(votoSalvo -> assertEquals("26622817073", votoSalvo.getCpfAssociado()))
+                .verifyComplete();
+
+        StepVerifier.create(sessaoVotacaoService.votar("SESSAO1", new Voto(null, "26622817073", false)))
+                .expectError(AssociadoJaVotouException.class)
+                .verify();
+        StepVerifier.create(sessaoVotacaoService.votar("SESSAO1", new Voto(null, "266.228.17073", false)))
+                .expectError(AssociadoJaVotouException.class)
+                .verify();
+    }
+
+    @Test
+    public void votar_associadoJaVotouNaListaDaSessao() {
+        sessaoVotacaoRepository.findById("SESSAO1")
+                .map(sessaoVotacao -> {
+                    sessaoVotacao.getVotos().addAll(votosList());
+                    return sessaoVotacao;
+                })
+                .flatMap(sessaoVotacaoRepository::save)
+                .block();
+        var voto = new Voto(null, "89221190048", false);
+        Mockito.when(cpfService.verificarSeCPFPodeVotar(voto)).thenReturn(Mono.just(voto));
+
+        StepVerifier.create(sessaoVotacaoService.votar("SESSAO1", voto))
+                .expectSubscription()
+                .expectError(AssociadoJaVotouException.class)
+                .verify();
+        Mockito.verify(cpfService, Mockito.never()).verificarSeCPFPodeVotar(Mockito.any());
+    }
+
+    @Test
+    public void votar_associadoJaVotou_votosSimultaneos() {
+        Mockito.when(cpfService.verificarSeCPFPodeVotar(Mockito.any()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        var resultados = Flux.merge(
+                sessaoVotacaoService.votar("SESSAO1", new Voto(null, "26622817073", true))
+                        .map(votoSalvo -> "aceito")
+                        .onErrorReturn(AssociadoJaVotouException.class, "duplicado"),
+                sessaoVotacaoService.votar("SESSAO1", new Voto(null, "26622817073", false))
+                        .map(votoSalvo -> "aceito")
+                        .onErrorReturn(AssociadoJaVotouException.class, "duplicado"))
+                .collectSortedList();
+        StepVerifier.create(resultados)
+                .expectSubscription()
+                .expectNext(Arrays.asList("aceito", "duplicado"))
+                .verifyComplete();
+    }
+
     @Test
     public void votar_sessaoNaoIniciada() {
         var voto = new Voto(null, "26622817073", true);
@@ -245,6 +373,73 @@ public class SessaoVotacaoServiceTest {
                 .verify();
     }
 
+    @Test
+    public void votar_cpfInvalido_naoConsultaApiCpf() {
+        var voto = new Voto(null, "12345678900", true);
+        var votoMono = sessaoVotacaoService.votar("SESSAO1", voto);
+        StepVerifier.create(votoMono)
+                .expectSubscription()
+                .expectError(CpfInvalidoException.class)
+                .verify();
+        Mockito.verify(cpfService, Mockito.never()).verificarSeCPFPodeVotar(Mockito.any());
+    }
+
+    @Test
+    public void votar_sessaoInexistente_naoConsultaApiCpf() {
+        var voto = new Voto(null, "26622817073", true);
+        var votoMono = sessaoVotacaoService.votar("SESSAO_INEXISTENTE", voto);
+        StepVerifier.create(votoMono)
+                .expectSubscription()
+                .expectError(EmptyResultDataAccessException.class)
+                .verify();
+        Mockito.verify(cpfService, Mockito.never()).verificarSeCPFPodeVotar(Mockito.any());
+    }
+
+    @Test
+    public void votar_sessaoEncerrada_naoConsultaApiCpf() {
+        var voto = new Voto(null, "26622817073", true);
+        var votoMono = sessaoVotacaoService.votar("SESSAO3", voto);
+        StepVerifier.create(votoMono)
+                .expectSubscription()
+                .expectError(SessaoVotacaoEncerradaException.class)
+                .verify();
+        Mockito.verify(cpfService, Mockito.never()).verificarSeCPFPodeVotar(Mockito.any());
+    }
+
+    @Test
+    public void votar_associadoJaVotou_naoConsultaApiCpf() {
+        Mockito.when(cpfService.verificarSeCPFPodeVotar(Mockito.any()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        sessaoVotacaoService.votar("SESSAO1", new Voto(null, "26622817073", true)).block();
+
+        var votoMono = sessaoVotacaoService.votar("SESSAO1", new Voto(null, "26622817073", false));
+        StepVerifier.create(votoMono)
+                .expectSubscription()
+                .expectError(AssociadoJaVotouException.class)
+                .verify();
+        Mockito.verify(cpfService, Mockito.times(1)).verificarSeCPFPodeVotar(Mockito.any());
+    }
+
+    @Test
+    public void votar_sessaoAlterada() {
+        Mockito.when(cpfService.verificarSeCPFPodeVotar(Mockito.any()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        sessaoVotacaoService.votar("SESSAO1", new Voto(null, "26622817073", true)).block();
+        sessaoVotacaoRepository.findById("SESSAO1")
+                .map(sessaoVotacao -> {
+                    sessaoVotacao.setDataFim(now().minusSeconds(1));
+                    return sessaoVotacao;
+                })
+                .flatMap(sessaoVotacaoRepository::save)
+                .block();
+
+        var votoMono = sessaoVotacaoService.votar("SESSAO1", new Voto(null, "89221190048", true));
+        StepVerifier.create(votoMono)
+                .expectSubscription()
+                .expectError(SessaoVotacaoEncerradaException.class)
+                .verify();
+    }
+
     @Test
     public void votar_associadoSemPermissao() {
         var voto = new Voto(null, "26622817073", true);
@@ -294,6 +489,195 @@ public class SessaoVotacaoServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    public void apurarResultado_contadores() {
+        Mockito.when(cpfService.verificarSeCPFPodeVotar(Mockito.any()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        Flux.just(new Voto(null, "26622817073", true),
+                new Voto(null, "89221190048", true),
+                new Voto(null, "84996652098", false))
+                .concatMap(voto -> sessaoVotacaoService.votar("SESSAO1", voto))
+                .blockLast();
+        sessaoVotacaoRepository.findById("SESSAO1")
+                .map(sessaoVotacao -> {
+                    sessaoVotacao.setDataFim(now().minusSeconds(1));
+                    return sessaoVotacao;
+                })
+                .flatMap(sessaoVotacaoRepository::save)
+                .block();
+
+        StepVerifier.create(sessaoVotacaoService.apurarResultadoVotacao("SESSAO1"))
+                .expectSubscription()
+                .consumeNextWith(resumoVotacao -> {
+                    assertEquals("Assunto 1", resumoVotacao.getAssunto());
+                    assertEquals(2, resumoVotacao.getPros());
+                    assertEquals(1, resumoVotacao.getContra());
+                    assertEquals(true, resumoVotacao.getAprovado());
+                })
+                .verifyComplete();
+    }
+
+    /**
+     * Contadores marcados como divergentes, por um incremento que falhou depois de o voto ser gravado, são
+     * substituídos pela contagem dos votos da sessão.
+     */
+    @Test
+    public void apurarResultado_contadoresDivergentes() {
+        votoRepository.save(new Voto("VOTO6", "SESSAO4", "26622817073", true)).block();
+        contagemVotosRepository.marcarDivergentes(List.of("SESSAO4")).block();
+
+        StepVerifier.create(sessaoVotacaoService.consultarResultadosVotacao(List.of("SESSAO4")))
+                .consumeNextWith(resultado -> {
+                    assertEquals(4, resultado.getResultado().getPros());
+                    assertEquals(2, resultado.getResultado().getContra());
+                })
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoService.apurarResultadoVotacao("SESSAO4"))
+                .consumeNextWith(resumoVotacao -> {
+                    assertEquals(4, resumoVotacao.getPros());
+                    assertEquals(2, resumoVotacao.getContra());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void apurarResultado_materializado() {
+        StepVerifier.create(sessaoVotacaoService.apurarResultadoVotacao("SESSAO4"))
+                .expectNextCount(1)
+                .verifyComplete();
+        contagemVotosRepository.save(new ContagemVotos("SESSAO4", 10, 0)).block();
+
+        StepVerifier.create(sessaoVotacaoService.apurarResultadoVotacao("SESSAO4"))
+                .consumeNextWith(resumoVotacao -> {
+                    assertEquals(3, resumoVotacao.getPros());
+                    assertEquals(2, resumoVotacao.getContra());
+                })
+                .verifyComplete();
+        StepVerifier.create(resultadoVotacaoRepository.findById("SESSAO4"))
+                .consumeNextWith(resultadoVotacao -> {
+                    assertEquals(3, resultadoVotacao.getPros());
+                    assertEquals(2, resultadoVotacao.getContra());
+                })
+                .verifyComplete();
+    }
+
+    /**
+     * Enquanto houver CPF aceito com a API indisponível aguardando nova verificação, o voto ainda pode ser
+     * removido: o resultado é provisório e não é gravado.
+     */
+    @Test
+    public void apurarResultado_verificacaoCpfPendente_provisorio() {
+        verificacaoCpfPendenteRepository.save(new VerificacaoCpfPendente(null, "SESSAO4", "89221190048",
+                parse("2020-04-19T17:02:00"))).block();
+
+        StepVerifier.create(sessaoVotacaoService.apurarResultadoVotacao("SESSAO4"))
+                .consumeNextWith(resumoVotacao -> assertEquals(true, resumoVotacao.getProvisorio()))
+                .verifyComplete();
+        StepVerifier.create(sessaoVotacaoService.apurarResultadosVotacao(List.of("SESSAO4")))
+                .consumeNextWith(resultado -> assertEquals(true, resultado.getResultado().getProvisorio()))
+                .verifyComplete();
+        StepVerifier.create(resultadoVotacaoRepository.findById("SESSAO4"))
+                .verifyComplete();
+
+        verificacaoCpfPendenteRepository.deleteAll().block();
+
+        StepVerifier.create(sessaoVotacaoService.apurarResultadoVotacao("SESSAO4"))
+                .consumeNextWith(resumoVotacao -> assertNull(resumoVotacao.getProvisorio()))
+                .verifyComplete();
+        StepVerifier.create(resultadoVotacaoRepository.findById("SESSAO4"))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    public void apurarResultado_estrategias() {
+        votoRepository.save(new Voto("VOTO6", "SESSAO4", "26622817073", true)).block();
+        contagemVotosRepository.incrementar("SESSAO4", 1, 0).block();
+
+        for (EstrategiaApuracao estrategia : EstrategiaApuracao.values()) {
+            StepVerifier.create(sessaoVotacaoService.apurarResultadoVotacao("SESSAO4", estrategia))
+                    .consumeNextWith(resumoVotacao -> {
+                        assertEquals("Assunto 4", resumoVotacao.getAssunto());
+                        assertEquals(4, resumoVotacao.getPros());
+                        assertEquals(2, resumoVotacao.getContra());
+                        assertEquals(true, resumoVotacao.getAprovado());
+                    })
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    public void apurarResultado_agregacaoSemContadores() {
+        votoRepository.save(new Voto("VOTO6", "SESSAO4", "26622817073", false)).block();
+        votoRepository.save(new Voto("VOTO7", "SESSAO4", "64165483041", false)).block();
+
+        StepVerifier.create(sessaoVotacaoService.apurarResultadoVotacao("SESSAO4", EstrategiaApuracao.AGREGACAO))
+                .consumeNextWith(resumoVotacao -> {
+                    assertEquals(3, resumoVotacao.getPros());
+                    assertEquals(4, resumoVotacao.getContra());
+                    assertEquals(false, resumoVotacao.getAprovado());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void apurarResultados() {
+        votoRepository.save(new Voto("VOTO6", "SESSAO4", "26622817073", false)).block();
+        contagemVotosRepository.incrementar("SESSAO4", 0, 1).block();
+
+        for (int consulta = 0; consulta < 2; consulta++) {
+            Map<String, ResultadoApuracaoSessao> resultados = sessaoVotacaoService
+                    .apurarResultadosVotacao(Arrays.asList("SESSAO4", "SESSAO1", "SESSAO9", "SESSAO4"))
+                    .collectMap(ResultadoApuracaoSessao::getIdSessao)
+                    .block();
+
+            assertEquals(3, resultados.size());
+            assertEquals(Situacao.SESSAO_NAO_ENCERRADA, resultados.get("SESSAO1").getSituacao());
+            assertNull(resultados.get("SESSAO1").getResultado());
+            assertEquals(Situacao.SESSAO_NAO_ENCONTRADA, resultados.get("SESSAO9").getSituacao());
+            ResultadoApuracaoSessao sessao4 = resultados.get("SESSAO4");
+            assertEquals(Situacao.APURADO, sessao4.getSituacao());
+            assertEquals("Assunto 4", sessao4.getResultado().getAssunto());
+            assertEquals(3, sessao4.getResultado().getPros());
+            assertEquals(3, sessao4.getResultado().getContra());
+            assertEquals(false, sessao4.getResultado().getAprovado());
+        }
+        StepVerifier.create(resultadoVotacaoRepository.findById("SESSAO4"))
+                .consumeNextWith(resultadoVotacao -> assertEquals(3, resultadoVotacao.getContra()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void buscarSerie() {
+        Mockito.when(cpfService.verificarSeCPFPodeVotar(Mockito.any()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        Flux.just(new Voto(null, "26622817073", true),
+                new Voto(null, "89221190048", true),
+                new Voto(null, "84996652098", false))
+                .concatMap(voto -> sessaoVotacaoService.votar("SESSAO1", voto))
+                .blockLast();
+
+        for (GranularidadeSerie granularidade : GranularidadeSerie.values()) {
+            StepVerifier.create(serieVotacaoService.buscarSerie("SESSAO1", granularidade))
+                    .consumeNextWith(serie -> {
+                        assertEquals(granularidade, serie.getGranularidade());
+                        assertEquals(2, serie.getPontos().stream().mapToLong(ponto -> ponto.getPros()).sum());
+                        assertEquals(1, serie.getPontos().stream().mapToLong(ponto -> ponto.getContra()).sum());
+                        assertNotNull(serie.getPico());
+                    })
+                    .verifyComplete();
+        }
+        StepVerifier.create(serieVotacaoService.buscarSerie("SESSAO4", GranularidadeSerie.SEGUNDO))
+                .consumeNextWith(serie -> {
+                    assertEquals(0, serie.getPontos().size());
+                    assertNull(serie.getPico());
+                })
+                .verifyComplete();
+        StepVerifier.create(serieVotacaoService.buscarSerie("SESSAO9", GranularidadeSerie.SEGUNDO))
+                .expectError(EmptyResultDataAccessException.class)
+                .verify();
+    }
+
     @Test
     public void votar_sessaoNaoEncerrada() {
         var resumoVotacaoMono = sessaoVotacaoService.apurarResultadoVotacao("SESSAO1");
@@ -303,4 +687,57 @@ public class SessaoVotacaoServiceTest {
                 .verify();
     }
 
+    /**
+     * O acompanhamento lê só os metadados da sessão: uma lista de votos que não poderia ser convertida para a
+     * entidade não impede o envio do resultado parcial.
+     */
+    @Test
+    public void acompanharResultado_leSomenteMetadados() {
+        Document sessao = new Document("_id", "SESSAO9")
+                .append("pauta", new DBRef(reactiveMongoTemplate.getCollectionName(Pauta.class), "PAUTA1"))
+                .append("dataInicio", Date.from(now().minusHours(1).atZone(ZoneId.systemDefault()).toInstant()))
+                .append("dataFim", Date.from(now().plusHours(1).atZone(ZoneId.systemDefault()).toInstant()))
+                .append("votos", "lista que não é convertida para a entidade");
+        reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(SessaoVotacao.class))
+                .flatMap(colecao -> Mono.from(colecao.insertOne(sessao)))
+                .block();
+
+        StepVerifier.create(sessaoVotacaoService.acompanharResultadoVotacao("SESSAO9"))
+                .consumeNextWith(resumoVotacao -> {
+                    assertEquals("Assunto 1", resumoVotacao.getAssunto());
+                    assertEquals(0, resumoVotacao.getPros());
+                    assertEquals(0, resumoVotacao.getContra());
+                    assertEquals(false, resumoVotacao.getEncerrada());
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    /**
+     * Os votos da lista são contados a cada apuração: um voto que deixa de ser contado na lista sai do parcial.
+     */
+    @Test
+    public void acompanharResultado_recontaVotosLegados() {
+        sessaoVotacaoRepository.findById("SESSAO1")
+                .map(sessaoVotacao -> {
+                    sessaoVotacao.getVotos().addAll(votosList().subList(0, 3));
+                    return sessaoVotacao;
+                })
+                .flatMap(sessaoVotacaoRepository::save)
+                .block();
+
+        StepVerifier.create(sessaoVotacaoService.acompanharResultadoVotacao("SESSAO1"))
+                .consumeNextWith(resumoVotacao -> {
+                    assertEquals(2, resumoVotacao.getPros());
+                    assertEquals(1, resumoVotacao.getContra());
+                })
+                .then(() -> votoRepository.deleteById("VOTO1").block())
+                .consumeNextWith(resumoVotacao -> {
+                    assertEquals(1, resumoVotacao.getPros());
+                    assertEquals(1, resumoVotacao.getContra());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
 }